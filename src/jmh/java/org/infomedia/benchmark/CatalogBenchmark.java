@@ -0,0 +1,199 @@
+package org.infomedia.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.infomedia.Main;
+import org.infomedia.catalog.CatalogDictionary;
+import org.infomedia.catalog.CatalogGenerator;
+import org.infomedia.catalog.CatalogLoader;
+import org.infomedia.dto.OperationSearchRequest;
+import org.infomedia.dto.SuggestionRequest;
+import org.infomedia.dto.SuggestionResponse;
+import org.infomedia.index.OperationIndex;
+import org.infomedia.model.Operation;
+import org.infomedia.repository.OperationRepository;
+import org.infomedia.repository.OperationSpecifications;
+import org.infomedia.service.OperationService;
+import org.infomedia.service.SuggestionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of each stage of the suggestion and search paths against an embedded H2 catalog:
+ * building the {@link Specification}, compiling it to a query, executing it, mapping the rows
+ * to DTOs and serializing the resulting {@code Page<SuggestionResponse>} to JSON, plus the
+ * services end to end with both suggestion engines.
+ * <p>
+ * The catalog comes from the {@link CatalogGenerator} with a fixed seed, one vehicle per ten
+ * operations; its size is the {@code operations} parameter, e.g.
+ * {@code -Djmh.args="-p operations=10000,1000000"}. It is loaded once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CatalogBenchmark {
+
+    private static final long SEED = 42;
+
+    private static final int REQUESTS = 1024;
+
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+
+    @Param("10000")
+    private int operations;
+
+    @Param({"jpa", "memory"})
+    private String engine;
+
+    private ConfigurableApplicationContext context;
+
+    private EntityManager entityManager;
+
+    private OperationRepository operationRepository;
+
+    private CatalogDictionary catalogDictionary;
+
+    private SuggestionService suggestionService;
+
+    private OperationService operationService;
+
+    private ObjectMapper objectMapper;
+
+    private SuggestionRequest[] suggestionRequests;
+
+    private OperationSearchRequest[] searchRequests;
+
+    private List<Operation> rows;
+
+    private Page<SuggestionResponse> page;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Main.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "spring.sql.init.mode=never",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "spring.jpa.show-sql=false",
+                        "spring.h2.console.enabled=false",
+                        "suggestion.engine=" + engine,
+                        "suggestion.cache.max-size=0",
+                        "logging.level.root=WARN")
+                .run();
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        operationRepository = context.getBean(OperationRepository.class);
+        catalogDictionary = context.getBean(CatalogDictionary.class);
+        suggestionService = context.getBean(SuggestionService.class);
+        operationService = context.getBean(OperationService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        context.getBean(CatalogLoader.class).load(new CatalogGenerator(SEED, operations / 10, operations));
+        context.getBean(OperationIndex.class).load();
+
+        // requests follow the catalog's popularity skew: each targets the configuration of a
+        // random operation, so popular configurations are asked for more often
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Random random = new Random(SEED);
+        suggestionRequests = new SuggestionRequest[REQUESTS];
+        searchRequests = new OperationSearchRequest[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            String[] key = jdbcTemplate.queryForObject("SELECT brand, model, engine FROM operation WHERE id = ?",
+                    (rs, row) -> new String[]{rs.getString(1), rs.getString(2), rs.getString(3)},
+                    1 + random.nextInt(operations));
+            int year = 1995 + random.nextInt(30);
+            double miles = random.nextInt(400_000);
+            suggestionRequests[i] = new SuggestionRequest(key[0], key[1], key[2], year, miles);
+            OperationSearchRequest search = new OperationSearchRequest();
+            search.setBrand(key[0]);
+            search.setModel(key[1]);
+            search.setYearStart(year);
+            search.setYearEnd(year);
+            searchRequests[i] = search;
+        }
+
+        Page<Operation> firstPage = operationRepository.findAll(PAGE);
+        rows = firstPage.getContent();
+        page = firstPage.map(SuggestionResponse::toResponse);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public CriteriaQuery<Operation> buildSpecification() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Operation> query = cb.createQuery(Operation.class);
+        Root<Operation> root = query.from(Operation.class);
+        return query.where(OperationSpecifications.suggestion(nextSuggestion(), catalogDictionary)
+                .toPredicate(root, query, cb));
+    }
+
+    @Benchmark
+    public Object compileQuery() {
+        return entityManager.createQuery(buildSpecification());
+    }
+
+    @Benchmark
+    public Page<Operation> executeQuery() {
+        return operationRepository.findAll(OperationSpecifications.suggestion(nextSuggestion(), catalogDictionary), PAGE);
+    }
+
+    @Benchmark
+    public List<SuggestionResponse> mapToDto() {
+        List<SuggestionResponse> responses = new ArrayList<>(rows.size());
+        for (Operation operation : rows) {
+            responses.add(SuggestionResponse.toResponse(operation));
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Page<SuggestionResponse> suggest() {
+        return suggestionService.suggest(nextSuggestion(), PAGE);
+    }
+
+    @Benchmark
+    public Object search() {
+        return operationService.search(searchRequests[nextIndex()], PAGE);
+    }
+
+    private SuggestionRequest nextSuggestion() {
+        return suggestionRequests[nextIndex()];
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (REQUESTS - 1);
+        return next;
+    }
+}
@@ -0,0 +1,67 @@
+package org.infomedia.benchmark;
+
+import org.infomedia.dto.OperationRequest;
+import org.infomedia.dto.SuggestionResponse;
+import org.infomedia.model.Operation;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-item cost of the DTO mappings on the suggestion and update paths: the reflective
+ * {@link ModelMapper} the services used to call against the hand-written mappers that replaced it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MappingBenchmark {
+
+    private ModelMapper modelMapper;
+
+    private Operation operation;
+
+    private OperationRequest request;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        operation = Operation.builder()
+                .id(42L).brand("Toyota").model("Camry").engine("2.5L")
+                .yearStart(2015).yearEnd(2020).distanceStart(30000d).distanceEnd(60000d)
+                .name("Oil Change").approxCost(75d).description("Standard oil change with synthetic oil").time(1)
+                .build();
+        request = new OperationRequest("Toyota", "Camry", "2.5L", 2015, 2020, 30000d, 60000d,
+                "Oil Change", 75d, "Standard oil change with synthetic oil", 1);
+        // resolve the type maps once so the measurements exclude first-use configuration
+        modelMapper.map(operation, SuggestionResponse.class);
+        modelMapper.map(request, new Operation());
+    }
+
+    @Benchmark
+    public SuggestionResponse suggestionModelMapper() {
+        return modelMapper.map(operation, SuggestionResponse.class);
+    }
+
+    @Benchmark
+    public SuggestionResponse suggestionHandWritten() {
+        return SuggestionResponse.toResponse(operation);
+    }
+
+    @Benchmark
+    public Operation updateModelMapper() {
+        Operation target = new Operation();
+        modelMapper.map(request, target);
+        return target;
+    }
+
+    @Benchmark
+    public Operation updateHandWritten() {
+        Operation target = new Operation();
+        request.applyTo(target);
+        return target;
+    }
+}
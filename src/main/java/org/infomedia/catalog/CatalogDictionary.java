@@ -0,0 +1,132 @@
+package org.infomedia.catalog;
+
+import org.infomedia.model.CatalogTerm;
+import org.infomedia.model.CatalogTerm.Kind;
+import org.infomedia.model.Operation;
+import org.infomedia.model.OperationKey;
+import org.infomedia.model.Vehicle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of the {@link CatalogTerm} dictionary, resolving brand, model and engine
+ * strings to the integer ids stored on operations and vehicles.
+ * <p>
+ * Terms are never renamed or deleted, so a resolved id is cached for the life of the
+ * application. Unknown values are not cached: a term created later, possibly by another
+ * instance, is found on the next lookup.
+ */
+@Component
+public class CatalogDictionary {
+
+    /**
+     * Id returned for a value that is not in the dictionary; no row carries it, so a filter on
+     * it matches nothing.
+     */
+    public static final int UNKNOWN = -1;
+
+    private static final String SELECT = "SELECT id FROM catalog_term WHERE kind = ? AND term_key = ?";
+
+    private static final String INSERT = "INSERT INTO catalog_term (kind, term_key, name) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Kind, Map<String, Integer>> ids = new EnumMap<>(Kind.class);
+
+    public CatalogDictionary(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (Kind kind : Kind.values()) {
+            ids.put(kind, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Resolve a value without creating it; used for filters.
+     *
+     * @param kind  the dictionary
+     * @param value the raw value, matched case-insensitively
+     * @return the id, {@link #UNKNOWN} if the value is not in the dictionary, or null if the value is null
+     */
+    public Integer find(Kind kind, String value) {
+        String key = OperationKey.normalize(value);
+        if (key == null) {
+            return null;
+        }
+        Integer id = ids.get(kind).get(key);
+        if (id == null) {
+            id = select(kind, key);
+            if (id == null) {
+                return UNKNOWN;
+            }
+            ids.get(kind).put(key, id);
+        }
+        return id;
+    }
+
+    /**
+     * Resolve a value, adding it to the dictionary if it is new; used when rows are written.
+     * <p>
+     * New terms are committed in their own transaction, so a cached id never refers to a term
+     * that was rolled back with the caller's transaction.
+     *
+     * @param kind  the dictionary
+     * @param value the raw value
+     * @return the id, or null if the value is null
+     */
+    public Integer idFor(Kind kind, String value) {
+        Integer id = find(kind, value);
+        if (id == null || id != UNKNOWN) {
+            return id;
+        }
+        String key = OperationKey.normalize(value);
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.update(INSERT, kind.name(), key, value.trim()));
+        } catch (DuplicateKeyException ex) {
+            // created concurrently, the select below finds it
+        }
+        Integer created = select(kind, key);
+        ids.get(kind).put(key, created);
+        return created;
+    }
+
+    /**
+     * Set the dictionary ids of an operation from its brand, model and engine.
+     *
+     * @param operation the operation about to be saved
+     */
+    public void encode(Operation operation) {
+        operation.setMakeId(idFor(Kind.MAKE, operation.getBrand()));
+        operation.setModelId(idFor(Kind.MODEL, operation.getModel()));
+        operation.setEngineId(idFor(Kind.ENGINE, operation.getEngine()));
+    }
+
+    /**
+     * Set the dictionary ids of a vehicle from its brand, model and engine.
+     *
+     * @param vehicle the vehicle about to be saved
+     */
+    public void encode(Vehicle vehicle) {
+        vehicle.setMakeId(idFor(Kind.MAKE, vehicle.getBrand()));
+        vehicle.setModelId(idFor(Kind.MODEL, vehicle.getModel()));
+        vehicle.setEngineId(idFor(Kind.ENGINE, vehicle.getEngine()));
+    }
+
+    private Integer select(Kind kind, String key) {
+        List<Integer> found = jdbcTemplate.queryForList(SELECT, Integer.class, kind.name(), key);
+        return found.isEmpty() ? null : found.get(0);
+    }
+}
@@ -0,0 +1,266 @@
+package org.infomedia.catalog;
+
+import org.infomedia.model.Operation;
+import org.infomedia.model.Vehicle;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates a synthetic but realistically shaped vehicle and operation catalog for load tests
+ * and benchmarks.
+ * <p>
+ * Brands and, within a brand, models are picked with Zipf-distributed popularity, so a few
+ * configurations carry most vehicles and operations. Operations repeat per configuration with
+ * overlapping year and distance ranges, and descriptions range from a sentence up to the
+ * 2000-character column limit. The output depends only on the seed and the requested sizes:
+ * the same arguments always produce the same rows in the same order.
+ */
+public final class CatalogGenerator {
+
+    /**
+     * Length limit of {@link Operation#getDescription()}.
+     */
+    public static final int MAX_DESCRIPTION_LENGTH = 2000;
+
+    static final int FIRST_YEAR = 1995;
+
+    static final int LAST_YEAR = 2024;
+
+    private static final String[] BRANDS = {
+            "Toyota", "Volkswagen", "Ford", "Honda", "Chevrolet", "Nissan", "Hyundai", "Kia", "BMW",
+            "Mercedes-Benz", "Audi", "Renault", "Peugeot", "Skoda", "Mazda", "Subaru", "Volvo", "Fiat",
+            "Seat", "Opel", "Citroen", "Mitsubishi", "Lexus", "Tesla"
+    };
+
+    private static final String[] MODEL_STEMS = {
+            "Aster", "Brio", "Cirrus", "Dune", "Ember", "Fjord", "Gale", "Harbor", "Ion", "Juno",
+            "Kestrel", "Lumen", "Mistral", "Nova", "Orion", "Pulse", "Quill", "Ridge", "Sierra", "Tundra"
+    };
+
+    private static final String[] ENGINES = {
+            "1.0L Turbo", "1.2L", "1.4L Turbo", "1.5L", "1.6L", "1.6L Diesel", "2.0L", "2.0L Turbo",
+            "2.0L Diesel", "2.5L Hybrid", "3.0L V6", "3.5L V6", "5.0L V8", "Electric"
+    };
+
+    /**
+     * Operation templates: name, service interval in km, base cost and labour hours.
+     */
+    private static final Template[] TEMPLATES = {
+            new Template("Oil Change", 15_000, 75, 1),
+            new Template("Air Filter Replacement", 30_000, 40, 1),
+            new Template("Cabin Filter Replacement", 20_000, 35, 1),
+            new Template("Brake Pad Replacement", 40_000, 180, 2),
+            new Template("Brake Fluid Flush", 60_000, 90, 1),
+            new Template("Tire Rotation", 10_000, 30, 1),
+            new Template("Spark Plug Replacement", 60_000, 120, 2),
+            new Template("Timing Belt Replacement", 100_000, 650, 5),
+            new Template("Coolant Flush", 80_000, 110, 2),
+            new Template("Transmission Fluid Change", 90_000, 220, 2),
+            new Template("Battery Replacement", 70_000, 160, 1),
+            new Template("Wheel Alignment", 25_000, 85, 1),
+            new Template("Fuel Filter Replacement", 50_000, 95, 1),
+            new Template("Suspension Inspection", 45_000, 60, 1),
+            new Template("Clutch Replacement", 150_000, 900, 6)
+    };
+
+    private static final String[] WORDS = {
+            "inspect", "replace", "check", "torque", "drain", "refill", "clean", "adjust", "lubricate",
+            "the", "all", "front", "rear", "left", "right", "seal", "gasket", "bolt", "housing", "hose",
+            "clamp", "sensor", "bracket", "filter", "fluid", "pressure", "level", "wear", "leak",
+            "according", "to", "manufacturer", "specification", "and", "with", "new", "genuine", "parts",
+            "before", "after", "test", "drive", "record", "mileage", "service", "book", "reset",
+            "indicator", "using", "diagnostic", "tool", "if", "necessary"
+    };
+
+    private final long seed;
+
+    private final int vehicleCount;
+
+    private final int operationCount;
+
+    private final Configuration[] configurations;
+
+    private final int modelsPerBrand;
+
+    private final Zipf brandPopularity;
+
+    private final Zipf modelPopularity;
+
+    /**
+     * @param seed       the random seed; equal seeds and sizes give identical catalogs
+     * @param vehicles   the number of vehicles to generate
+     * @param operations the number of operations to generate
+     */
+    public CatalogGenerator(long seed, int vehicles, int operations) {
+        if (vehicles < 0 || operations < 0) {
+            throw new IllegalArgumentException("Catalog sizes must not be negative");
+        }
+        this.seed = seed;
+        this.vehicleCount = vehicles;
+        this.operationCount = operations;
+
+        // enough configurations that vehicles stay unique per make year and each
+        // configuration gets a few dozen operations on average
+        int targetConfigurations = Math.max(vehicles / 10, operations / 40);
+        this.modelsPerBrand = Math.max(4, (int) Math.ceil(targetConfigurations / (BRANDS.length * 2.0)));
+        SplittableRandom random = new SplittableRandom(seed);
+        this.configurations = new Configuration[BRANDS.length * modelsPerBrand];
+        for (int b = 0; b < BRANDS.length; b++) {
+            for (int m = 0; m < modelsPerBrand; m++) {
+                String model = MODEL_STEMS[m % MODEL_STEMS.length]
+                        + (m < MODEL_STEMS.length ? "" : " " + (m / MODEL_STEMS.length + 1));
+                int engineCount = 1 + random.nextInt(3);
+                int first = random.nextInt(ENGINES.length);
+                String[] engines = new String[engineCount];
+                for (int e = 0; e < engineCount; e++) {
+                    engines[e] = ENGINES[(first + e * 5) % ENGINES.length];
+                }
+                configurations[b * modelsPerBrand + m] = new Configuration(BRANDS[b], model, engines);
+            }
+        }
+        this.brandPopularity = new Zipf(BRANDS.length, 1.0);
+        this.modelPopularity = new Zipf(modelsPerBrand, 1.1);
+    }
+
+    /**
+     * @return the number of vehicles {@link #vehicles()} produces
+     */
+    public int vehicleCount() {
+        return vehicleCount;
+    }
+
+    /**
+     * @return the number of operations {@link #operations()} produces
+     */
+    public int operationCount() {
+        return operationCount;
+    }
+
+    /**
+     * Generate the vehicles: unique brand/model/engine/make year combinations, skewed towards
+     * the popular configurations. Ids are left unset.
+     *
+     * @return a lazily generated, ordered stream of new {@link Vehicle}s
+     */
+    public Stream<Vehicle> vehicles() {
+        SplittableRandom random = new SplittableRandom(seed ^ 0x5DEECE66DL);
+        int years = LAST_YEAR - FIRST_YEAR + 1;
+        Set<Long> seen = new HashSet<>();
+        return IntStream.range(0, vehicleCount).mapToObj(i -> {
+            // pick a configuration by popularity, then probe its engine/year slots from a random
+            // start; the configuration space is sized well above the vehicle count, so a free
+            // slot is found quickly even once the popular configurations fill up
+            int index;
+            int slot;
+            do {
+                index = pick(random);
+                int slots = years * configurations[index].engines().length;
+                int start = random.nextInt(slots);
+                slot = -1;
+                for (int probe = 0; probe < slots && slot < 0; probe++) {
+                    int candidate = (start + probe) % slots;
+                    if (seen.add((long) index * 256 + candidate)) {
+                        slot = candidate;
+                    }
+                }
+            } while (slot < 0);
+            Configuration configuration = configurations[index];
+            int engine = slot / years;
+            int year = slot % years;
+            return Vehicle.builder()
+                    .brand(configuration.brand())
+                    .model(configuration.model())
+                    .engine(configuration.engines()[engine])
+                    .makeYear(FIRST_YEAR + year)
+                    .build();
+        });
+    }
+
+    /**
+     * Generate the operations with overlapping year and distance ranges, skewed towards the
+     * popular configurations. Ids are left unset.
+     *
+     * @return a lazily generated, ordered stream of new {@link Operation}s
+     */
+    public Stream<Operation> operations() {
+        SplittableRandom random = new SplittableRandom(seed ^ 0x2545F4914F6CDD1DL);
+        return IntStream.range(0, operationCount).mapToObj(i -> {
+            Configuration configuration = configurations[pick(random)];
+            Template template = TEMPLATES[random.nextInt(TEMPLATES.length)];
+            int yearStart = FIRST_YEAR + random.nextInt(LAST_YEAR - FIRST_YEAR + 1);
+            int yearEnd = Math.min(LAST_YEAR, yearStart + random.nextInt(12));
+            double distanceStart = template.interval() * (double) random.nextInt(10);
+            double distanceEnd = distanceStart + template.interval() * (1 + random.nextInt(4));
+            double cost = Math.round(template.cost() * (0.7 + 0.6 * random.nextDouble()) * 100) / 100.0;
+            return Operation.builder()
+                    .brand(configuration.brand())
+                    .model(configuration.model())
+                    .engine(configuration.engines()[random.nextInt(configuration.engines().length)])
+                    .yearStart(yearStart)
+                    .yearEnd(yearEnd)
+                    .distanceStart(distanceStart)
+                    .distanceEnd(distanceEnd)
+                    .name(template.name())
+                    .approxCost(cost)
+                    .description(description(random, template))
+                    .time(template.hours() + random.nextInt(2))
+                    .build();
+        });
+    }
+
+    private int pick(SplittableRandom random) {
+        return brandPopularity.sample(random) * modelsPerBrand + modelPopularity.sample(random);
+    }
+
+    /**
+     * Mostly short descriptions with a long tail reaching the column limit.
+     */
+    private static String description(SplittableRandom random, Template template) {
+        double shape = random.nextDouble();
+        int length = shape < 0.7 ? 40 + random.nextInt(260)
+                : shape < 0.95 ? 300 + random.nextInt(900)
+                : 1200 + random.nextInt(MAX_DESCRIPTION_LENGTH - 1200 + 1);
+        StringBuilder text = new StringBuilder(length + 16).append(template.name()).append(':');
+        while (text.length() < length) {
+            text.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        text.setLength(Math.min(text.length(), length));
+        return text.toString();
+    }
+
+    private record Template(String name, int interval, double cost, int hours) {
+    }
+
+    private record Configuration(String brand, String model, String[] engines) {
+    }
+
+    /**
+     * Samples ranks {@code 0..n-1} with probability proportional to {@code 1 / (rank + 1)^s}.
+     */
+    static final class Zipf {
+
+        private final double[] cumulative;
+
+        Zipf(int n, double s) {
+            cumulative = new double[n];
+            double total = 0;
+            for (int rank = 0; rank < n; rank++) {
+                total += 1 / Math.pow(rank + 1, s);
+                cumulative[rank] = total;
+            }
+            for (int rank = 0; rank < n; rank++) {
+                cumulative[rank] /= total;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
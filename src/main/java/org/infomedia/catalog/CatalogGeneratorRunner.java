@@ -0,0 +1,54 @@
+package org.infomedia.catalog;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Command-line entry point of the {@link CatalogGenerator}: loads a synthetic catalog on
+ * startup when a size is given, e.g.
+ * {@code --catalog.generate.vehicles=100000 --catalog.generate.operations=1000000 --catalog.generate.seed=42}.
+ * <p>
+ * Runs after the key backfill, before the applicability rebuild and before the application
+ * reports ready, so the derived data is built from the generated rows. Skipped when the catalog
+ * was loaded from a {@link CatalogSnapshot}, which already holds the generated rows.
+ */
+@Slf4j
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class CatalogGeneratorRunner implements ApplicationRunner {
+
+    private final CatalogLoader catalogLoader;
+
+    private final CatalogSnapshot catalogSnapshot;
+
+    @Value("${catalog.generate.vehicles:0}")
+    private int vehicles;
+
+    @Value("${catalog.generate.operations:0}")
+    private int operations;
+
+    @Value("${catalog.generate.seed:42}")
+    private long seed;
+
+    /**
+     * Generate and load the configured catalog, if any.
+     *
+     * @param args the application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (vehicles == 0 && operations == 0 || catalogSnapshot.loaded()) {
+            return;
+        }
+        long start = System.nanoTime();
+        CatalogLoader.Result result = catalogLoader.load(new CatalogGenerator(seed, vehicles, operations));
+        log.info("Generated {} vehicles and {} operations from seed {} in {} ms", result.vehicles(),
+                result.operations(), seed, (System.nanoTime() - start) / 1_000_000);
+    }
+}
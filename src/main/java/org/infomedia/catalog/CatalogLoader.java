@@ -0,0 +1,90 @@
+package org.infomedia.catalog;
+
+import lombok.RequiredArgsConstructor;
+import org.infomedia.model.Operation;
+import org.infomedia.model.Vehicle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Bulk-loads a generated catalog with plain JDBC batches, bypassing JPA.
+ * <p>
+ * Rows are appended to whatever the tables already hold: operations get explicit ids after the
+ * current maximum and the {@code operation_seq} sequence is moved past them afterwards, vehicles
+ * take identity ids. Brand, model and engine are encoded through the {@link CatalogDictionary},
+ * which adds new values as they appear. Caches and the in-memory index are not notified, so a catalog should be
+ * loaded before the application starts serving, as {@link CatalogGeneratorRunner} does.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogLoader {
+
+    static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_VEHICLE = """
+            INSERT INTO vehicle (brand, model, engine, make_id, model_id, engine_id, make_year)
+            VALUES (?, ?, ?, ?, ?, ?, ?)""";
+
+    private static final String INSERT_OPERATION = """
+            INSERT INTO operation (id, brand, model, engine, make_id, model_id, engine_id, year_start, year_end,
+                                   distance_start, distance_end, name, approx_cost, description, time)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final CatalogDictionary catalogDictionary;
+
+    /**
+     * Insert every vehicle and operation of the generator.
+     *
+     * @param generator the catalog to load
+     * @return the number of vehicles and operations inserted
+     */
+    public Result load(CatalogGenerator generator) {
+        long vehicles = insert(generator.vehicles(), INSERT_VEHICLE, vehicle -> {
+            catalogDictionary.encode(vehicle);
+            return new Object[]{vehicle.getBrand(), vehicle.getModel(), vehicle.getEngine(),
+                    vehicle.getMakeId(), vehicle.getModelId(), vehicle.getEngineId(), vehicle.getMakeYear()};
+        });
+
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM operation", Long.class);
+        long[] nextId = {maxId == null ? 1 : maxId + 1};
+        long operations = insert(generator.operations(), INSERT_OPERATION, operation -> {
+            catalogDictionary.encode(operation);
+            return new Object[]{nextId[0]++, operation.getBrand(), operation.getModel(), operation.getEngine(),
+                    operation.getMakeId(), operation.getModelId(), operation.getEngineId(),
+                    operation.getYearStart(), operation.getYearEnd(),
+                    operation.getDistanceStart(), operation.getDistanceEnd(), operation.getName(),
+                    operation.getApproxCost(), operation.getDescription(), operation.getTime()};
+        });
+        jdbcTemplate.execute("ALTER SEQUENCE operation_seq RESTART WITH " + nextId[0]);
+        return new Result(vehicles, operations);
+    }
+
+    private <T> long insert(Stream<T> rows, String sql, Function<T, Object[]> columns) {
+        long count = 0;
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (Iterator<T> iterator = rows.iterator(); iterator.hasNext(); ) {
+            batch.add(columns.apply(iterator.next()));
+            if (batch.size() == BATCH_SIZE || !iterator.hasNext()) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                count += batch.size();
+                batch.clear();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param vehicles   the number of {@link Vehicle} rows inserted
+     * @param operations the number of {@link Operation} rows inserted
+     */
+    public record Result(long vehicles, long operations) {
+    }
+}
@@ -0,0 +1,479 @@
+package org.infomedia.catalog;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary snapshot of the catalog tables, loaded through a memory-mapped file on startup
+ * instead of replaying {@code data.sql}, generating a catalog and rebuilding the derived tables.
+ * <p>
+ * The file holds, big-endian: a header (magic, format version, source fingerprint, schema
+ * fingerprint, catalog version), one section per table of {@link #TABLES} in insertion order
+ * (column names and types, then each row as a {@code 1} byte, a null bitmap and the non-null
+ * values, ended by a {@code 0} byte), and the CRC32C of everything before it. A snapshot is used only if the checksum
+ * matches, it was written from the same sources (see {@link #sourceFingerprint}) and the tables
+ * still have the columns it was written with; otherwise the caller falls back to a full load.
+ * <p>
+ * Rows are inserted in JDBC batches, each committed on its own, with H2's referential integrity
+ * checks off: the snapshot was read consistently, and large transactions make H2 slow to commit.
+ * A load that fails halfway is deleted again, so the full load starts from empty tables.
+ */
+public class CatalogSnapshot {
+
+    static final int MAGIC = 0x4F504353;
+
+    static final int FORMAT_VERSION = 1;
+
+    static final int BATCH_SIZE = 5000;
+
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8;
+
+    /**
+     * Snapshot tables, parents before the tables referencing them, with the statement moving the
+     * id generator past the loaded ids.
+     */
+    static final List<Table> TABLES = List.of(
+            new Table("catalog_term", "id", "ALTER TABLE catalog_term ALTER COLUMN id RESTART WITH %d"),
+            new Table("vehicle", "id", "ALTER TABLE vehicle ALTER COLUMN id RESTART WITH %d"),
+            new Table("operation", "id", "ALTER SEQUENCE operation_seq RESTART WITH %d"),
+            new Table("operation_tombstone", "id", "ALTER TABLE operation_tombstone ALTER COLUMN id RESTART WITH %d"),
+            new Table("catalog_version", "id", null),
+            new Table("vehicle_operation", "vehicle_id, operation_id", null));
+
+    private static final byte LONG = 'J';
+
+    private static final byte INT = 'I';
+
+    private static final byte DOUBLE = 'D';
+
+    private static final byte STRING = 'S';
+
+    private final DataSource dataSource;
+
+    private final Path path;
+
+    private final long sourceFingerprint;
+
+    private volatile boolean loaded;
+
+    /**
+     * @param dataSource        the catalog database
+     * @param path              the snapshot file
+     * @param sourceFingerprint identifies what a full load would produce, see {@link #sourceFingerprint}
+     */
+    public CatalogSnapshot(DataSource dataSource, Path path, long sourceFingerprint) {
+        this.dataSource = dataSource;
+        this.path = path;
+        this.sourceFingerprint = sourceFingerprint;
+    }
+
+    /**
+     * Fingerprint of what a full load starts from: the data scripts and the generated catalog settings.
+     *
+     * @param scripts the contents of the data scripts, in execution order
+     * @param generator the generated catalog settings, e.g. {@code "vehicles=0,operations=0,seed=42"}
+     * @return the fingerprint stored in and compared with snapshots
+     */
+    public static long sourceFingerprint(List<byte[]> scripts, String generator) {
+        CRC32C crc = new CRC32C();
+        for (byte[] script : scripts) {
+            crc.update(script);
+            crc.update(0);
+        }
+        crc.update(generator.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue() ^ ((long) scripts.size() << 32);
+    }
+
+    /**
+     * @return the snapshot file
+     */
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * @return {@code true} if the catalog was loaded from the snapshot, so the steps of a full load can be skipped
+     */
+    public boolean loaded() {
+        return loaded;
+    }
+
+    /**
+     * Write a snapshot of the current catalog, replacing the previous file atomically. The tables
+     * are read in one repeatable-read transaction, so the snapshot is consistent.
+     *
+     * @return what was written
+     * @throws IOException  if the file cannot be written
+     * @throws SQLException if the catalog cannot be read
+     */
+    public Result write() throws IOException, SQLException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        long rows = 0;
+        long version;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try (OutputStream file = Files.newOutputStream(temporary)) {
+                CRC32C crc = new CRC32C();
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(new CheckedOutputStream(file, crc), 1 << 16));
+                version = catalogVersion(connection);
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(sourceFingerprint);
+                out.writeLong(schemaFingerprint(connection));
+                out.writeLong(version);
+                for (Table table : TABLES) {
+                    rows += writeTable(connection, table, out);
+                }
+                out.flush();
+                out.writeLong(crc.getValue());
+                out.flush();
+            } finally {
+                connection.rollback();
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return new Result(rows, version, Files.size(path));
+    }
+
+    /**
+     * Load the snapshot into empty catalog tables.
+     *
+     * @return what was loaded
+     * @throws InvalidSnapshotException if there is no usable snapshot: the file is missing, corrupt
+     *                                  or stale, or the catalog is not empty; nothing was loaded
+     */
+    public Result load() throws InvalidSnapshotException {
+        if (!Files.isRegularFile(path)) {
+            throw new InvalidSnapshotException("no snapshot at " + path);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + 8 || size > Integer.MAX_VALUE) {
+                throw new InvalidSnapshotException("unexpected size " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new InvalidSnapshotException("not a snapshot of format version " + FORMAT_VERSION);
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.duplicate().position(0).limit((int) size - 8));
+            if (crc.getValue() != buffer.getLong((int) size - 8)) {
+                throw new InvalidSnapshotException("checksum mismatch");
+            }
+            if (buffer.getLong() != sourceFingerprint) {
+                throw new InvalidSnapshotException("written from other data scripts or generator settings");
+            }
+            try (Connection connection = dataSource.getConnection()) {
+                if (buffer.getLong() != schemaFingerprint(connection)) {
+                    throw new InvalidSnapshotException("written for other table columns");
+                }
+                long version = buffer.getLong();
+                long rows = insert(connection, buffer.limit((int) size - 8));
+                loaded = true;
+                return new Result(rows, version, size);
+            }
+        } catch (IOException | SQLException | BufferUnderflowException | IllegalArgumentException ex) {
+            throw new InvalidSnapshotException("unreadable: " + ex, ex);
+        }
+    }
+
+    private long insert(Connection connection, ByteBuffer buffer) throws SQLException, InvalidSnapshotException {
+        try (Statement statement = connection.createStatement()) {
+            for (String table : List.of("operation", "vehicle")) {
+                try (ResultSet rows = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+                    rows.next();
+                    if (rows.getLong(1) > 0) {
+                        throw new InvalidSnapshotException("the catalog is not empty");
+                    }
+                }
+            }
+        }
+        long rows = 0;
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            try {
+                clear(statement);
+                for (Table table : TABLES) {
+                    rows += readTable(connection, table, buffer);
+                }
+                if (buffer.hasRemaining()) {
+                    throw new InvalidSnapshotException(buffer.remaining() + " trailing bytes");
+                }
+                connection.commit();
+            } catch (SQLException | InvalidSnapshotException | RuntimeException ex) {
+                connection.rollback();
+                clear(statement);
+                connection.commit();
+                throw ex;
+            } finally {
+                statement.execute("SET REFERENTIAL_INTEGRITY TRUE");
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (Table table : TABLES) {
+                if (table.restart() != null) {
+                    try (ResultSet max = statement.executeQuery(
+                            "SELECT COALESCE(MAX(id), 0) + 1 FROM " + table.name())) {
+                        max.next();
+                        statement.execute(table.restart().formatted(max.getLong(1)));
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static void clear(Statement statement) throws SQLException {
+        for (Table table : reversed(TABLES)) {
+            statement.executeUpdate("DELETE FROM " + table.name());
+        }
+    }
+
+    private static long writeTable(Connection connection, Table table, DataOutputStream out)
+            throws SQLException, IOException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(
+                     "SELECT * FROM " + table.name() + " ORDER BY " + table.orderBy())) {
+            ResultSetMetaData metaData = rows.getMetaData();
+            int columns = metaData.getColumnCount();
+            byte[] types = new byte[columns];
+            out.writeUTF(table.name());
+            out.writeShort(columns);
+            for (int i = 0; i < columns; i++) {
+                types[i] = type(metaData.getColumnType(i + 1));
+                out.writeUTF(metaData.getColumnName(i + 1));
+                out.writeByte(types[i]);
+            }
+            long count = 0;
+            Object[] values = new Object[columns];
+            byte[] nulls = new byte[(columns + 7) / 8];
+            while (rows.next()) {
+                Arrays.fill(nulls, (byte) 0);
+                for (int i = 0; i < columns; i++) {
+                    values[i] = switch (types[i]) {
+                        case LONG -> rows.getLong(i + 1);
+                        case INT -> rows.getInt(i + 1);
+                        case DOUBLE -> rows.getDouble(i + 1);
+                        default -> rows.getString(i + 1);
+                    };
+                    if (rows.wasNull()) {
+                        nulls[i / 8] |= (byte) (1 << (i % 8));
+                    }
+                }
+                out.writeByte(1);
+                out.write(nulls);
+                for (int i = 0; i < columns; i++) {
+                    if ((nulls[i / 8] & (1 << (i % 8))) == 0) {
+                        switch (types[i]) {
+                            case LONG -> out.writeLong((Long) values[i]);
+                            case INT -> out.writeInt((Integer) values[i]);
+                            case DOUBLE -> out.writeDouble((Double) values[i]);
+                            default -> writeString(out, (String) values[i]);
+                        }
+                    }
+                }
+                count++;
+            }
+            out.writeByte(0);
+            return count;
+        }
+    }
+
+    private static long readTable(Connection connection, Table table, ByteBuffer buffer)
+            throws SQLException, InvalidSnapshotException {
+        String name = readUtf(buffer);
+        if (!name.equals(table.name())) {
+            throw new InvalidSnapshotException("expected table " + table.name() + " but found " + name);
+        }
+        int columns = buffer.getShort();
+        String[] names = new String[columns];
+        byte[] types = new byte[columns];
+        for (int i = 0; i < columns; i++) {
+            names[i] = readUtf(buffer);
+            types[i] = buffer.get();
+        }
+        String sql = "INSERT INTO %s (%s) VALUES (%s)".formatted(table.name(), String.join(", ", names),
+                String.join(", ", Collections.nCopies(columns, "?")));
+        long count = 0;
+        byte[] nulls = new byte[(columns + 7) / 8];
+        byte[] text = new byte[256];
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            while (buffer.get() == 1) {
+                buffer.get(nulls);
+                for (int i = 0; i < columns; i++) {
+                    if ((nulls[i / 8] & (1 << (i % 8))) != 0) {
+                        insert.setNull(i + 1, sqlType(types[i]));
+                        continue;
+                    }
+                    switch (types[i]) {
+                        case LONG -> insert.setLong(i + 1, buffer.getLong());
+                        case INT -> insert.setInt(i + 1, buffer.getInt());
+                        case DOUBLE -> insert.setDouble(i + 1, buffer.getDouble());
+                        case STRING -> {
+                            int length = readVarInt(buffer);
+                            if (length > text.length) {
+                                text = new byte[Math.max(length, text.length * 2)];
+                            }
+                            buffer.get(text, 0, length);
+                            insert.setString(i + 1, new String(text, 0, length, StandardCharsets.UTF_8));
+                        }
+                        default -> throw new InvalidSnapshotException("unknown column type " + types[i]);
+                    }
+                }
+                insert.addBatch();
+                if (++count % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+        }
+        return count;
+    }
+
+    /**
+     * Fingerprint of the column names and types of the snapshot tables.
+     */
+    static long schemaFingerprint(Connection connection) throws SQLException {
+        CRC32C crc = new CRC32C();
+        try (Statement statement = connection.createStatement()) {
+            for (Table table : TABLES) {
+                try (ResultSet empty = statement.executeQuery("SELECT * FROM " + table.name() + " WHERE 1 = 0")) {
+                    ResultSetMetaData metaData = empty.getMetaData();
+                    StringBuilder columns = new StringBuilder(table.name()).append(':');
+                    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                        columns.append(metaData.getColumnName(i)).append(' ')
+                                .append(metaData.getColumnTypeName(i)).append(',');
+                    }
+                    crc.update(columns.toString().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static long catalogVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet version = statement.executeQuery("SELECT COALESCE(MAX(version), 0) FROM catalog_version")) {
+            version.next();
+            return version.getLong(1);
+        }
+    }
+
+    private static byte type(int sqlType) {
+        return switch (sqlType) {
+            case Types.BIGINT -> LONG;
+            case Types.INTEGER, Types.SMALLINT, Types.TINYINT -> INT;
+            case Types.DOUBLE, Types.FLOAT, Types.REAL -> DOUBLE;
+            default -> STRING;
+        };
+    }
+
+    private static int sqlType(byte type) {
+        return switch (type) {
+            case LONG -> Types.BIGINT;
+            case INT -> Types.INTEGER;
+            case DOUBLE -> Types.DOUBLE;
+            default -> Types.VARCHAR;
+        };
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length;
+        while ((length & ~0x7F) != 0) {
+            out.writeByte((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        out.writeByte(length);
+        out.write(bytes);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte next = buffer.get();
+            value |= (next & 0x7F) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static String readUtf(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static <T> List<T> reversed(List<T> list) {
+        List<T> copy = new ArrayList<>(list);
+        Collections.reverse(copy);
+        return copy;
+    }
+
+    /**
+     * A snapshot table.
+     *
+     * @param name    the table name
+     * @param orderBy the primary key columns, so snapshots of the same catalog are identical
+     * @param restart the statement moving the id generator to a given next id, or null
+     */
+    record Table(String name, String orderBy, String restart) {
+    }
+
+    /**
+     * @param rows           the number of rows written or loaded, over all tables
+     * @param catalogVersion the change feed version of the snapshot
+     * @param bytes          the file size
+     */
+    public record Result(long rows, long catalogVersion, long bytes) {
+    }
+
+    /**
+     * The snapshot cannot be used; the message says why.
+     */
+    public static class InvalidSnapshotException extends Exception {
+
+        public InvalidSnapshotException(String message) {
+            super(message);
+        }
+
+        public InvalidSnapshotException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.infomedia.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.infomedia.web.AdaptiveConcurrencyLimiter;
+import org.infomedia.web.AdmissionControlFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Admission control for {@code POST /suggestions}, {@code POST /suggestions/batch},
+ * {@code POST /suggestions/costs}, {@code GET /operations/search} and
+ * {@code GET /vehicles/{id}/suggestions}, see {@link AdmissionControlFilter}.
+ * <p>
+ * The endpoints share one {@link AdaptiveConcurrencyLimiter}, since they share the connection
+ * pool. The filter runs after the {@link ResponseCacheConfig response cache}, so {@code 304}s and
+ * cached responses, which do not touch the database, are never turned away.
+ */
+@Configuration
+@ConditionalOnProperty(name = "http.admission-control.enabled", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    private static final List<String> PATHS = List.of("/suggestions", "/suggestions/batch", "/suggestions/costs",
+            "/operations/search", "/vehicles/{id}/suggestions");
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            MeterRegistry meterRegistry,
+            @Value("${http.admission-control.initial-limit:10}") int initialLimit,
+            @Value("${http.admission-control.min-limit:2}") int minLimit,
+            @Value("${http.admission-control.max-limit:100}") int maxLimit,
+            @Value("${http.admission-control.queue-size:50}") int queueSize,
+            @Value("${http.admission-control.max-wait:250ms}") Duration maxWait,
+            @Value("${http.admission-control.retry-after:1s}") Duration retryAfter) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, queueSize);
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(PATHS, limiter, maxWait, retryAfter, meterRegistry));
+        // The filter skips the /vehicles/* requests other than suggestions
+        registration.addUrlPatterns("/suggestions", "/suggestions/batch", "/suggestions/costs", "/operations/search",
+                "/vehicles/*");
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,63 @@
+package org.infomedia.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.infomedia.catalog.CatalogSnapshot;
+import org.infomedia.service.ApplicabilityService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Full recomputation of the vehicle/operation applicability mapping: on startup, after the
+ * key backfill and any generated catalog, unless {@code applicability.rebuild-on-startup=false}
+ * or the mapping was loaded with a {@link CatalogSnapshot}, and on demand with
+ * {@code POST /actuator/applicability}.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "applicability")
+@Order(Ordered.LOWEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ApplicabilityRebuild implements ApplicationRunner {
+
+    private final ApplicabilityService applicabilityService;
+
+    private final CatalogSnapshot catalogSnapshot;
+
+    @Value("${applicability.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    /**
+     * Rebuild the mapping at startup.
+     *
+     * @param args the application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (rebuildOnStartup && !catalogSnapshot.loaded()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuild the mapping.
+     *
+     * @return the number of vehicle/operation pairs
+     */
+    @WriteOperation
+    public Map<String, Integer> rebuild() {
+        long start = System.nanoTime();
+        int pairs = applicabilityService.rebuild();
+        log.info("Rebuilt vehicle/operation applicability: {} pairs in {} ms", pairs,
+                (System.nanoTime() - start) / 1_000_000);
+        return Map.of("pairs", pairs);
+    }
+}
@@ -0,0 +1,103 @@
+package org.infomedia.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.infomedia.catalog.CatalogSnapshot;
+import org.infomedia.catalog.CatalogSnapshot.InvalidSnapshotException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Startup from a {@link CatalogSnapshot}, enabled by setting {@code catalog.snapshot.path}.
+ * <p>
+ * The snapshot takes the place of the data scripts: Spring Boot's SQL initializer is replaced by
+ * one that loads the snapshot instead of running them, still after Hibernate has created the
+ * schema. If the snapshot is missing, corrupt or stale, the scripts run as usual and the full
+ * load continues with the generated catalog and the derived tables, after which
+ * {@link CatalogSnapshotEndpoint} writes a fresh snapshot.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(SqlInitializationProperties.class)
+public class CatalogSnapshotConfig {
+
+    /**
+     * The data scripts Spring Boot runs when {@code spring.sql.init.data-locations} is not set.
+     */
+    private static final List<String> DEFAULT_DATA_LOCATIONS =
+            List.of("optional:classpath*:data-all.sql", "optional:classpath*:data.sql");
+
+    @Bean
+    public CatalogSnapshot catalogSnapshot(DataSource dataSource,
+                                           SqlInitializationProperties properties,
+                                           ResourcePatternResolver resourceResolver,
+                                           @Value("${catalog.snapshot.path:}") String path,
+                                           @Value("${catalog.generate.vehicles:0}") int vehicles,
+                                           @Value("${catalog.generate.operations:0}") int operations,
+                                           @Value("${catalog.generate.seed:42}") long seed) {
+        List<String> locations = properties.getDataLocations() != null
+                ? properties.getDataLocations()
+                : DEFAULT_DATA_LOCATIONS;
+        List<byte[]> scripts = new ArrayList<>();
+        for (String location : locations) {
+            for (Resource script : resources(resourceResolver, location)) {
+                try (InputStream in = script.getInputStream()) {
+                    scripts.add(StreamUtils.copyToByteArray(in));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        }
+        String generator = "vehicles=%d,operations=%d,seed=%d".formatted(vehicles, operations, seed);
+        return new CatalogSnapshot(dataSource, StringUtils.hasText(path) ? Path.of(path) : null,
+                CatalogSnapshot.sourceFingerprint(scripts, generator));
+    }
+
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer dataSourceScriptDatabaseInitializer(
+            DataSource dataSource, SqlInitializationProperties properties, CatalogSnapshot catalogSnapshot) {
+        return new SqlDataSourceScriptDatabaseInitializer(dataSource, properties) {
+            @Override
+            protected void runScripts(Scripts scripts) {
+                if (catalogSnapshot.path() == null) {
+                    super.runScripts(scripts);
+                    return;
+                }
+                long start = System.nanoTime();
+                try {
+                    CatalogSnapshot.Result result = catalogSnapshot.load();
+                    log.info("Loaded {} catalog rows at version {} from the {} byte snapshot {} in {} ms",
+                            result.rows(), result.catalogVersion(), result.bytes(), catalogSnapshot.path(),
+                            (System.nanoTime() - start) / 1_000_000);
+                } catch (InvalidSnapshotException ex) {
+                    log.info("Not using the catalog snapshot, {}; running the data scripts", ex.getMessage());
+                    super.runScripts(scripts);
+                }
+            }
+        };
+    }
+
+    private static List<Resource> resources(ResourcePatternResolver resolver, String location) {
+        String pattern = location.startsWith("optional:") ? location.substring("optional:".length()) : location;
+        try {
+            return List.of(resolver.getResources(pattern)).stream().filter(Resource::exists).toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
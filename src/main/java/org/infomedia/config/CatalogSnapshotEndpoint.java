@@ -0,0 +1,67 @@
+package org.infomedia.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.infomedia.catalog.CatalogSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Writes the {@link CatalogSnapshot}: once the application is ready after a full load, unless
+ * {@code catalog.snapshot.write-after-load=false}, and on demand with
+ * {@code POST /actuator/catalogsnapshot}, e.g. before a planned restart so writes made since the
+ * last snapshot are kept.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "catalogsnapshot")
+@RequiredArgsConstructor
+public class CatalogSnapshotEndpoint {
+
+    private final CatalogSnapshot catalogSnapshot;
+
+    @Value("${catalog.snapshot.write-after-load:true}")
+    private boolean writeAfterLoad;
+
+    /**
+     * Write a snapshot if the catalog was loaded without one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (catalogSnapshot.path() != null && writeAfterLoad && !catalogSnapshot.loaded()) {
+            try {
+                write();
+            } catch (IOException | SQLException ex) {
+                log.warn("Could not write the catalog snapshot {}: {}", catalogSnapshot.path(), ex.toString());
+            }
+        }
+    }
+
+    /**
+     * Write a snapshot of the current catalog.
+     *
+     * @return the number of rows, the catalog version and the size of the snapshot
+     * @throws IOException  if the file cannot be written
+     * @throws SQLException if the catalog cannot be read
+     */
+    @WriteOperation
+    public Map<String, Object> write() throws IOException, SQLException {
+        if (catalogSnapshot.path() == null) {
+            throw new IllegalStateException("catalog.snapshot.path is not set");
+        }
+        long start = System.nanoTime();
+        CatalogSnapshot.Result result = catalogSnapshot.write();
+        log.info("Wrote {} catalog rows at version {} to the {} byte snapshot {} in {} ms", result.rows(),
+                result.catalogVersion(), result.bytes(), catalogSnapshot.path(),
+                (System.nanoTime() - start) / 1_000_000);
+        return Map.of("rows", result.rows(), "version", result.catalogVersion(), "bytes", result.bytes());
+    }
+}
@@ -0,0 +1,102 @@
+package org.infomedia.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Migration step filling the brand/model/engine dictionary id columns of rows written
+ * before the columns existed, or inserted by plain SQL such as {@code data.sql}.
+ * <p>
+ * Values missing from the {@code catalog_term} dictionary are added first, one term per
+ * distinct normalized value, then rows are updated in chunks so a large catalog is not
+ * rewritten in one transaction. Chunks step through the rows by id, and a column whose raw
+ * value is {@code NULL} is left {@code NULL}, so every row is visited at most once.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class KeyColumnBackfill implements ApplicationRunner {
+
+    private static final String[] TABLES = {"operation", "vehicle"};
+
+    /**
+     * Source column, id column and dictionary kind.
+     */
+    private static final String[][] COLUMNS = {
+            {"brand", "make_id", "MAKE"},
+            {"model", "model_id", "MODEL"},
+            {"engine", "engine_id", "ENGINE"}
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${catalog.key-backfill.chunk-size:10000}")
+    private int chunkSize;
+
+    /**
+     * Backfill every table and drop the index on the raw columns that the keyed queries replaced.
+     *
+     * @param args the application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_op_brand_model_engine");
+        for (String table : TABLES) {
+            backfill(table);
+        }
+    }
+
+    /**
+     * Backfill the dictionary id columns of one table.
+     *
+     * @param table the table name
+     * @return the number of rows updated
+     */
+    public int backfill(String table) {
+        for (String[] column : COLUMNS) {
+            jdbcTemplate.update("""
+                    INSERT INTO catalog_term (kind, term_key, name)
+                    SELECT '%3$s', LOWER(TRIM(%2$s)), MIN(TRIM(%2$s)) FROM %1$s
+                    WHERE %2$s IS NOT NULL
+                      AND LOWER(TRIM(%2$s)) NOT IN (SELECT term_key FROM catalog_term WHERE kind = '%3$s')
+                    GROUP BY LOWER(TRIM(%2$s))
+                    """.formatted(table, column[0], column[2]));
+        }
+        String assignments = Arrays.stream(COLUMNS)
+                .map(column -> """
+                        %2$s = (SELECT c.id FROM catalog_term c WHERE c.kind = '%3$s' AND c.term_key = LOWER(TRIM(t.%1$s)))"""
+                        .formatted((Object[]) column))
+                .collect(Collectors.joining(", "));
+        String pending = Arrays.stream(COLUMNS)
+                .map(column -> "(%2$s IS NULL AND %1$s IS NOT NULL)".formatted((Object[]) column))
+                .collect(Collectors.joining(" OR "));
+        String chunkEnd = """
+                SELECT MAX(id) FROM (SELECT id FROM %1$s
+                                     WHERE id > ? AND (%2$s)
+                                     ORDER BY id
+                                     LIMIT %3$d)
+                """.formatted(table, pending, chunkSize);
+        String update = """
+                UPDATE %1$s t
+                SET %2$s
+                WHERE id > ? AND id <= ? AND (%3$s)
+                """.formatted(table, assignments, pending);
+        int total = 0;
+        long last = Long.MIN_VALUE;
+        Long end;
+        while ((end = jdbcTemplate.queryForObject(chunkEnd, Long.class, last)) != null) {
+            total += jdbcTemplate.update(update, last, end);
+            last = end;
+        }
+        return total;
+    }
+}
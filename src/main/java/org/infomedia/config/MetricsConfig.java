@@ -0,0 +1,54 @@
+package org.infomedia.config;
+
+import io.micrometer.common.annotation.ValueExpressionResolver;
+import io.micrometer.core.aop.MeterTagAnnotationHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.infomedia.metrics.QueryCountingDataSource;
+import org.infomedia.metrics.QueryMetricsFilter;
+import org.infomedia.metrics.SpelValueExpressionResolver;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Metrics beyond what Spring Boot records out of the box ({@code http.server.requests} per
+ * controller method and the HikariCP pool meters): {@code @MeterTag} support for the
+ * {@code @Timed} service methods and per-request SQL statement and row counts.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Resolve {@code @MeterTag} resolvers as beans and tag expressions as SpEL.
+     */
+    @Bean
+    public MeterTagAnnotationHandler meterTagAnnotationHandler(BeanFactory beanFactory) {
+        ValueExpressionResolver expressionResolver = new SpelValueExpressionResolver();
+        return new MeterTagAnnotationHandler(beanFactory::getBean, type -> expressionResolver);
+    }
+
+    /**
+     * Wrap the data source so that statements and rows can be counted per request.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "metrics.sql.enabled", matchIfMissing = true)
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? QueryCountingDataSource.wrap(dataSource) : bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "metrics.sql.enabled", matchIfMissing = true)
+    public FilterRegistrationBean<QueryMetricsFilter> queryMetricsFilter(MeterRegistry meterRegistry) {
+        return new FilterRegistrationBean<>(new QueryMetricsFilter(meterRegistry));
+    }
+}
@@ -0,0 +1,42 @@
+package org.infomedia.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.infomedia.service.OperationChangeLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Migration step giving a change feed version to the operations that have none: rows written
+ * before versions existed, by {@code data.sql} or by the catalog generator, which runs just
+ * before this step.
+ */
+@Slf4j
+@Component
+@Order(1)
+@RequiredArgsConstructor
+public class OperationVersionBackfill implements ApplicationRunner {
+
+    private final OperationChangeLog operationChangeLog;
+
+    @Value("${operation.changes.backfill-chunk-size:10000}")
+    private int chunkSize;
+
+    /**
+     * Version every unversioned operation.
+     *
+     * @param args the application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        int versioned = operationChangeLog.backfill(chunkSize);
+        if (versioned > 0) {
+            log.info("Versioned {} operations for the change feed in {} ms", versioned,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.infomedia.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.infomedia.datasource.CommitTrackingDataSource;
+import org.infomedia.datasource.LocalReplicator;
+import org.infomedia.datasource.Replica;
+import org.infomedia.datasource.ReplicaLagMonitor;
+import org.infomedia.datasource.ReplicaRoutingDataSource;
+import org.infomedia.datasource.ReplicaSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read/write splitting, enabled with {@code datasource.routing.enabled=true}: read-only
+ * transactions are served by the replicas listed in {@code datasource.replica.urls}, everything
+ * else by the primary configured under {@code spring.datasource}.
+ * <p>
+ * The application's single {@link DataSource} is a {@link LazyConnectionDataSourceProxy} over
+ * the primary: it fetches the physical connection at the first statement, once the transaction
+ * has marked it read-only, and takes read-only connections from a {@link ReplicaRoutingDataSource}.
+ * Until the replicas have replicated the last commit, tracked by a {@link CommitTrackingDataSource},
+ * reads stay on the primary, so a read right after a write sees it.
+ * Each pool reports the HikariCP meters under its own {@code pool} tag. The {@code replica}
+ * profile runs a second embedded H2 as the replica, fed by the {@link LocalReplicator}.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "datasource.routing.enabled")
+public class ReadWriteRoutingConfig {
+
+    @Bean
+    public ReplicaSet replicaSet(DataSourceProperties properties,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${datasource.replica.urls}") List<String> urls,
+                                 @Value("${datasource.replica.max-lag:5s}") Duration maxLag) {
+        HikariDataSource primary = pool(properties, properties.determineUrl(), "primary", meterRegistry);
+        List<Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            String name = "replica-" + (i + 1);
+            replicas.add(new Replica(name, pool(properties, urls.get(i).trim(), name, meterRegistry)));
+        }
+        return new ReplicaSet(primary, List.copyOf(replicas), maxLag);
+    }
+
+    @Bean
+    public DataSource dataSource(ReplicaSet replicaSet, MeterRegistry meterRegistry) {
+        CommitTrackingDataSource primary = new CommitTrackingDataSource(replicaSet.primary(), Clock.systemUTC());
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(replicaSet, primary::lastCommit, meterRegistry));
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaSet replicaSet, MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replicaSet, meterRegistry, Clock.systemUTC());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "datasource.replica.local-replication")
+    public LocalReplicator localReplicator(ReplicaSet replicaSet) {
+        return new LocalReplicator(replicaSet);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, String url, String name,
+                                         MeterRegistry meterRegistry) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        pool.setPoolName(name);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
@@ -0,0 +1,55 @@
+package org.infomedia.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.infomedia.service.OperationChangeLog;
+import org.infomedia.web.ConditionalResponseFilter;
+import org.infomedia.web.ConditionalResponseFilter.CachedResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * ETags, {@code 304 Not Modified} and a compressed response cache for the catalog reads
+ * {@code GET /operations/search}, {@code POST /suggestions} and {@code POST /suggestions/costs}, see
+ * {@link ConditionalResponseFilter}.
+ * <p>
+ * ETags carry the catalog version of the {@link OperationChangeLog}. With read/write routing the
+ * reads behind a new version stay on the primary until the replicas have replicated it, see
+ * {@link ReadWriteRoutingConfig}, so a body is never older than its ETag.
+ */
+@Configuration
+@ConditionalOnProperty(name = "http.response-cache.enabled", matchIfMissing = true)
+public class ResponseCacheConfig {
+
+    @Bean
+    public FilterRegistrationBean<ConditionalResponseFilter> conditionalResponseFilter(
+            OperationChangeLog operationChangeLog,
+            MeterRegistry meterRegistry,
+            @Value("${http.response-cache.max-size:32MB}") DataSize maxSize,
+            @Value("${http.response-cache.ttl:10m}") Duration ttl,
+            @Value("${http.response-cache.min-compress-size:1KB}") DataSize minCompressSize) {
+        Cache<String, CachedResponse> responses = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<String, CachedResponse>weigher((etag, response) -> response.body().length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "responses");
+        ConditionalResponseFilter filter = new ConditionalResponseFilter(
+                operationChangeLog::committedVersion, responses, (int) minCompressSize.toBytes(), meterRegistry);
+        FilterRegistrationBean<ConditionalResponseFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/operations/search", "/suggestions", "/suggestions/costs");
+        // Ahead of admission control, which only needs to limit requests that reach the database
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return registration;
+    }
+}
@@ -0,0 +1,78 @@
+package org.infomedia.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.infomedia.exception.BadRequestException;
+import org.infomedia.index.AutocompleteIndex;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Prefix completion of brand, model and engine for form dropdowns, served from the
+ * {@link AutocompleteIndex} without touching the database.
+ */
+@RestController
+@RequestMapping("/autocomplete")
+@RequiredArgsConstructor
+public class AutocompleteController {
+
+    static final int MAX_LIMIT = 100;
+
+    private final AutocompleteIndex autocompleteIndex;
+
+    /**
+     * Complete a brand.
+     *
+     * @param prefix the typed prefix, case-insensitive; empty lists every brand
+     * @param limit  the maximum number of values, 1 to 100
+     * @return the matching brands in alphabetical order
+     * @throws BadRequestException if the limit is out of range
+     */
+    @GetMapping("/brands")
+    public ResponseEntity<List<String>> brands(@RequestParam(name = "prefix", defaultValue = "") String prefix,
+                                               @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(autocompleteIndex.brands(prefix, checked(limit)));
+    }
+
+    /**
+     * Complete a model of a brand.
+     *
+     * @param brand  the selected brand, case-insensitive
+     * @param prefix the typed prefix, case-insensitive; empty lists every model of the brand
+     * @param limit  the maximum number of values, 1 to 100
+     * @return the matching models in alphabetical order, empty for an unknown brand
+     * @throws BadRequestException if the limit is out of range
+     */
+    @GetMapping("/models")
+    public ResponseEntity<List<String>> models(@RequestParam("brand") String brand,
+                                               @RequestParam(name = "prefix", defaultValue = "") String prefix,
+                                               @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(autocompleteIndex.models(brand, prefix, checked(limit)));
+    }
+
+    /**
+     * Complete an engine of a brand and model.
+     *
+     * @param brand  the selected brand, case-insensitive
+     * @param model  the selected model, case-insensitive
+     * @param prefix the typed prefix, case-insensitive; empty lists every engine of the model
+     * @param limit  the maximum number of values, 1 to 100
+     * @return the matching engines in alphabetical order, empty for an unknown brand or model
+     * @throws BadRequestException if the limit is out of range
+     */
+    @GetMapping("/engines")
+    public ResponseEntity<List<String>> engines(@RequestParam("brand") String brand,
+                                                @RequestParam("model") String model,
+                                                @RequestParam(name = "prefix", defaultValue = "") String prefix,
+                                                @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(autocompleteIndex.engines(brand, model, prefix, checked(limit)));
+    }
+
+    private static int checked(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and %d".formatted(MAX_LIMIT));
+        }
+        return limit;
+    }
+}
@@ -2,20 +2,45 @@ package org.infomedia.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.infomedia.dto.CountMode;
+import org.infomedia.dto.CursorPage;
+import org.infomedia.dto.ExportFormat;
+import org.infomedia.dto.OperationChangeFeed;
+import org.infomedia.dto.OperationImportResponse;
 import org.infomedia.dto.OperationRequest;
 import org.infomedia.dto.OperationResponse;
 import org.infomedia.dto.OperationSearchRequest;
+import org.infomedia.exception.BadRequestException;
+import org.infomedia.service.CountEstimator;
+import org.infomedia.service.ExportService;
+import org.infomedia.service.OperationChangeLog;
+import org.infomedia.service.OperationImportService;
 import org.infomedia.service.OperationService;
-import org.springframework.data.domain.Page;
+import org.infomedia.web.ExportResponses;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/operations")
 @RequiredArgsConstructor
 public class OperationController {
+    static final int MAX_CHANGES = 1000;
+
     private final OperationService operationService;
+    private final OperationImportService operationImportService;
+    private final ExportService exportService;
+    private final OperationChangeLog operationChangeLog;
+    private final ExportResponses exportResponses;
 
     /**
      * Create a new operation.
@@ -29,6 +54,32 @@ public class OperationController {
         return ResponseEntity.ok(operationResponse);
     }
 
+    /**
+     * Bulk import operations from a CSV stream whose header names the request fields.
+     *
+     * @param body the CSV request body
+     * @return the {@link OperationImportResponse} with imported and rejected counts and row errors
+     * @throws IOException if the body cannot be read
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<OperationImportResponse> importCsv(InputStream body) throws IOException {
+        OperationImportResponse result = operationImportService.importCsv(body);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Bulk import operations from a newline-delimited JSON stream.
+     *
+     * @param body the NDJSON request body
+     * @return the {@link OperationImportResponse} with imported and rejected counts and row errors
+     * @throws IOException if the body cannot be read
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<OperationImportResponse> importNdjson(InputStream body) throws IOException {
+        OperationImportResponse result = operationImportService.importNdjson(body);
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * Update an existing operation by ID.
      *
@@ -44,16 +95,95 @@ public class OperationController {
     }
 
     /**
-     * Search for operations with filter and pagination.
+     * Delete an operation by ID.
+     *
+     * @param id the ID of the operation to delete
+     * @return an empty response
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable("id") Long id) {
+        operationService.delete(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Read the operations created, updated or deleted since a change feed version, in commit order.
+     *
+     * @param since the {@code version} returned by the previous sync, 0 for a full sync
+     * @param brand the brand to sync, or absent for every brand
+     * @param limit the maximum number of changes, 1 to 1000
+     * @return the {@link OperationChangeFeed}
+     * @throws BadRequestException if the limit or version is out of range
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<OperationChangeFeed> changes(@RequestParam(name = "since", defaultValue = "0") long since,
+                                                       @RequestParam(name = "brand", required = false) String brand,
+                                                       @RequestParam(name = "limit", defaultValue = "500") int limit) {
+        if (since < 0) {
+            throw new BadRequestException("since must not be negative");
+        }
+        if (limit < 1 || limit > MAX_CHANGES) {
+            throw new BadRequestException("limit must be between 1 and %d".formatted(MAX_CHANGES));
+        }
+        return ResponseEntity.ok(operationChangeLog.changes(since, brand, limit));
+    }
+
+    /**
+     * Search for operations with filter and pagination; with {@code text}, by relevance.
      *
      * @param request the search filter criteria
      * @param pageable pagination and sorting info
-     * @return a paginated list of {@link OperationResponse}
+     * @param count how the total is computed: {@code EXACT} (default), {@code NONE} or {@code ESTIMATE}
+     * @return a paginated list of {@link OperationResponse}; a slice without total for {@code NONE}
      */
     @GetMapping("/search")
-    public ResponseEntity<Page<OperationResponse>> search(@ModelAttribute OperationSearchRequest request,
-                                                          Pageable pageable) {
-        Page<OperationResponse> result = operationService.search(request, pageable);
+    public ResponseEntity<Slice<OperationResponse>> search(@ModelAttribute OperationSearchRequest request,
+                                                           Pageable pageable,
+                                                           @RequestParam(name = "count", defaultValue = "EXACT")
+                                                           CountMode count) {
+        Slice<OperationResponse> result = operationService.search(request, pageable, count);
+        if (CountEstimator.isPending(result)) {
+            // The total grows once the count completes, so the response must not be reused
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Search for operations with keyset pagination, selected by the presence of the {@code cursor}
+     * parameter. Pass an empty cursor for the first page and the returned {@code nextCursor} afterwards.
+     *
+     * @param request the search filter criteria
+     * @param cursor the continuation token of the previous page, empty for the first page
+     * @param pageable the page size and, on the first page, the sort order
+     * @return a {@link CursorPage} of {@link OperationResponse}
+     */
+    @GetMapping(value = "/search", params = "cursor")
+    public ResponseEntity<CursorPage<OperationResponse>> seek(@ModelAttribute OperationSearchRequest request,
+                                                              @RequestParam("cursor") String cursor,
+                                                              Pageable pageable) {
+        CursorPage<OperationResponse> result = operationService.seek(request, cursor, pageable);
         return ResponseEntity.ok(result);
     }
+
+    /**
+     * Stream every operation matching the search filters, without paging or counting.
+     *
+     * @param request the search filter criteria
+     * @param format {@code NDJSON} (default) or {@code CSV}
+     * @param acceptEncoding the {@code Accept-Encoding} header; the body is gzipped if it allows gzip
+     * @return a streaming body written while rows are read from the database
+     * @throws BadRequestException if the request has a {@code text} filter
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @ModelAttribute OperationSearchRequest request,
+            @RequestParam(name = "format", defaultValue = "NDJSON") ExportFormat format,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (StringUtils.hasText(request.getText())) {
+            throw new BadRequestException("Export does not support text search");
+        }
+        return exportResponses.stream(format, acceptEncoding,
+                (gzip, out) -> exportService.exportOperations(request, format, gzip, out));
+    }
 }
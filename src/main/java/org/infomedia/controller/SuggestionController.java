@@ -2,16 +2,20 @@ package org.infomedia.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.infomedia.dto.CountMode;
+import org.infomedia.dto.SuggestionBatchRequest;
+import org.infomedia.dto.SuggestionBatchResponse;
+import org.infomedia.dto.SuggestionCostResponse;
 import org.infomedia.dto.SuggestionRequest;
 import org.infomedia.dto.SuggestionResponse;
+import org.infomedia.service.CountEstimator;
+import org.infomedia.service.SuggestionCoalescer;
 import org.infomedia.service.SuggestionService;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/suggestions")
@@ -19,17 +23,54 @@ import org.springframework.web.bind.annotation.RestController;
 public class SuggestionController {
     private final SuggestionService suggestionService;
 
+    private final SuggestionCoalescer suggestionCoalescer;
+
     /**
-     * Suggest operations based on given criteria.
+     * Suggest operations based on given criteria. Identical concurrent requests share one query,
+     * see {@link SuggestionCoalescer}.
      *
      * @param request  the suggestion request payload
      * @param pageable the pagination and sorting information
-     * @return a paginated list of {@link SuggestionResponse}
+     * @param count    how the total is computed: {@code EXACT} (default), {@code NONE} or {@code ESTIMATE}
+     * @return a paginated list of {@link SuggestionResponse}; a slice without total for {@code NONE}
      */
     @PostMapping
-    public ResponseEntity<Page<SuggestionResponse>> suggest(@Valid @RequestBody SuggestionRequest request,
-                                                            Pageable pageable) {
-        Page<SuggestionResponse> result = suggestionService.suggest(request, pageable);
+    public ResponseEntity<Slice<SuggestionResponse>> suggest(@Valid @RequestBody SuggestionRequest request,
+                                                             Pageable pageable,
+                                                             @RequestParam(name = "count", defaultValue = "EXACT")
+                                                             CountMode count) {
+        Slice<SuggestionResponse> result = suggestionCoalescer.suggest(request, pageable, count);
+        if (CountEstimator.isPending(result)) {
+            // The total grows once the count completes, so the response must not be reused
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Suggest operations for many vehicles in one request.
+     *
+     * @param request the list of suggestion criteria and the optional per-item limit
+     * @return the {@link SuggestionBatchResponse} with one result per item, in request order
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<SuggestionBatchResponse> suggestBatch(@Valid @RequestBody SuggestionBatchRequest request) {
+        SuggestionBatchResponse result = suggestionService.suggestBatch(request);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Total the cost and time of the operations suggested for the given criteria.
+     *
+     * @param request   the suggestion request payload
+     * @param breakdown whether to include the totals per operation name
+     * @return the {@link SuggestionCostResponse}
+     */
+    @PostMapping("/costs")
+    public ResponseEntity<SuggestionCostResponse> costs(@Valid @RequestBody SuggestionRequest request,
+                                                        @RequestParam(name = "breakdown", defaultValue = "false")
+                                                        boolean breakdown) {
+        SuggestionCostResponse result = suggestionService.costs(request, breakdown);
         return ResponseEntity.ok(result);
     }
 }
@@ -2,18 +2,48 @@ package org.infomedia.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.infomedia.dto.CursorPage;
+import org.infomedia.dto.DistanceUnit;
+import org.infomedia.dto.ExportFormat;
+import org.infomedia.dto.OperationResponse;
+import org.infomedia.dto.SuggestionResponse;
+import org.infomedia.dto.VehicleResponse;
+import org.infomedia.exception.BadRequestException;
+import org.infomedia.exception.ResourceNotFoundException;
 import org.infomedia.model.Vehicle;
+import org.infomedia.repository.Keyset;
+import org.infomedia.repository.OperationRepository;
 import org.infomedia.repository.VehicleRepository;
+import org.infomedia.service.ExportService;
+import org.infomedia.service.SuggestionService;
+import org.infomedia.service.VehicleService;
+import org.infomedia.web.ExportResponses;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/vehicles")
 @RequiredArgsConstructor
 public class VehicleController {
+    private static final Keyset<Vehicle> KEYSET = Keyset.of("id", Vehicle::getId)
+            .sortable("brand", Function.identity(), Vehicle::getBrand)
+            .sortable("model", Function.identity(), Vehicle::getModel)
+            .sortable("engine", Function.identity(), Vehicle::getEngine)
+            .sortable("makeYear", Integer::valueOf, Vehicle::getMakeYear);
+
     private final VehicleRepository vehicleRepository;
+    private final OperationRepository operationRepository;
+    private final VehicleService vehicleService;
+    private final SuggestionService suggestionService;
+    private final ExportService exportService;
+    private final ExportResponses exportResponses;
 
     /**
      * Create a new vehicle.
@@ -23,19 +53,108 @@ public class VehicleController {
      */
     @PostMapping
     public ResponseEntity<Vehicle> create(@Valid @RequestBody Vehicle vehicle) {
-        Vehicle result = vehicleRepository.save(vehicle);
+        Vehicle result = vehicleService.create(vehicle);
         return ResponseEntity.ok(result);
     }
 
     /**
-     * List all vehicles with pagination.
+     * List all vehicles with pagination. Operations are not included; read them per vehicle
+     * from {@code /vehicles/{id}/operations}.
      *
      * @param pageable the pagination and sorting information
-     * @return a paginated list of {@link Vehicle}
+     * @return a paginated list of {@link VehicleResponse}
      */
     @GetMapping
-    public ResponseEntity<Page<Vehicle>> list(Pageable pageable) {
-        Page<Vehicle> result = vehicleRepository.findAll(pageable);
+    public ResponseEntity<Page<VehicleResponse>> list(Pageable pageable) {
+        Page<VehicleResponse> result = vehicleRepository.findAllResponses(pageable);
         return ResponseEntity.ok(result);
     }
+
+    /**
+     * List vehicles with keyset pagination, selected by the presence of the {@code cursor} parameter.
+     *
+     * @param cursor the continuation token of the previous page, empty for the first page
+     * @param pageable the page size and, on the first page, the sort order
+     * @return a {@link CursorPage} of {@link VehicleResponse}
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPage<VehicleResponse>> seek(@RequestParam("cursor") String cursor, Pageable pageable) {
+        Keyset.Cursor position = KEYSET.cursor(cursor, pageable.getSort());
+        int size = pageable.getPageSize();
+        List<Vehicle> rows = vehicleRepository.findBy(KEYSET.after(position),
+                query -> query.sortBy(KEYSET.sort(position)).limit(size + 1).all());
+        return ResponseEntity.ok(KEYSET.page(rows, position, size, VehicleResponse::toResponse));
+    }
+
+    /**
+     * List the operations linked to a vehicle with pagination.
+     *
+     * @param id       the vehicle id
+     * @param pageable the pagination and sorting information
+     * @return a paginated list of {@link OperationResponse}
+     * @throws ResourceNotFoundException if the vehicle does not exist
+     */
+    @GetMapping("/{id}/operations")
+    public ResponseEntity<Page<OperationResponse>> operations(@PathVariable("id") Long id, Pageable pageable) {
+        if (!vehicleRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Vehicle %d not found".formatted(id));
+        }
+        Page<OperationResponse> result = operationRepository.findByVehicleId(id, pageable)
+                .map(OperationResponse::toResponse);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Suggest the operations applicable to a registered vehicle at its current distance.
+     *
+     * @param id            the vehicle id
+     * @param totalDistance the vehicle's total distance
+     * @param unit          the distance unit, {@code mi} (default) or {@code km}
+     * @param pageable      the pagination and sorting information
+     * @return a paginated list of {@link SuggestionResponse}
+     * @throws ResourceNotFoundException if the vehicle does not exist
+     * @throws BadRequestException       if the unit is unknown
+     */
+    @GetMapping("/{id}/suggestions")
+    public ResponseEntity<Page<SuggestionResponse>> suggestions(
+            @PathVariable("id") Long id,
+            @RequestParam("totalDistance") double totalDistance,
+            @RequestParam(name = "unit", required = false) String unit,
+            Pageable pageable) {
+        DistanceUnit distanceUnit;
+        try {
+            distanceUnit = unit == null ? DistanceUnit.MILES : DistanceUnit.fromString(unit);
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException(ex.getMessage());
+        }
+        if (!vehicleRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Vehicle %d not found".formatted(id));
+        }
+        Page<SuggestionResponse> result =
+                suggestionService.suggestForVehicle(id, distanceUnit.toKilometers(totalDistance), pageable);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Stream every vehicle matching the optional filters, without paging or counting.
+     *
+     * @param brand the brand, matched case-insensitively
+     * @param model the model, matched case-insensitively
+     * @param engine the engine, matched case-insensitively
+     * @param makeYear the make year
+     * @param format {@code NDJSON} (default) or {@code CSV}
+     * @param acceptEncoding the {@code Accept-Encoding} header; the body is gzipped if it allows gzip
+     * @return a streaming body written while rows are read from the database
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(name = "brand", required = false) String brand,
+            @RequestParam(name = "model", required = false) String model,
+            @RequestParam(name = "engine", required = false) String engine,
+            @RequestParam(name = "makeYear", required = false) Integer makeYear,
+            @RequestParam(name = "format", defaultValue = "NDJSON") ExportFormat format,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return exportResponses.stream(format, acceptEncoding,
+                (gzip, out) -> exportService.exportVehicles(brand, model, engine, makeYear, format, gzip, out));
+    }
 }
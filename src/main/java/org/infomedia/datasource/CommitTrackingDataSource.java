@@ -0,0 +1,66 @@
+package org.infomedia.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Write side of the read/write routing: the primary, remembering when a transaction last
+ * committed on it.
+ * <p>
+ * The time is taken once the commit has returned, so a heartbeat written later carries a later
+ * time and a replica that has replicated that heartbeat also has the commit. The
+ * {@link ReplicaRoutingDataSource} keeps reads on the primary until then, which keeps caches
+ * invalidated after the commit from being filled again from a replica that lacks it. Writes
+ * outside a transaction, in auto-commit mode, are not tracked.
+ */
+public class CommitTrackingDataSource extends DelegatingDataSource {
+
+    private final Clock clock;
+
+    private volatile Instant lastCommit = Instant.MIN;
+
+    public CommitTrackingDataSource(DataSource primary, Clock clock) {
+        super(primary);
+        this.clock = clock;
+    }
+
+    /**
+     * @return the time of the last commit, {@link Instant#MIN} before the first one
+     */
+    public Instant lastCommit() {
+        return lastCommit;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return track(super.getConnection(username, password));
+    }
+
+    private Connection track(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getTargetException();
+                    }
+                    if ("commit".equals(method.getName())) {
+                        lastCommit = clock.instant();
+                    }
+                    return result;
+                });
+    }
+}
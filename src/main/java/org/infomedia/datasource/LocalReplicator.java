@@ -0,0 +1,147 @@
+package org.infomedia.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Stand-in for database replication when primary and replicas are embedded H2 instances:
+ * periodically copies every table of the primary into each replica.
+ * <p>
+ * The schema is copied once, or again when the primary's tables change, with referential
+ * integrity disabled on the replica. Rows are copied from one repeatable-read transaction on
+ * the primary and replaced in one transaction on the replica, so readers of the replica keep
+ * seeing the previous copy until the new one commits. The heartbeat table is copied first,
+ * which makes the measured lag an upper bound. Meant for local runs and tests only: every
+ * round copies the whole catalog.
+ */
+@Slf4j
+public class LocalReplicator {
+
+    private static final String HEARTBEAT = "REPLICATION_HEARTBEAT";
+
+    private static final String TABLES = """
+            SELECT table_name FROM information_schema.tables
+            WHERE table_schema = 'PUBLIC' AND table_type = 'BASE TABLE'""";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final ReplicaSet replicaSet;
+
+    public LocalReplicator(ReplicaSet replicaSet) {
+        this.replicaSet = replicaSet;
+    }
+
+    /**
+     * Copy the primary into every replica; a failed copy is logged and retried next round.
+     */
+    @Scheduled(fixedDelayString = "${datasource.replica.replication-interval-ms:2000}")
+    public void replicate() {
+        for (Replica replica : replicaSet.replicas()) {
+            try {
+                copy(replica);
+            } catch (SQLException ex) {
+                log.warn("Replication to {} failed: {}", replica.name(), ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Copy the primary into one replica.
+     *
+     * @param replica the replica
+     * @throws SQLException if reading the primary or writing the replica fails
+     */
+    void copy(Replica replica) throws SQLException {
+        try (Connection source = replicaSet.primary().getConnection();
+             Connection target = replica.dataSource().getConnection()) {
+            source.setAutoCommit(false);
+            source.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            target.setAutoCommit(false);
+            try {
+                List<String> tables = tables(source);
+                if (!new HashSet<>(tables).equals(new HashSet<>(tables(target)))) {
+                    copySchema(source, target);
+                }
+                for (String table : tables) {
+                    copyRows(source, target, table);
+                }
+                target.commit();
+            } catch (SQLException ex) {
+                target.rollback();
+                throw ex;
+            } finally {
+                source.rollback();
+            }
+        }
+    }
+
+    private static List<String> tables(Connection connection) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(TABLES)) {
+            while (rows.next()) {
+                tables.add(rows.getString(1));
+            }
+        }
+        // heartbeat first, so the replicated beat is never newer than the replicated rows
+        tables.sort((a, b) -> Boolean.compare(!HEARTBEAT.equals(a), !HEARTBEAT.equals(b)));
+        return tables;
+    }
+
+    private static void copySchema(Connection source, Connection target) throws SQLException {
+        List<String> script = new ArrayList<>();
+        try (Statement statement = source.createStatement();
+             ResultSet rows = statement.executeQuery("SCRIPT NODATA")) {
+            while (rows.next()) {
+                script.add(rows.getString(1));
+            }
+        }
+        try (Statement statement = target.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : script) {
+                statement.execute(sql);
+            }
+            statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        }
+        target.commit();
+    }
+
+    private static void copyRows(Connection source, Connection target, String table) throws SQLException {
+        String quoted = '"' + table + '"';
+        try (Statement delete = target.createStatement()) {
+            delete.executeUpdate("DELETE FROM " + quoted);
+        }
+        try (Statement select = source.createStatement();
+             ResultSet rows = select.executeQuery("SELECT * FROM " + quoted)) {
+            int columns = rows.getMetaData().getColumnCount();
+            String insert = "INSERT INTO " + quoted + " VALUES ("
+                    + String.join(", ", Collections.nCopies(columns, "?")) + ")";
+            try (PreparedStatement statement = target.prepareStatement(insert)) {
+                int batched = 0;
+                while (rows.next()) {
+                    for (int i = 1; i <= columns; i++) {
+                        statement.setObject(i, rows.getObject(i));
+                    }
+                    statement.addBatch();
+                    if (++batched == BATCH_SIZE) {
+                        statement.executeBatch();
+                        batched = 0;
+                    }
+                }
+                if (batched > 0) {
+                    statement.executeBatch();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.infomedia.datasource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A read replica and its last measured replication lag.
+ * <p>
+ * The lag is unknown until the {@link ReplicaLagMonitor} first reads the replica's heartbeat,
+ * and becomes unknown again whenever the replica cannot be read; a replica with an unknown
+ * lag is never routed to. The heartbeat read also tells up to when the replica has replicated
+ * the primary, so that it is not routed to before it has a write this instance committed.
+ */
+public final class Replica {
+
+    private final String name;
+
+    private final DataSource dataSource;
+
+    private volatile Heartbeat heartbeat;
+
+    /**
+     * @param name       the name used in logs and meter tags, e.g. {@code replica-1}
+     * @param dataSource the replica's connection pool
+     */
+    public Replica(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public DataSource dataSource() {
+        return dataSource;
+    }
+
+    /**
+     * @return the last measured lag, or null if unknown
+     */
+    public Duration lag() {
+        Heartbeat current = heartbeat;
+        return current == null ? null : current.lag();
+    }
+
+    /**
+     * Record a successful heartbeat check.
+     *
+     * @param beat the heartbeat the replica has replicated so far
+     * @param now  the time of the check
+     */
+    void heartbeat(Instant beat, Instant now) {
+        this.heartbeat = new Heartbeat(beat, Duration.between(beat, now));
+    }
+
+    /**
+     * Forget the lag after a failed read, taking the replica out of rotation until the next
+     * successful heartbeat check.
+     */
+    void unreachable() {
+        this.heartbeat = null;
+    }
+
+    /**
+     * @param maxLag     the largest acceptable lag
+     * @param lastCommit the last write committed to the primary by this instance
+     * @return {@code true} if the replica may serve reads: its lag is known and acceptable and it
+     * has replicated a heartbeat written after {@code lastCommit}
+     */
+    boolean isAvailable(Duration maxLag, Instant lastCommit) {
+        Heartbeat current = heartbeat;
+        return current != null && current.lag().compareTo(maxLag) <= 0 && current.beat().isAfter(lastCommit);
+    }
+
+    private record Heartbeat(Instant beat, Duration lag) {
+    }
+}
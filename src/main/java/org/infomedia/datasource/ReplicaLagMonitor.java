@@ -0,0 +1,81 @@
+package org.infomedia.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Measures replication lag with a heartbeat: the current time is written to a one-row table
+ * on the primary, and each replica's lag is the age of the value it has replicated so far.
+ * <p>
+ * A replica whose heartbeat cannot be read, because it is down or has not received the table
+ * yet, gets an unknown lag and stops serving reads until a later check succeeds. Lags are
+ * published as the {@code datasource.replica.lag} gauge, NaN while unknown.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    static final String CREATE = """
+            CREATE TABLE IF NOT EXISTS replication_heartbeat (id INT PRIMARY KEY, beat TIMESTAMP NOT NULL)""";
+
+    private static final String BEAT = "MERGE INTO replication_heartbeat (id, beat) KEY (id) VALUES (1, ?)";
+
+    private static final String READ = "SELECT beat FROM replication_heartbeat WHERE id = 1";
+
+    private final ReplicaSet replicaSet;
+
+    private final Clock clock;
+
+    private final JdbcTemplate primary;
+
+    public ReplicaLagMonitor(ReplicaSet replicaSet, MeterRegistry meterRegistry, Clock clock) {
+        this.replicaSet = replicaSet;
+        this.clock = clock;
+        this.primary = new JdbcTemplate(replicaSet.primary());
+        primary.execute(CREATE);
+        for (Replica replica : replicaSet.replicas()) {
+            Gauge.builder("datasource.replica.lag", replica,
+                            r -> r.lag() == null ? Double.NaN : r.lag().toMillis() / 1000.0)
+                    .description("Replication lag of the replica, NaN while unknown")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Write a heartbeat to the primary and update the lag of every replica.
+     */
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        Instant now = clock.instant();
+        try {
+            primary.update(BEAT, Timestamp.from(now));
+        } catch (DataAccessException ex) {
+            log.warn("Could not write the replication heartbeat: {}", ex.getMessage());
+        }
+        for (Replica replica : replicaSet.replicas()) {
+            try {
+                List<Timestamp> beats = new JdbcTemplate(replica.dataSource()).queryForList(READ, Timestamp.class);
+                if (beats.isEmpty()) {
+                    replica.unreachable();
+                } else {
+                    replica.heartbeat(beats.get(0).toInstant(), now);
+                }
+            } catch (DataAccessException ex) {
+                if (replica.lag() != null) {
+                    log.warn("Replica {} is unreachable, reads fall back: {}", replica.name(), ex.getMessage());
+                }
+                replica.unreachable();
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.infomedia.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Read-only side of the read/write routing: hands out connections of the replicas in turn,
+ * skipping those whose lag exceeds the limit or is unknown and those that have not yet replicated
+ * the last commit of this instance, and falls back to the primary when no replica is available or
+ * a replica refuses a connection.
+ * <p>
+ * Connections are counted per target in {@code datasource.routing.connections}, so a rising
+ * {@code target=primary} count shows reads falling back.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final ReplicaSet replicaSet;
+
+    private final Supplier<Instant> lastCommit;
+
+    private final Map<String, Counter> connections = new HashMap<>();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param replicaSet    the primary and the replicas
+     * @param lastCommit    the time of the last commit on the primary, see {@link CommitTrackingDataSource}
+     * @param meterRegistry the registry of the connection counters
+     */
+    public ReplicaRoutingDataSource(ReplicaSet replicaSet, Supplier<Instant> lastCommit, MeterRegistry meterRegistry) {
+        this.replicaSet = replicaSet;
+        this.lastCommit = lastCommit;
+        connections.put(PRIMARY, counter(meterRegistry, PRIMARY));
+        for (Replica replica : replicaSet.replicas()) {
+            connections.put(replica.name(), counter(meterRegistry, replica.name()));
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        List<Replica> replicas = replicaSet.replicas();
+        Instant committed = lastCommit.get();
+        int start = replicas.isEmpty() ? 0 : Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.isAvailable(replicaSet.maxLag(), committed)) {
+                continue;
+            }
+            try {
+                Connection connection = source.get(replica.dataSource());
+                connections.get(replica.name()).increment();
+                return connection;
+            } catch (SQLException ex) {
+                log.warn("Replica {} refused a connection, reading from the next target: {}",
+                        replica.name(), ex.getMessage());
+                replica.unreachable();
+            }
+        }
+        Connection connection = source.get(replicaSet.primary());
+        connections.get(PRIMARY).increment();
+        return connection;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("datasource.routing.connections")
+                .description("Connections handed out to read-only transactions")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+}
@@ -0,0 +1,30 @@
+package org.infomedia.datasource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The primary data source and its read replicas.
+ *
+ * @param primary  the primary, serving every write and any read no replica can take
+ * @param replicas the read replicas
+ * @param maxLag   the largest replication lag at which a replica still serves reads
+ */
+public record ReplicaSet(DataSource primary, List<Replica> replicas, Duration maxLag) implements AutoCloseable {
+
+    /**
+     * Close the connection pools.
+     */
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource() instanceof AutoCloseable pool) {
+                pool.close();
+            }
+        }
+        if (primary instanceof AutoCloseable pool) {
+            pool.close();
+        }
+    }
+}
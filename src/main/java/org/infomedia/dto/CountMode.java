@@ -0,0 +1,13 @@
+package org.infomedia.dto;
+
+/**
+ * How the total of a paginated search is computed.
+ */
+public enum CountMode {
+    /** Run a COUNT query and return a full page. */
+    EXACT,
+    /** Skip the COUNT query and only report whether a next page exists. */
+    NONE,
+    /** Return a page whose total comes from a count cached per filter for a short time. */
+    ESTIMATE
+}
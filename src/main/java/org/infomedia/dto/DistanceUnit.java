@@ -0,0 +1,87 @@
+package org.infomedia.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Unit of an odometer reading, converted to the kilometres stored on operations.
+ * <p>
+ * The conversion reproduces the previous indriya {@code MILE -> KILO(METER)} result bit for bit
+ * without allocating: indriya multiplies the shortest decimal form of the input by the exact
+ * ratio 201168/125000 and rounds once. For inputs with a short decimal form, the numerator
+ * {@code digits * 201168} and the denominator {@code 125000 * 10^scale} are both exact doubles,
+ * so a single IEEE division gives the same correctly rounded result. Other inputs take the
+ * exact {@link BigDecimal} path.
+ */
+public enum DistanceUnit {
+    MILES(201_168, 125_000),
+    KILOMETERS(1, 1);
+
+    private static final int MAX_SCALE = 9;
+    private static final double MAX_EXACT = 0x1p53;
+    private static final double[] POW10 = new double[MAX_SCALE + 1];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private final long numerator;
+    private final long denominator;
+    private final BigDecimal factor;
+    private final double maxDigits;
+
+    DistanceUnit(long numerator, long denominator) {
+        this.numerator = numerator;
+        this.denominator = denominator;
+        this.factor = BigDecimal.valueOf(numerator).divide(BigDecimal.valueOf(denominator));
+        this.maxDigits = Math.floor(MAX_EXACT / numerator) - 1;
+    }
+
+    /**
+     * Convert a distance in this unit to kilometres.
+     *
+     * @param value the distance in this unit
+     * @return the distance in kilometres
+     * @throws NumberFormatException if the value is NaN or infinite
+     */
+    public double toKilometers(double value) {
+        if (this == KILOMETERS) {
+            return value;
+        }
+        for (int scale = 0; scale <= MAX_SCALE; scale++) {
+            double scaled = value * POW10[scale];
+            if (!(Math.abs(scaled) < maxDigits)) {
+                break;
+            }
+            long digits = Math.round(scaled);
+            if (digits / POW10[scale] == value) {
+                return (double) (digits * numerator) / (denominator * POW10[scale]);
+            }
+        }
+        return BigDecimal.valueOf(value).multiply(factor).doubleValue();
+    }
+
+    /**
+     * Parse a unit from JSON, accepting the constant name or a common abbreviation.
+     *
+     * @param value e.g. {@code "km"}, {@code "kilometers"}, {@code "mi"} or {@code "MILES"}
+     * @return the {@link DistanceUnit}, or null if the value is null
+     * @throws IllegalArgumentException if the value is not a known unit
+     */
+    @JsonCreator
+    public static DistanceUnit fromString(String value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "mi", "mile", "miles" -> MILES;
+            case "km", "kilometer", "kilometers", "kilometre", "kilometres" -> KILOMETERS;
+            default -> throw new IllegalArgumentException("Unknown distance unit: " + value);
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package org.infomedia.dto;
+
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * A page returned while the count of its filter is still running: the total is only the number
+ * of rows the page itself proves to exist, and {@code estimated} is {@code true} in the response.
+ * Serialized as a plain bean, since the serializer Spring Data sets on {@link PageImpl} would drop
+ * that property.
+ *
+ * @param <T> the content type
+ */
+@JsonSerialize(using = JsonSerializer.None.class)
+public class EstimatedPage<T> extends PageImpl<T> {
+
+    public EstimatedPage(List<T> content, Pageable pageable, long total) {
+        super(content, pageable, total);
+    }
+
+    /**
+     * @return always {@code true}, the total being a lower bound
+     */
+    public boolean isEstimated() {
+        return true;
+    }
+}
@@ -0,0 +1,23 @@
+package org.infomedia.dto;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Output format of a catalog export.
+ */
+public enum ExportFormat {
+    /** One JSON object per line. */
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    /** Comma-separated values with a header line. */
+    CSV(MediaType.parseMediaType("text/csv"));
+
+    private final MediaType mediaType;
+
+    ExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+}
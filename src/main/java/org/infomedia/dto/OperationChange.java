@@ -0,0 +1,31 @@
+package org.infomedia.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.infomedia.model.Operation;
+
+/**
+ * One entry of the operation change feed: the operation as it is now, or, for an operation that
+ * was deleted or left the requested brand, a tombstone of id and version with {@code deleted}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OperationChange {
+    private long version;
+    private long id;
+    private Boolean deleted;
+    private OperationResponse operation;
+
+    public static OperationChange upsert(Operation operation) {
+        return new OperationChange(operation.getVersion(), operation.getId(), null,
+                OperationResponse.toResponse(operation));
+    }
+
+    public static OperationChange tombstone(long id, long version) {
+        return new OperationChange(version, id, true, null);
+    }
+}
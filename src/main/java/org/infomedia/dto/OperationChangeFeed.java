@@ -0,0 +1,22 @@
+package org.infomedia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A page of the operation change feed.
+ * <p>
+ * {@code version} is the value to pass as {@code since} on the next sync: the version of the last
+ * change if {@code hasMore}, the current catalog version otherwise.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperationChangeFeed {
+    private List<OperationChange> changes;
+    private long version;
+    private boolean hasMore;
+}
@@ -0,0 +1,28 @@
+package org.infomedia.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperationImportResponse {
+    long imported;
+    long rejected;
+    List<RowError> errors;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class RowError {
+        long line;
+        /** Column of an unparseable value, null for rows that fail validation or insertion. */
+        Integer column;
+        String error;
+    }
+}
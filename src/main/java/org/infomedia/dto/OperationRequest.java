@@ -35,17 +35,21 @@ public class OperationRequest {
 
     public static Operation toEntity(OperationRequest request) {
         Operation operation = new Operation();
-        operation.setBrand(request.brand);
-        operation.setModel(request.model);
-        operation.setEngine(request.engine);
-        operation.setYearStart(request.yearStart);
-        operation.setYearEnd(request.yearEnd);
-        operation.setDistanceStart(request.distanceStart);
-        operation.setDistanceEnd(request.distanceEnd);
-        operation.setName(request.name);
-        operation.setApproxCost(request.approxCost);
-        operation.setDescription(request.description);
-        operation.setTime(request.time);
+        request.applyTo(operation);
         return operation;
     }
+
+    public void applyTo(Operation operation) {
+        operation.setBrand(brand);
+        operation.setModel(model);
+        operation.setEngine(engine);
+        operation.setYearStart(yearStart);
+        operation.setYearEnd(yearEnd);
+        operation.setDistanceStart(distanceStart);
+        operation.setDistanceEnd(distanceEnd);
+        operation.setName(name);
+        operation.setApproxCost(approxCost);
+        operation.setDescription(description);
+        operation.setTime(time);
+    }
 }
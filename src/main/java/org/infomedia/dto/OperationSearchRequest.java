@@ -15,4 +15,9 @@ public class OperationSearchRequest {
     private Integer yearEnd;
     private Double distanceStart;
     private Double distanceEnd;
+
+    /**
+     * Words to look for in the operation name and description; matches are ranked by relevance.
+     */
+    private String text;
 }
@@ -0,0 +1,22 @@
+package org.infomedia.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SuggestionBatchRequest {
+    @NotEmpty
+    @Size(max = 10000)
+    List<@Valid SuggestionRequest> items;
+    @Positive
+    Integer limit;
+}
@@ -0,0 +1,23 @@
+package org.infomedia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionBatchResponse {
+    List<Item> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        int index;
+        long total;
+        List<SuggestionResponse> suggestions;
+    }
+}
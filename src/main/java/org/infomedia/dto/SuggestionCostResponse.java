@@ -0,0 +1,33 @@
+package org.infomedia.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Totals over the operations suggested for one vehicle, with an optional breakdown by operation name.
+ * Operations without a cost or time count as zero in the sums.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SuggestionCostResponse {
+    long count;
+    double totalCost;
+    long totalTime;
+    List<Item> breakdown;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        String name;
+        long count;
+        double totalCost;
+        long totalTime;
+    }
+}
@@ -10,9 +10,27 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 public class SuggestionRequest {
+
+    /**
+     * Make year that matches operations of every year.
+     */
+    public static final int ANY_YEAR = 0;
+
     @NotBlank String brand;
     @NotBlank String model;
     @NotBlank String engine;
     @NotNull Integer makeYear;
     @NotNull Double totalDistance;
+    DistanceUnit unit;
+
+    public SuggestionRequest(String brand, String model, String engine, Integer makeYear, Double totalDistance) {
+        this(brand, model, engine, makeYear, totalDistance, null);
+    }
+
+    /**
+     * @return the total distance in kilometres, read in {@link DistanceUnit#MILES} when no unit is given
+     */
+    public double totalDistanceKm() {
+        return (unit != null ? unit : DistanceUnit.MILES).toKilometers(totalDistance);
+    }
 }
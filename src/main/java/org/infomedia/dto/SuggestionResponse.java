@@ -3,6 +3,7 @@ package org.infomedia.dto;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.infomedia.model.Operation;
 
 @Data
 @NoArgsConstructor
@@ -16,4 +17,17 @@ public class SuggestionResponse {
     String brand;
     String model;
     String engine;
+
+    public static SuggestionResponse toResponse(Operation operation) {
+        return new SuggestionResponse(
+                operation.getId(),
+                operation.getName(),
+                operation.getDescription(),
+                operation.getApproxCost(),
+                operation.getTime(),
+                operation.getBrand(),
+                operation.getModel(),
+                operation.getEngine()
+        );
+    }
 }
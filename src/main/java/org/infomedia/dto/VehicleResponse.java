@@ -0,0 +1,27 @@
+package org.infomedia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.infomedia.model.Vehicle;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VehicleResponse {
+    private Long id;
+    private String brand;
+    private String model;
+    private String engine;
+    private Integer makeYear;
+
+    public static VehicleResponse toResponse(Vehicle vehicle) {
+        return new VehicleResponse(
+                vehicle.getId(),
+                vehicle.getBrand(),
+                vehicle.getModel(),
+                vehicle.getEngine(),
+                vehicle.getMakeYear()
+        );
+    }
+}
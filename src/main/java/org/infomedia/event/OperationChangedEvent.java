@@ -0,0 +1,13 @@
+package org.infomedia.event;
+
+import org.infomedia.model.Operation;
+import org.infomedia.model.OperationKey;
+
+/**
+ * Published whenever an operation is created or updated.
+ *
+ * @param operation   the operation as saved
+ * @param previousKey the key the operation had before the change, or null for new operations
+ */
+public record OperationChangedEvent(Operation operation, OperationKey previousKey) {
+}
@@ -0,0 +1,11 @@
+package org.infomedia.event;
+
+import org.infomedia.model.Operation;
+
+/**
+ * Published whenever an operation is deleted.
+ *
+ * @param operation the operation as it was before the deletion
+ */
+public record OperationDeletedEvent(Operation operation) {
+}
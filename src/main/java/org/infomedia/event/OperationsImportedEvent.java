@@ -0,0 +1,13 @@
+package org.infomedia.event;
+
+import org.infomedia.model.Operation;
+
+import java.util.List;
+
+/**
+ * Published once per committed batch of a bulk import.
+ *
+ * @param operations the operations inserted by the batch
+ */
+public record OperationsImportedEvent(List<Operation> operations) {
+}
@@ -0,0 +1,11 @@
+package org.infomedia.event;
+
+import org.infomedia.model.Vehicle;
+
+/**
+ * Published whenever a vehicle is created.
+ *
+ * @param vehicle the vehicle as saved
+ */
+public record VehicleChangedEvent(Vehicle vehicle) {
+}
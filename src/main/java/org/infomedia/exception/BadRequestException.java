@@ -0,0 +1,12 @@
+package org.infomedia.exception;
+
+public class BadRequestException extends RuntimeException {
+    /**
+     * Constructs a new BadRequestException with the specified detail message.
+     *
+     * @param message the detail message explaining why the request was rejected
+     */
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -2,13 +2,18 @@ package org.infomedia.exception;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -24,6 +29,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", ex.getMessage()));
     }
 
+    /**
+     * Handles BadRequestException and returns a 400 Bad Request response.
+     *
+     * @param ex the BadRequestException thrown
+     * @return a ResponseEntity with status 400 and error message
+     */
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<?> handleBadRequest(BadRequestException ex){
+        return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+    }
+
     /**
      * Handles validation errors from @Valid annotated request bodies.
      *
@@ -39,6 +55,49 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(Map.of("errors", errors));
     }
 
+    /**
+     * Handles request bodies that are not valid JSON or do not map to the request type, e.g. an
+     * unknown enum value, and returns a 400 Bad Request response.
+     *
+     * @param ex the HttpMessageNotReadableException thrown
+     * @return a ResponseEntity with status 400 and the message of the underlying parse error
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<?> handleNotReadable(HttpMessageNotReadableException ex){
+        return ResponseEntity.badRequest().body(Map.of("error", ex.getMostSpecificCause().getMessage()));
+    }
+
+    /**
+     * Handles request parameters and path variables that cannot be converted to their type, e.g.
+     * an unknown enum value, and returns a 400 Bad Request response.
+     *
+     * @param ex the MethodArgumentTypeMismatchException thrown
+     * @return a ResponseEntity with status 400 and error message, listing the accepted values of an enum
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<?> handleTypeMismatch(MethodArgumentTypeMismatchException ex){
+        String message = "Invalid value '%s' for parameter '%s'".formatted(ex.getValue(), ex.getName());
+        Class<?> type = ex.getRequiredType();
+        if (type != null && type.isEnum()) {
+            message += Arrays.stream(type.getEnumConstants())
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(", ", ", expected one of ", ""));
+        }
+        return ResponseEntity.badRequest().body(Map.of("error", message));
+    }
+
+    /**
+     * Handles required request parameters that are missing and returns a 400 Bad Request response.
+     *
+     * @param ex the MissingServletRequestParameterException thrown
+     * @return a ResponseEntity with status 400 and error message
+     */
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    public ResponseEntity<?> handleMissingParameter(MissingServletRequestParameterException ex){
+        return ResponseEntity.badRequest()
+                .body(Map.of("error", "Missing required parameter '%s'".formatted(ex.getParameterName())));
+    }
+
     /**
      * Handles all other exceptions not specifically handled elsewhere.
      *
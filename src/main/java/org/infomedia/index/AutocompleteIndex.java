@@ -0,0 +1,237 @@
+package org.infomedia.index;
+
+import lombok.RequiredArgsConstructor;
+import org.infomedia.event.OperationChangedEvent;
+import org.infomedia.event.OperationDeletedEvent;
+import org.infomedia.event.OperationsImportedEvent;
+import org.infomedia.event.VehicleChangedEvent;
+import org.infomedia.model.Operation;
+import org.infomedia.model.OperationKey;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * In-memory brand → model → engine hierarchy of the catalog for prefix autocompletion.
+ * <p>
+ * Every brand/model/engine combination used by an operation or a vehicle is counted, and
+ * the combinations with a non-zero count are published as an immutable tree of sorted
+ * arrays of normalized values: a completion is a binary search for the prefix followed by a
+ * scan of the matching run. Writes update the counts and replace the whole tree, so lookups
+ * never lock and never reach the database. Values are returned in the spelling they were
+ * first seen with.
+ */
+@Component
+@RequiredArgsConstructor
+public class AutocompleteIndex {
+
+    private static final String LOAD = """
+            SELECT brand, model, engine, COUNT(*) FROM operation GROUP BY brand, model, engine
+            UNION ALL
+            SELECT brand, model, engine, COUNT(*) FROM vehicle GROUP BY brand, model, engine
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<OperationKey, Combination> combinations = new HashMap<>();
+
+    private volatile Level brands = Level.EMPTY;
+
+    /**
+     * Load the combinations of all operations and vehicles once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        combinations.clear();
+        jdbcTemplate.query(LOAD, rs -> {
+            add(rs.getString(1), rs.getString(2), rs.getString(3), rs.getLong(4));
+        });
+        publish();
+    }
+
+    /**
+     * Complete a brand.
+     *
+     * @param prefix the typed prefix, matched case-insensitively; blank lists every brand
+     * @param limit  the maximum number of values
+     * @return the matching brands in alphabetical order
+     */
+    public List<String> brands(String prefix, int limit) {
+        return brands.complete(prefix, limit);
+    }
+
+    /**
+     * Complete a model of a brand.
+     *
+     * @param brand  the brand
+     * @param prefix the typed prefix, matched case-insensitively; blank lists every model
+     * @param limit  the maximum number of values
+     * @return the matching models in alphabetical order, empty if the brand is unknown
+     */
+    public List<String> models(String brand, String prefix, int limit) {
+        return brands.child(brand).complete(prefix, limit);
+    }
+
+    /**
+     * Complete an engine of a brand and model.
+     *
+     * @param brand  the brand
+     * @param model  the model
+     * @param prefix the typed prefix, matched case-insensitively; blank lists every engine
+     * @param limit  the maximum number of values
+     * @return the matching engines in alphabetical order, empty if the brand or model is unknown
+     */
+    public List<String> engines(String brand, String model, String prefix, int limit) {
+        return brands.child(brand).child(model).complete(prefix, limit);
+    }
+
+    /**
+     * Move a committed operation from its previous combination to its current one.
+     *
+     * @param event the {@link OperationChangedEvent}
+     */
+    @TransactionalEventListener
+    public synchronized void onOperationChanged(OperationChangedEvent event) {
+        if (event.previousKey() != null) {
+            remove(event.previousKey());
+        }
+        add(event.operation());
+        publish();
+    }
+
+    /**
+     * Add the operations of a committed bulk import batch.
+     *
+     * @param event the {@link OperationsImportedEvent}
+     */
+    @TransactionalEventListener
+    public synchronized void onOperationsImported(OperationsImportedEvent event) {
+        event.operations().forEach(this::add);
+        publish();
+    }
+
+    /**
+     * Release the combination of a committed deletion.
+     *
+     * @param event the {@link OperationDeletedEvent}
+     */
+    @TransactionalEventListener
+    public synchronized void onOperationDeleted(OperationDeletedEvent event) {
+        remove(OperationKey.of(event.operation()));
+        publish();
+    }
+
+    /**
+     * Add a committed vehicle.
+     *
+     * @param event the {@link VehicleChangedEvent}
+     */
+    @TransactionalEventListener
+    public synchronized void onVehicleChanged(VehicleChangedEvent event) {
+        add(event.vehicle().getBrand(), event.vehicle().getModel(), event.vehicle().getEngine(), 1);
+        publish();
+    }
+
+    private void add(Operation operation) {
+        add(operation.getBrand(), operation.getModel(), operation.getEngine(), 1);
+    }
+
+    private void add(String brand, String model, String engine, long count) {
+        if (brand == null || model == null || engine == null) {
+            return;
+        }
+        combinations.computeIfAbsent(OperationKey.of(brand, model, engine),
+                key -> new Combination(brand.trim(), model.trim(), engine.trim())).count += count;
+    }
+
+    private void remove(OperationKey key) {
+        Combination combination = combinations.get(key);
+        if (combination != null && --combination.count <= 0) {
+            combinations.remove(key);
+        }
+    }
+
+    /**
+     * Rebuild the lookup tree from the counted combinations.
+     */
+    private void publish() {
+        List<Map.Entry<OperationKey, Combination>> sorted = new ArrayList<>(combinations.entrySet());
+        sorted.sort(Map.Entry.comparingByKey(Comparator.comparing(OperationKey::brand)
+                .thenComparing(OperationKey::model)
+                .thenComparing(OperationKey::engine)));
+        brands = Level.build(sorted, 0, sorted.size(), 0);
+    }
+
+    private static final class Combination {
+
+        private final String[] names;
+
+        private long count;
+
+        private Combination(String brand, String model, String engine) {
+            this.names = new String[]{brand, model, engine};
+        }
+    }
+
+    /**
+     * One level of the tree: sorted normalized values, their display names and, above the
+     * engine level, the next level of each value.
+     */
+    private record Level(String[] keys, String[] names, Level[] children) {
+
+        static final Level EMPTY = new Level(new String[0], new String[0], new Level[0]);
+
+        /**
+         * Build the level {@code depth} (0 brand, 1 model, 2 engine) of a sorted run of combinations.
+         */
+        static Level build(List<Map.Entry<OperationKey, Combination>> sorted, int from, int to, int depth) {
+            List<String> keys = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            List<Level> children = new ArrayList<>();
+            int start = from;
+            while (start < to) {
+                String key = keyAt(sorted.get(start).getKey(), depth);
+                int end = start + 1;
+                while (end < to && keyAt(sorted.get(end).getKey(), depth).equals(key)) {
+                    end++;
+                }
+                keys.add(key);
+                names.add(sorted.get(start).getValue().names[depth]);
+                children.add(depth < 2 ? build(sorted, start, end, depth + 1) : EMPTY);
+                start = end;
+            }
+            return new Level(keys.toArray(new String[0]), names.toArray(new String[0]), children.toArray(new Level[0]));
+        }
+
+        Level child(String value) {
+            if (value == null) {
+                return EMPTY;
+            }
+            int index = Arrays.binarySearch(keys, OperationKey.normalize(value));
+            return index >= 0 ? children[index] : EMPTY;
+        }
+
+        List<String> complete(String prefix, int limit) {
+            String normalized = prefix == null ? "" : OperationKey.normalize(prefix);
+            int index = Arrays.binarySearch(keys, normalized);
+            List<String> matches = new ArrayList<>(Math.min(limit, keys.length));
+            for (int i = index >= 0 ? index : -index - 1;
+                 i < keys.length && matches.size() < limit && keys[i].startsWith(normalized); i++) {
+                matches.add(names[i]);
+            }
+            return matches;
+        }
+
+        private static String keyAt(OperationKey key, int depth) {
+            return switch (depth) {
+                case 0 -> key.brand();
+                case 1 -> key.model();
+                default -> key.engine();
+            };
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.infomedia.index;
+
+import org.infomedia.dto.SuggestionRequest;
+import org.infomedia.model.Operation;
+
+/**
+ * Immutable, detached copy of an {@link Operation} held by the in-memory indexes.
+ */
+public record IndexedOperation(
+        Long id,
+        String brand,
+        String model,
+        String engine,
+        Integer yearStart,
+        Integer yearEnd,
+        Double distanceStart,
+        Double distanceEnd,
+        String name,
+        Double approxCost,
+        String description,
+        Integer time) {
+
+    /**
+     * Copy the indexed fields of an operation.
+     *
+     * @param operation the operation to copy
+     * @return a new {@link IndexedOperation}
+     */
+    public static IndexedOperation of(Operation operation) {
+        return new IndexedOperation(
+                operation.getId(),
+                operation.getBrand(),
+                operation.getModel(),
+                operation.getEngine(),
+                operation.getYearStart(),
+                operation.getYearEnd(),
+                operation.getDistanceStart(),
+                operation.getDistanceEnd(),
+                operation.getName(),
+                operation.getApproxCost(),
+                operation.getDescription(),
+                operation.getTime()
+        );
+    }
+
+    /**
+     * Whether the operation applies to the given make year and distance, with the same
+     * inclusive bounds as the database query. {@link SuggestionRequest#ANY_YEAR} matches
+     * every year, as it does in {@code OperationSpecifications.suggestion}.
+     *
+     * @param year       the make year
+     * @param distanceKm the distance in kilometers
+     * @return {@code true} if both ranges contain the given values
+     */
+    public boolean covers(int year, double distanceKm) {
+        return (year == SuggestionRequest.ANY_YEAR || yearStart != null && yearEnd != null
+                && yearStart <= year && year <= yearEnd)
+                && distanceStart != null && distanceEnd != null
+                && distanceStart <= distanceKm && distanceKm <= distanceEnd;
+    }
+}
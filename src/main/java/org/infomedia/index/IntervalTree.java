@@ -0,0 +1,106 @@
+package org.infomedia.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Immutable augmented interval tree answering stabbing queries ("which intervals contain x")
+ * in O(log n + k).
+ * <p>
+ * Intervals are kept sorted by start in flat arrays; the tree is implicit (the middle of every
+ * sub-range is its root) and each node stores the largest end found in its subtree, which lets
+ * a query skip whole subtrees that end before the point.
+ *
+ * @param <T> the payload type
+ */
+public final class IntervalTree<T> {
+
+    private final double[] starts;
+    private final double[] ends;
+    private final double[] maxEnds;
+    private final Object[] values;
+
+    private IntervalTree(double[] starts, double[] ends, Object[] values) {
+        this.starts = starts;
+        this.ends = ends;
+        this.values = values;
+        this.maxEnds = new double[values.length];
+        augment(0, values.length - 1);
+    }
+
+    /**
+     * Build a tree over the given items. Both bounds are inclusive.
+     *
+     * @param items the items to index
+     * @param start extracts the interval start of an item
+     * @param end   extracts the interval end of an item
+     * @param <T>   the payload type
+     * @return a new {@link IntervalTree}
+     */
+    public static <T> IntervalTree<T> build(Collection<? extends T> items,
+                                            ToDoubleFunction<? super T> start,
+                                            ToDoubleFunction<? super T> end) {
+        List<T> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparingDouble(start));
+        int size = sorted.size();
+        double[] starts = new double[size];
+        double[] ends = new double[size];
+        Object[] values = new Object[size];
+        for (int i = 0; i < size; i++) {
+            T item = sorted.get(i);
+            starts[i] = start.applyAsDouble(item);
+            ends[i] = end.applyAsDouble(item);
+            values[i] = item;
+        }
+        return new IntervalTree<>(starts, ends, values);
+    }
+
+    /**
+     * Visit every item whose interval contains the point.
+     *
+     * @param point    the point to stab
+     * @param consumer receives each matching item
+     */
+    public void stab(double point, Consumer<? super T> consumer) {
+        stab(0, values.length - 1, point, consumer);
+    }
+
+    /**
+     * @return the number of indexed intervals
+     */
+    public int size() {
+        return values.length;
+    }
+
+    private double augment(int lo, int hi) {
+        if (lo > hi) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        int mid = (lo + hi) >>> 1;
+        double max = Math.max(ends[mid], Math.max(augment(lo, mid - 1), augment(mid + 1, hi)));
+        maxEnds[mid] = max;
+        return max;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stab(int lo, int hi, double point, Consumer<? super T> consumer) {
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (maxEnds[mid] < point) {
+                return;
+            }
+            stab(lo, mid - 1, point, consumer);
+            if (starts[mid] > point) {
+                return;
+            }
+            if (ends[mid] >= point) {
+                consumer.accept((T) values[mid]);
+            }
+            lo = mid + 1;
+        }
+    }
+}
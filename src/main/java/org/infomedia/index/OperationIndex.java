@@ -0,0 +1,270 @@
+package org.infomedia.index;
+
+import lombok.RequiredArgsConstructor;
+import org.infomedia.event.OperationChangedEvent;
+import org.infomedia.event.OperationDeletedEvent;
+import org.infomedia.event.OperationsImportedEvent;
+import org.infomedia.model.Operation;
+import org.infomedia.model.OperationKey;
+import org.infomedia.repository.OperationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * In-memory copy of the operation catalog used by the {@code memory} suggestion engine.
+ * <p>
+ * Operations are grouped by their normalized {@link OperationKey}; each group holds an
+ * {@link IntervalTree} over the distance range, so a suggestion lookup is a hash lookup
+ * followed by a stabbing query and a make-year check. Groups are immutable and replaced
+ * on every write, so readers never lock.
+ */
+@Component
+@RequiredArgsConstructor
+public class OperationIndex {
+
+    private static final Map<String, Comparator<IndexedOperation>> SORTABLE = Map.ofEntries(
+            sortable("id", IndexedOperation::id),
+            sortable("brand", IndexedOperation::brand),
+            sortable("model", IndexedOperation::model),
+            sortable("engine", IndexedOperation::engine),
+            sortable("yearStart", IndexedOperation::yearStart),
+            sortable("yearEnd", IndexedOperation::yearEnd),
+            sortable("distanceStart", IndexedOperation::distanceStart),
+            sortable("distanceEnd", IndexedOperation::distanceEnd),
+            sortable("name", IndexedOperation::name),
+            sortable("approxCost", IndexedOperation::approxCost),
+            sortable("description", IndexedOperation::description),
+            sortable("time", IndexedOperation::time)
+    );
+
+    private static final Comparator<IndexedOperation> BY_ID = SORTABLE.get("id");
+
+    private final OperationRepository operationRepository;
+
+    private final Map<OperationKey, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private final Map<Long, IndexedOperation> operationsById = new ConcurrentHashMap<>();
+
+    @Value("${suggestion.engine:jpa}")
+    private String engine;
+
+    private volatile boolean ready;
+
+    /**
+     * @return {@code true} if the {@code memory} suggestion engine is configured
+     */
+    public boolean isEnabled() {
+        return "memory".equalsIgnoreCase(engine);
+    }
+
+    /**
+     * @return {@code true} once the catalog has been loaded and lookups can be served
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Load the whole operation catalog once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void load() {
+        if (!isEnabled()) {
+            return;
+        }
+        buckets.clear();
+        operationsById.clear();
+        Map<OperationKey, List<IndexedOperation>> grouped = new HashMap<>();
+        operationRepository.findAll().forEach(operation -> {
+            IndexedOperation indexed = IndexedOperation.of(operation);
+            operationsById.put(indexed.id(), indexed);
+            grouped.computeIfAbsent(keyOf(indexed), key -> new ArrayList<>()).add(indexed);
+        });
+        grouped.forEach((key, operations) -> buckets.put(key, Bucket.of(operations)));
+        ready = true;
+    }
+
+    /**
+     * Apply a committed create or update to the index. Runs before other listeners so that
+     * caches invalidated by the same event are refilled from the updated index.
+     *
+     * @param event the {@link OperationChangedEvent}
+     */
+    @TransactionalEventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onOperationChanged(OperationChangedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        put(IndexedOperation.of(event.operation()));
+    }
+
+    /**
+     * Add a committed bulk import batch, rebuilding each affected group once.
+     *
+     * @param event the {@link OperationsImportedEvent}
+     */
+    @TransactionalEventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onOperationsImported(OperationsImportedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        Map<OperationKey, List<IndexedOperation>> grouped = new HashMap<>();
+        for (Operation operation : event.operations()) {
+            IndexedOperation indexed = IndexedOperation.of(operation);
+            operationsById.put(indexed.id(), indexed);
+            grouped.computeIfAbsent(keyOf(indexed), key -> new ArrayList<>()).add(indexed);
+        }
+        grouped.forEach((key, operations) -> {
+            Bucket bucket = buckets.get(key);
+            if (bucket != null) {
+                operations.addAll(bucket.operations());
+            }
+            buckets.put(key, Bucket.of(operations));
+        });
+    }
+
+    /**
+     * Remove a committed deletion from the index.
+     *
+     * @param event the {@link OperationDeletedEvent}
+     */
+    @TransactionalEventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onOperationDeleted(OperationDeletedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        IndexedOperation previous = operationsById.remove(event.operation().getId());
+        if (previous != null) {
+            replace(keyOf(previous), previous.id(), null);
+        }
+    }
+
+    /**
+     * Whether every order of the given sort can be applied in memory.
+     *
+     * @param sort the requested sort
+     * @return {@code true} if all sort properties are known
+     */
+    public boolean supports(Sort sort) {
+        return sort.stream().allMatch(order -> SORTABLE.containsKey(order.getProperty()));
+    }
+
+    /**
+     * Find the operations of a key whose year and distance ranges contain the given values.
+     *
+     * @param key        the normalized brand/model/engine key
+     * @param year       the make year
+     * @param distanceKm the distance in kilometers
+     * @param pageable   pagination and sorting information
+     * @return a page of matching {@link IndexedOperation}
+     */
+    public Page<IndexedOperation> find(OperationKey key, int year, double distanceKm, Pageable pageable) {
+        List<IndexedOperation> matches = find(key, year, distanceKm);
+        matches.sort(comparator(pageable.getSort()));
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(matches, pageable, matches.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        return new PageImpl<>(new ArrayList<>(matches.subList(from, to)), pageable, matches.size());
+    }
+
+    /**
+     * Find the operations of a key whose year and distance ranges contain the given values.
+     *
+     * @param key        the normalized brand/model/engine key
+     * @param year       the make year
+     * @param distanceKm the distance in kilometers
+     * @return the matching {@link IndexedOperation}, in no particular order
+     */
+    public List<IndexedOperation> find(OperationKey key, int year, double distanceKm) {
+        List<IndexedOperation> matches = new ArrayList<>();
+        Bucket bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.tree().stab(distanceKm, operation -> {
+                if (operation.covers(year, distanceKm)) {
+                    matches.add(operation);
+                }
+            });
+        }
+        return matches;
+    }
+
+    private void put(IndexedOperation operation) {
+        OperationKey key = keyOf(operation);
+        IndexedOperation previous = operationsById.put(operation.id(), operation);
+        if (previous != null && !keyOf(previous).equals(key)) {
+            replace(keyOf(previous), previous.id(), null);
+        }
+        replace(key, operation.id(), operation);
+    }
+
+    private void replace(OperationKey key, Long id, IndexedOperation operation) {
+        List<IndexedOperation> operations = new ArrayList<>();
+        Bucket bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.operations().stream()
+                    .filter(existing -> !existing.id().equals(id))
+                    .forEach(operations::add);
+        }
+        if (operation != null) {
+            operations.add(operation);
+        }
+        if (operations.isEmpty()) {
+            buckets.remove(key);
+        } else {
+            buckets.put(key, Bucket.of(operations));
+        }
+    }
+
+    private static OperationKey keyOf(IndexedOperation operation) {
+        return OperationKey.of(operation.brand(), operation.model(), operation.engine());
+    }
+
+    private static Comparator<IndexedOperation> comparator(Sort sort) {
+        Comparator<IndexedOperation> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<IndexedOperation> next = SORTABLE.get(order.getProperty());
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator == null ? BY_ID : comparator.thenComparing(BY_ID);
+    }
+
+    private static <U extends Comparable<? super U>> Map.Entry<String, Comparator<IndexedOperation>> sortable(
+            String property, Function<IndexedOperation, U> extractor) {
+        return Map.entry(property, Comparator.comparing(extractor, Comparator.nullsFirst(Comparator.naturalOrder())));
+    }
+
+    private record Bucket(List<IndexedOperation> operations, IntervalTree<IndexedOperation> tree) {
+
+        static Bucket of(List<IndexedOperation> operations) {
+            List<IndexedOperation> indexable = operations.stream()
+                    .filter(operation -> operation.distanceStart() != null && operation.distanceEnd() != null)
+                    .toList();
+            IntervalTree<IndexedOperation> tree =
+                    IntervalTree.build(indexable, IndexedOperation::distanceStart, IndexedOperation::distanceEnd);
+            return new Bucket(List.copyOf(operations), tree);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package org.infomedia.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.infomedia.event.OperationChangedEvent;
+import org.infomedia.event.OperationDeletedEvent;
+import org.infomedia.event.OperationsImportedEvent;
+import org.infomedia.model.Operation;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * In-memory inverted index over operation names and descriptions for full-text search.
+ * <p>
+ * Text is split into lower-case words, with a trailing plural {@code s} removed, and each word
+ * maps to the ids of the operations containing it with the number of occurrences; a word of the
+ * name counts {@value #NAME_WEIGHT} times. A query matches the operations containing all of its
+ * words, ranked by BM25. Each indexed operation also keeps the columns the search filters use,
+ * so filtered queries are answered without the database. Posting lists are immutable and
+ * replaced on every write, so readers never lock.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OperationTextIndex {
+
+    static final int NAME_WEIGHT = 3;
+
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    private static final String LOAD = """
+            SELECT id, name, description, make_id, model_id, engine_id,
+                   year_start, year_end, distance_start, distance_end
+            FROM operation
+            ORDER BY id""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, TextDocument> documents = new ConcurrentHashMap<>();
+
+    private final Map<String, Postings> postings = new ConcurrentHashMap<>();
+
+    private volatile long totalLength;
+
+    /**
+     * Load the whole operation catalog once the application has started. Rows are read in id
+     * order, so every posting list is built by appending.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        long start = System.nanoTime();
+        documents.clear();
+        postings.clear();
+        totalLength = 0;
+        Map<String, PostingsBuilder> builders = new HashMap<>();
+        jdbcTemplate.query(LOAD, rs -> {
+            long id = rs.getLong("id");
+            Map<String, Integer> frequencies = frequencies(rs.getString("name"), rs.getString("description"));
+            frequencies.forEach((term, frequency) ->
+                    builders.computeIfAbsent(term, key -> new PostingsBuilder()).add(id, frequency));
+            index(new TextDocument(id,
+                    (Integer) rs.getObject("make_id"), (Integer) rs.getObject("model_id"),
+                    (Integer) rs.getObject("engine_id"),
+                    (Integer) rs.getObject("year_start"), (Integer) rs.getObject("year_end"),
+                    (Double) rs.getObject("distance_start"), (Double) rs.getObject("distance_end"),
+                    length(frequencies)));
+        });
+        builders.forEach((term, builder) -> postings.put(term, builder.build()));
+        log.info("Indexed the text of {} operations: {} terms in {} ms", documents.size(), postings.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Apply a committed create or update to the index.
+     *
+     * @param event the {@link OperationChangedEvent}
+     */
+    @TransactionalEventListener
+    public synchronized void onOperationChanged(OperationChangedEvent event) {
+        put(List.of(event.operation()));
+    }
+
+    /**
+     * Add a committed bulk import batch, rebuilding each affected posting list once.
+     *
+     * @param event the {@link OperationsImportedEvent}
+     */
+    @TransactionalEventListener
+    public synchronized void onOperationsImported(OperationsImportedEvent event) {
+        put(event.operations());
+    }
+
+    /**
+     * Remove a committed deletion from the index.
+     *
+     * @param event the {@link OperationDeletedEvent}
+     */
+    @TransactionalEventListener
+    public synchronized void onOperationDeleted(OperationDeletedEvent event) {
+        TextDocument previous = documents.remove(event.operation().getId());
+        if (previous != null) {
+            totalLength -= previous.length();
+            update(Set.of(previous.id()), Map.of());
+        }
+    }
+
+    /**
+     * Find the operations containing every word of the query.
+     *
+     * @param query  the search text
+     * @param filter the condition the matching operations must also meet
+     * @return the matches, best first and ties by ascending id; empty if the query has no words
+     */
+    public List<Hit> search(String query, Predicate<TextDocument> filter) {
+        List<Postings> lists = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(tokenize(query))) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                return List.of();
+            }
+            lists.add(list);
+        }
+        if (lists.isEmpty()) {
+            return List.of();
+        }
+        lists.sort(Comparator.comparingInt(list -> list.ids().length));
+        int count = documents.size();
+        double averageLength = count == 0 ? 1 : Math.max(1.0, (double) totalLength / count);
+        Postings rarest = lists.get(0);
+        List<Hit> hits = new ArrayList<>();
+        candidates:
+        for (int i = 0; i < rarest.ids().length; i++) {
+            long id = rarest.ids()[i];
+            TextDocument document = documents.get(id);
+            if (document == null || !filter.test(document)) {
+                continue;
+            }
+            double norm = K1 * (1 - B + B * document.length() / averageLength);
+            double score = 0;
+            for (Postings list : lists) {
+                int index = list == rarest ? i : Arrays.binarySearch(list.ids(), id);
+                if (index < 0) {
+                    continue candidates;
+                }
+                int frequency = list.frequencies()[index];
+                double idf = Math.log(1 + (count - list.ids().length + 0.5) / (list.ids().length + 0.5));
+                score += idf * frequency * (K1 + 1) / (frequency + norm);
+            }
+            hits.add(new Hit(id, score));
+        }
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparingLong(Hit::id));
+        return hits;
+    }
+
+    /**
+     * Split text into index terms: maximal runs of letters and digits, lower-cased, with a
+     * trailing plural {@code s} removed from words longer than three characters.
+     *
+     * @param text the text, may be null
+     * @return the terms in order of appearance, with repetitions
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(stem(text.substring(start, i).toLowerCase(Locale.ROOT)));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static String stem(String word) {
+        if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+
+    /**
+     * Index new or changed operations.
+     */
+    private void put(List<Operation> operations) {
+        Set<Long> replaced = new HashSet<>();
+        Map<String, SortedMap<Long, Integer>> added = new HashMap<>();
+        for (Operation operation : operations) {
+            if (documents.containsKey(operation.getId())) {
+                replaced.add(operation.getId());
+            }
+            Map<String, Integer> frequencies = frequencies(operation.getName(), operation.getDescription());
+            frequencies.forEach((term, frequency) ->
+                    added.computeIfAbsent(term, key -> new TreeMap<>()).put(operation.getId(), frequency));
+            index(TextDocument.of(operation, length(frequencies)));
+        }
+        update(replaced, added);
+    }
+
+    /**
+     * Drop the {@code replaced} ids from the posting lists and merge in the {@code added} entries.
+     * The lists holding a replaced id are found by looking it up in every list, which only
+     * happens for updates and deletions.
+     */
+    private void update(Set<Long> replaced, Map<String, SortedMap<Long, Integer>> added) {
+        Set<String> changed = new HashSet<>(added.keySet());
+        if (!replaced.isEmpty()) {
+            postings.forEach((term, list) -> {
+                if (list.containsAny(replaced)) {
+                    changed.add(term);
+                }
+            });
+        }
+        for (String term : changed) {
+            Postings list = postings.getOrDefault(term, Postings.EMPTY)
+                    .with(replaced, added.getOrDefault(term, Collections.emptySortedMap()));
+            if (list.ids().length == 0) {
+                postings.remove(term);
+            } else {
+                postings.put(term, list);
+            }
+        }
+    }
+
+    private void index(TextDocument document) {
+        TextDocument previous = documents.put(document.id(), document);
+        totalLength += document.length() - (previous == null ? 0 : previous.length());
+    }
+
+    /**
+     * Count the terms of an operation, each word of the name counting {@value #NAME_WEIGHT} times.
+     */
+    private static Map<String, Integer> frequencies(String name, String description) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        tokenize(name).forEach(term -> frequencies.merge(term, NAME_WEIGHT, Integer::sum));
+        tokenize(description).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+        return frequencies;
+    }
+
+    private static int length(Map<String, Integer> frequencies) {
+        return frequencies.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * A search match.
+     *
+     * @param id    the operation id
+     * @param score the BM25 relevance, higher is better
+     */
+    public record Hit(long id, double score) {
+    }
+
+    /**
+     * Ids sorted ascending with the weighted occurrences of one term.
+     */
+    private record Postings(long[] ids, int[] frequencies) {
+
+        static final Postings EMPTY = new Postings(new long[0], new int[0]);
+
+        boolean containsAny(Set<Long> candidates) {
+            return candidates.stream().anyMatch(id -> Arrays.binarySearch(ids, id) >= 0);
+        }
+
+        /**
+         * Copy the list without the {@code removed} ids and with the {@code added} entries merged in.
+         */
+        Postings with(Set<Long> removed, SortedMap<Long, Integer> added) {
+            PostingsBuilder builder = new PostingsBuilder();
+            Iterator<Map.Entry<Long, Integer>> entries = added.entrySet().iterator();
+            Map.Entry<Long, Integer> next = entries.hasNext() ? entries.next() : null;
+            for (int i = 0; i < ids.length; i++) {
+                while (next != null && next.getKey() < ids[i]) {
+                    builder.add(next.getKey(), next.getValue());
+                    next = entries.hasNext() ? entries.next() : null;
+                }
+                if (!removed.contains(ids[i])) {
+                    builder.add(ids[i], frequencies[i]);
+                }
+            }
+            while (next != null) {
+                builder.add(next.getKey(), next.getValue());
+                next = entries.hasNext() ? entries.next() : null;
+            }
+            return builder.build();
+        }
+    }
+
+    /**
+     * Growable posting list; ids must be added in ascending order.
+     */
+    private static final class PostingsBuilder {
+
+        private long[] ids = new long[4];
+
+        private int[] frequencies = new int[4];
+
+        private int size;
+
+        void add(long id, int frequency) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ids[size] = id;
+            frequencies[size++] = frequency;
+        }
+
+        Postings build() {
+            return new Postings(Arrays.copyOf(ids, size), Arrays.copyOf(frequencies, size));
+        }
+    }
+}
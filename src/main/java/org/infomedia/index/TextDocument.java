@@ -0,0 +1,65 @@
+package org.infomedia.index;
+
+import org.infomedia.dto.OperationSearchRequest;
+import org.infomedia.model.Operation;
+
+import java.util.Objects;
+
+/**
+ * The filterable columns of an operation held by the {@link OperationTextIndex}, with the
+ * weighted number of words of its text.
+ */
+public record TextDocument(
+        long id,
+        Integer makeId,
+        Integer modelId,
+        Integer engineId,
+        Integer yearStart,
+        Integer yearEnd,
+        Double distanceStart,
+        Double distanceEnd,
+        int length) {
+
+    /**
+     * Copy the filterable columns of an operation.
+     *
+     * @param operation the operation to copy
+     * @param length    the weighted number of words of its name and description
+     * @return a new {@link TextDocument}
+     */
+    public static TextDocument of(Operation operation, int length) {
+        return new TextDocument(
+                operation.getId(),
+                operation.getMakeId(),
+                operation.getModelId(),
+                operation.getEngineId(),
+                operation.getYearStart(),
+                operation.getYearEnd(),
+                operation.getDistanceStart(),
+                operation.getDistanceEnd(),
+                length
+        );
+    }
+
+    /**
+     * Whether the operation passes the search filters, with the same semantics as the database
+     * query: null filters match everything and ranges match when they overlap.
+     *
+     * @param makeId   the brand id, or null
+     * @param modelId  the model id, or null
+     * @param engineId the engine id, or null
+     * @param request  the year and distance filters
+     * @return {@code true} if every filter in use matches
+     */
+    public boolean matches(Integer makeId, Integer modelId, Integer engineId, OperationSearchRequest request) {
+        return (makeId == null || Objects.equals(makeId, this.makeId))
+                && (modelId == null || Objects.equals(modelId, this.modelId))
+                && (engineId == null || Objects.equals(engineId, this.engineId))
+                && (request.getYearEnd() == null || yearEnd != null && yearEnd >= request.getYearEnd())
+                && (request.getYearStart() == null || yearStart != null && yearStart <= request.getYearStart())
+                && (request.getDistanceStart() == null
+                    || distanceEnd != null && distanceEnd >= request.getDistanceStart())
+                && (request.getDistanceEnd() == null
+                    || distanceStart != null && distanceStart <= request.getDistanceEnd());
+    }
+}
@@ -0,0 +1,61 @@
+package org.infomedia.metrics;
+
+/**
+ * Counts the SQL statements executed and result rows read by the current thread between
+ * {@link #start()} and {@link #stop()}; calls outside such a window are ignored.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    /**
+     * Start counting on the current thread, discarding any previous counts.
+     */
+    public static void start() {
+        CURRENT.set(new Counts());
+    }
+
+    /**
+     * Stop counting on the current thread.
+     *
+     * @return the counts since {@link #start()}, or zero counts if counting was not started
+     */
+    public static Counts stop() {
+        Counts counts = CURRENT.get();
+        CURRENT.remove();
+        return counts != null ? counts : new Counts();
+    }
+
+    static void statements(int executed) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statements += executed;
+        }
+    }
+
+    static void row() {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.rows++;
+        }
+    }
+
+    /**
+     * Statement and row counts of one unit of work.
+     */
+    public static final class Counts {
+        private long statements;
+        private long rows;
+
+        public long statements() {
+            return statements;
+        }
+
+        public long rows() {
+            return rows;
+        }
+    }
+}
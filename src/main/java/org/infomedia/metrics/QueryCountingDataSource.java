@@ -0,0 +1,35 @@
+package org.infomedia.metrics;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+
+/**
+ * Wraps a {@link DataSource} so that every executed statement and every row read through
+ * {@link ResultSet#next()} is reported to the {@link QueryCounter} of the calling thread.
+ */
+public final class QueryCountingDataSource {
+
+    private QueryCountingDataSource() {
+    }
+
+    /**
+     * @param dataSource the data source to instrument
+     * @return a proxy of the data source that counts statements and rows
+     */
+    public static DataSource wrap(DataSource dataSource) {
+        return ProxyDataSourceBuilder.create(dataSource)
+                .name("query-counter")
+                .afterQuery((execution, queries) -> QueryCounter.statements(queries.size()))
+                .proxyResultSet()
+                .afterMethod(context -> {
+                    if (context.getTarget() instanceof ResultSet
+                            && "next".equals(context.getMethod().getName())
+                            && Boolean.TRUE.equals(context.getResult())) {
+                        QueryCounter.row();
+                    }
+                })
+                .build();
+    }
+}
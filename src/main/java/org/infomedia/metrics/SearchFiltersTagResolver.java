@@ -0,0 +1,39 @@
+package org.infomedia.metrics;
+
+import io.micrometer.common.annotation.ValueResolver;
+import org.infomedia.dto.OperationSearchRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.StringJoiner;
+
+/**
+ * Tags search timers with the filters a request actually uses, e.g. {@code brand,yearStart},
+ * so latency can be broken down per filter combination. The tag only names the filters, never
+ * their values, which keeps its cardinality bounded.
+ */
+@Component
+public class SearchFiltersTagResolver implements ValueResolver {
+
+    @Override
+    public String resolve(Object parameter) {
+        if (!(parameter instanceof OperationSearchRequest request)) {
+            return "none";
+        }
+        StringJoiner filters = new StringJoiner(",");
+        addIfPresent(filters, "brand", request.getBrand());
+        addIfPresent(filters, "model", request.getModel());
+        addIfPresent(filters, "engine", request.getEngine());
+        addIfPresent(filters, "yearStart", request.getYearStart());
+        addIfPresent(filters, "yearEnd", request.getYearEnd());
+        addIfPresent(filters, "distanceStart", request.getDistanceStart());
+        addIfPresent(filters, "distanceEnd", request.getDistanceEnd());
+        addIfPresent(filters, "text", request.getText());
+        return filters.length() == 0 ? "none" : filters.toString();
+    }
+
+    private static void addIfPresent(StringJoiner filters, String name, Object value) {
+        if (value != null) {
+            filters.add(name);
+        }
+    }
+}
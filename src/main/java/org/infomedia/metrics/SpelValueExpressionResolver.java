@@ -0,0 +1,29 @@
+package org.infomedia.metrics;
+
+import io.micrometer.common.annotation.ValueExpressionResolver;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evaluates {@code @MeterTag(expression = ...)} as SpEL against the annotated parameter, e.g.
+ * {@code expression = "brand"}. Only read access to properties is allowed, so an expression cannot
+ * call methods or reach types and beans; parsed expressions are kept per expression string.
+ */
+public class SpelValueExpressionResolver implements ValueExpressionResolver {
+
+    private final ExpressionParser parser = new SpelExpressionParser();
+
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    @Override
+    public String resolve(String expression, Object parameter) {
+        SimpleEvaluationContext context = SimpleEvaluationContext.forReadOnlyDataBinding().build();
+        return expressions.computeIfAbsent(expression, parser::parseExpression)
+                .getValue(context, parameter, String.class);
+    }
+}
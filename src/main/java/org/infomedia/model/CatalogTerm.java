@@ -0,0 +1,45 @@
+package org.infomedia.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One entry of the make/model/engine dictionary: a normalized value and the compact id that
+ * {@link Operation} and {@link Vehicle} rows store in its place. Maintained by
+ * {@code CatalogDictionary}.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "catalog_term",
+        uniqueConstraints = @UniqueConstraint(name = "uk_catalog_term", columnNames = {"kind", "term_key"}))
+public class CatalogTerm {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Kind kind;
+
+    /**
+     * The value as normalized by {@link OperationKey#normalize(String)}.
+     */
+    @Column(name = "term_key", nullable = false)
+    private String termKey;
+
+    /**
+     * The spelling the value was first seen with.
+     */
+    @Column(nullable = false)
+    private String name;
+
+    /**
+     * The dictionaries, one per encoded column.
+     */
+    public enum Kind {
+        MAKE, MODEL, ENGINE
+    }
+}
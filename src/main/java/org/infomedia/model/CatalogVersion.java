@@ -0,0 +1,23 @@
+package org.infomedia.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * The single row holding the last version handed out by the operation change feed. Writers
+ * increment it in their own transaction and keep it locked until they commit, so versions
+ * become visible in increasing order. Maintained by {@code OperationChangeLog}.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "catalog_version")
+public class CatalogVersion {
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Long version;
+}
@@ -12,13 +12,19 @@ import lombok.*;
 @AllArgsConstructor
 @Builder
 @Table(indexes = {
-        @Index(name = "idx_op_brand_model_engine", columnList = "brand,model,engine"),
+        @Index(name = "idx_op_keys", columnList = "makeId,modelId,engineId"),
         @Index(name = "idx_op_year_range", columnList = "yearStart,yearEnd"),
-        @Index(name = "idx_op_distance_range", columnList = "distanceStart,distanceEnd")
+        @Index(name = "idx_op_distance_range", columnList = "distanceStart,distanceEnd"),
+        @Index(name = "idx_op_version", columnList = "version"),
+        @Index(name = "idx_op_make_version", columnList = "makeId,version")
 })
 public class Operation {
+    /**
+     * Sequence ids are allocated 50 at a time, so inserts can be sent in JDBC batches.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "operation_seq")
+    @SequenceGenerator(name = "operation_seq", sequenceName = "operation_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -30,6 +36,15 @@ public class Operation {
     @NotBlank
     private String engine;
 
+    /**
+     * Dictionary ids of brand, model and engine, set by {@code CatalogDictionary#encode}.
+     */
+    private Integer makeId;
+
+    private Integer modelId;
+
+    private Integer engineId;
+
     @NotNull
     private Integer yearStart;
 
@@ -54,6 +69,11 @@ public class Operation {
     @NotNull
     private Integer time;
 
+    /**
+     * Change feed version of the last create or update, set by {@code OperationChangeLog}.
+     */
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "vehicle_id")
     private Vehicle vehicle;
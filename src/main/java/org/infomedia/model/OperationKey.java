@@ -0,0 +1,45 @@
+package org.infomedia.model;
+
+import java.util.Locale;
+
+/**
+ * Normalized (brand, model, engine) lookup key shared by operations and vehicles.
+ *
+ * @param brand  the case-folded brand
+ * @param model  the case-folded model
+ * @param engine the case-folded engine
+ */
+public record OperationKey(String brand, String model, String engine) {
+
+    /**
+     * Build a key from raw, user supplied values.
+     *
+     * @param brand  the brand as entered
+     * @param model  the model as entered
+     * @param engine the engine as entered
+     * @return the normalized {@link OperationKey}
+     */
+    public static OperationKey of(String brand, String model, String engine) {
+        return new OperationKey(normalize(brand), normalize(model), normalize(engine));
+    }
+
+    /**
+     * Build the key of an existing operation.
+     *
+     * @param operation the operation
+     * @return the normalized {@link OperationKey}
+     */
+    public static OperationKey of(Operation operation) {
+        return of(operation.getBrand(), operation.getModel(), operation.getEngine());
+    }
+
+    /**
+     * Case-fold and trim a key value so that "Toyota " and "toyota" compare equal.
+     *
+     * @param value the raw value, may be null
+     * @return the normalized value, or null if the input is null
+     */
+    public static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
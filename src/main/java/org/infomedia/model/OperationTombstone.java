@@ -0,0 +1,35 @@
+package org.infomedia.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Change feed entry for an operation that left a brand: it was deleted, or updated to another
+ * brand, in which case the feed carries the operation again at a later version. Maintained by
+ * {@code OperationChangeLog}.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "operation_tombstone", indexes = {
+        @Index(name = "idx_tombstone_version", columnList = "version"),
+        @Index(name = "idx_tombstone_make_version", columnList = "makeId,version")
+})
+public class OperationTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long operationId;
+
+    /**
+     * Dictionary id of the brand the operation left.
+     */
+    private Integer makeId;
+
+    @Column(nullable = false)
+    private Long version;
+}
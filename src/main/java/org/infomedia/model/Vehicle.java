@@ -1,5 +1,6 @@
 package org.infomedia.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -12,7 +13,8 @@ import java.util.List;
 @Entity
 @Table(
         name = "vehicle",
-        uniqueConstraints = @UniqueConstraint(columnNames = {"brand", "model", "engine", "make_year"})
+        uniqueConstraints = @UniqueConstraint(name = "uk_vehicle_keys",
+                columnNames = {"make_id", "model_id", "engine_id", "make_year"})
 )
 @Getter
 @Setter
@@ -24,6 +26,10 @@ public class Vehicle {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Display spelling of brand, model and engine. Vehicles are matched, filtered and kept
+     * unique by the dictionary ids below.
+     */
     @NotBlank
     private String brand;
 
@@ -33,10 +39,26 @@ public class Vehicle {
     @NotBlank
     private String engine;
 
+    /**
+     * Dictionary ids of brand, model and engine, set by {@code CatalogDictionary#encode}.
+     */
+    @JsonIgnore
+    private Integer makeId;
+
+    @JsonIgnore
+    private Integer modelId;
+
+    @JsonIgnore
+    private Integer engineId;
+
     @ValidYear
     @NotNull
     private Integer makeYear;
 
+    /**
+     * Never serialized: it is lazy and unbounded. Read it through {@code /vehicles/{id}/operations}.
+     */
+    @JsonIgnore
     @OneToMany(mappedBy = "vehicle", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<Operation> operations = new ArrayList<>();
@@ -0,0 +1,40 @@
+package org.infomedia.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * One row of the materialized applicability mapping: the operation applies to the vehicle
+ * because their brand/model/engine keys are equal and the vehicle's make year lies within the
+ * operation's year range. Maintained by {@code ApplicabilityService}.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "vehicle_operation",
+        indexes = @Index(name = "idx_vehicle_operation_operation", columnList = "operation_id"))
+public class VehicleOperation {
+
+    @EmbeddedId
+    private Id id;
+
+    /**
+     * Primary key, vehicle first, so the operations of a vehicle are one index range.
+     */
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Id implements Serializable {
+
+        @Column(name = "vehicle_id")
+        private Long vehicleId;
+
+        @Column(name = "operation_id")
+        private Long operationId;
+    }
+}
@@ -0,0 +1,53 @@
+package org.infomedia.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.stream.Stream;
+
+/**
+ * Forward-only, read-only streaming of entities for the repository fragments.
+ */
+final class CursorStreams {
+
+    private CursorStreams() {
+    }
+
+    /**
+     * Run a criteria query as a forward-only database cursor. Rows are fetched
+     * {@code fetchSize} at a time, loaded read-only and detached as soon as the stream hands
+     * them out, so the persistence context does not grow with the result.
+     *
+     * @param entityManager the entity manager
+     * @param type          the entity type
+     * @param spec          the filter
+     * @param sort          the order of the rows
+     * @param fetchSize     the number of rows fetched per round trip
+     * @param <T>           the entity type
+     * @return a stream of detached entities that must be closed
+     */
+    static <T> Stream<T> stream(EntityManager entityManager, Class<T> type, Specification<T> spec, Sort sort,
+                                int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<T> root = query.from(type);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+}
@@ -0,0 +1,167 @@
+package org.infomedia.repository;
+
+import jakarta.persistence.criteria.Path;
+import org.infomedia.dto.CursorPage;
+import org.infomedia.exception.BadRequestException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Keyset (seek) pagination over an entity.
+ * <p>
+ * A page is fetched with {@code WHERE (sort, id) > (last sort value, last id) ORDER BY sort, id LIMIT size + 1}
+ * instead of an OFFSET, so deep pages cost the same as the first one and no COUNT query is needed.
+ * The position of the last row is handed to the client as an opaque cursor token.
+ * Only non-null columns are sortable, which keeps the row-value comparison well defined.
+ *
+ * @param <T> the entity type
+ */
+public final class Keyset<T> {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final String idProperty;
+    private final Function<T, Long> idGetter;
+    private final Map<String, Column<T>> columns = new LinkedHashMap<>();
+
+    private Keyset(String idProperty, Function<T, Long> idGetter) {
+        this.idProperty = idProperty;
+        this.idGetter = idGetter;
+        columns.put(idProperty, new Column<>(Long::valueOf, idGetter::apply));
+    }
+
+    /**
+     * Create a keyset whose tie-breaker is the given unique id.
+     *
+     * @param idProperty the id attribute name
+     * @param idGetter   reads the id of an entity
+     * @param <T>        the entity type
+     * @return a new {@link Keyset}
+     */
+    public static <T> Keyset<T> of(String idProperty, Function<T, Long> idGetter) {
+        return new Keyset<>(idProperty, idGetter);
+    }
+
+    /**
+     * Allow sorting by another non-null attribute.
+     *
+     * @param property the attribute name
+     * @param parser   parses the attribute value back from its cursor form
+     * @param getter   reads the attribute of an entity
+     * @param <C>      the attribute type
+     * @return this keyset
+     */
+    public <C extends Comparable<? super C>> Keyset<T> sortable(String property,
+                                                                Function<String, C> parser,
+                                                                Function<T, C> getter) {
+        columns.put(property, new Column<>(parser, getter::apply));
+        return this;
+    }
+
+    /**
+     * Resolve the position to read from.
+     *
+     * @param token the cursor of the previous page, or blank for the first page
+     * @param sort  the requested sort; only its first order is used and only on the first page
+     * @return the resolved {@link Cursor}
+     * @throws BadRequestException if the token is malformed or the sort property is not supported
+     */
+    public Cursor cursor(String token, Sort sort) {
+        if (token == null || token.isBlank()) {
+            Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.asc(idProperty));
+            if (!columns.containsKey(order.getProperty())) {
+                throw new BadRequestException("Cursor pagination cannot sort by '%s'".formatted(order.getProperty()));
+            }
+            return new Cursor(order.getProperty(), order.getDirection(), null, null);
+        }
+        try {
+            String[] parts = new String(DECODER.decode(token), StandardCharsets.UTF_8).split("\\|", 4);
+            Column<T> column = columns.get(parts[0]);
+            if (parts.length != 4 || column == null) {
+                throw new IllegalArgumentException(token);
+            }
+            return new Cursor(parts[0], Sort.Direction.fromString(parts[1]),
+                    column.parser().apply(parts[3]), Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    /**
+     * @param cursor the current position
+     * @return the predicate selecting the rows after the cursor
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Specification<T> after(Cursor cursor) {
+        return (root, query, cb) -> {
+            if (cursor.lastId() == null) {
+                return cb.conjunction();
+            }
+            boolean asc = cursor.direction().isAscending();
+            Path<Long> id = root.get(idProperty);
+            if (cursor.property().equals(idProperty)) {
+                return asc ? cb.greaterThan(id, cursor.lastId()) : cb.lessThan(id, cursor.lastId());
+            }
+            Path<Comparable> column = root.get(cursor.property());
+            Comparable value = cursor.lastValue();
+            return cb.or(
+                    asc ? cb.greaterThan(column, value) : cb.lessThan(column, value),
+                    cb.and(cb.equal(column, value),
+                            asc ? cb.greaterThan(id, cursor.lastId()) : cb.lessThan(id, cursor.lastId())));
+        };
+    }
+
+    /**
+     * @param cursor the current position
+     * @return the sort matching the seek predicate, with the id as tie-breaker
+     */
+    public Sort sort(Cursor cursor) {
+        Sort sort = Sort.by(cursor.direction(), cursor.property());
+        return cursor.property().equals(idProperty) ? sort : sort.and(Sort.by(cursor.direction(), idProperty));
+    }
+
+    /**
+     * Build the response page from rows fetched with a limit of {@code size + 1}.
+     *
+     * @param rows   the fetched rows, at most one more than the page size
+     * @param cursor the position the rows were read from
+     * @param size   the page size
+     * @param mapper maps each entity to its response
+     * @param <R>    the response type
+     * @return the {@link CursorPage}, whose next cursor is null on the last page
+     */
+    public <R> CursorPage<R> page(List<T> rows, Cursor cursor, int size, Function<T, R> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String next = null;
+        if (hasNext) {
+            T last = content.get(content.size() - 1);
+            Object value = columns.get(cursor.property()).getter().apply(last);
+            String raw = "%s|%s|%d|%s".formatted(cursor.property(), cursor.direction(), idGetter.apply(last), value);
+            next = ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        return new CursorPage<>(content.stream().map(mapper).toList(), size, next);
+    }
+
+    /**
+     * A position in a keyset-ordered result.
+     *
+     * @param property  the sort attribute
+     * @param direction the sort direction
+     * @param lastValue the sort value of the last row already returned, null on the first page
+     * @param lastId    the id of the last row already returned, null on the first page
+     */
+    public record Cursor(String property, Sort.Direction direction, Comparable<?> lastValue, Long lastId) {
+    }
+
+    private record Column<T>(Function<String, ? extends Comparable<?>> parser, Function<T, Object> getter) {
+    }
+}
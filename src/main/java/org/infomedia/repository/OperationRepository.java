@@ -1,8 +1,108 @@
 package org.infomedia.repository;
 
 import org.infomedia.model.Operation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface OperationRepository extends JpaRepository<Operation, Long>, JpaSpecificationExecutor<Operation> {
+import java.util.List;
+
+public interface OperationRepository extends JpaRepository<Operation, Long>, JpaSpecificationExecutor<Operation>,
+        OperationRepositoryCustom {
+
+    /**
+     * Find the operations of one brand/model/engine key whose ranges overlap the given
+     * year and distance bounds.
+     *
+     * @param makeId    the dictionary id of the brand
+     * @param modelId   the dictionary id of the model
+     * @param engineId  the dictionary id of the engine
+     * @param minYear   the lowest make year of interest
+     * @param maxYear   the highest make year of interest
+     * @param minKm     the lowest distance of interest in kilometers
+     * @param maxKm     the highest distance of interest in kilometers
+     * @return the candidate operations
+     */
+    @Query("""
+            select o from Operation o
+            where o.makeId = :makeId and o.modelId = :modelId and o.engineId = :engineId
+              and o.yearStart <= :maxYear and o.yearEnd >= :minYear
+              and o.distanceStart <= :maxKm and o.distanceEnd >= :minKm
+            """)
+    List<Operation> findCandidates(@Param("makeId") Integer makeId,
+                                   @Param("modelId") Integer modelId,
+                                   @Param("engineId") Integer engineId,
+                                   @Param("minYear") int minYear,
+                                   @Param("maxYear") int maxYear,
+                                   @Param("minKm") double minKm,
+                                   @Param("maxKm") double maxKm);
+
+    /**
+     * Read one page of the operations linked to a vehicle.
+     *
+     * @param vehicleId the vehicle id
+     * @param pageable  pagination and sorting information
+     * @return a page of the vehicle's operations
+     */
+    Page<Operation> findByVehicleId(Long vehicleId, Pageable pageable);
+
+    /**
+     * Read one page of the operations applicable to a registered vehicle at a given distance,
+     * joined through the materialized {@code vehicle_operation} mapping.
+     *
+     * @param vehicleId  the vehicle id
+     * @param distanceKm the vehicle's total distance in kilometers
+     * @param pageable   pagination and sorting information
+     * @return a page of applicable operations whose distance range contains the distance
+     */
+    @Query(value = """
+            select o from Operation o join VehicleOperation a on a.id.operationId = o.id
+            where a.id.vehicleId = :vehicleId and o.distanceStart <= :km and o.distanceEnd >= :km
+            """,
+            countQuery = """
+            select count(o) from Operation o join VehicleOperation a on a.id.operationId = o.id
+            where a.id.vehicleId = :vehicleId and o.distanceStart <= :km and o.distanceEnd >= :km
+            """)
+    Page<Operation> findApplicable(@Param("vehicleId") Long vehicleId,
+                                   @Param("km") double distanceKm,
+                                   Pageable pageable);
+
+    /**
+     * List the distance ranges of one brand/model/engine key.
+     *
+     * @param makeId   the dictionary id of the brand
+     * @param modelId  the dictionary id of the model
+     * @param engineId the dictionary id of the engine
+     * @return one {@code [distanceStart, distanceEnd]} pair per operation
+     */
+    @Query("""
+            select o.distanceStart, o.distanceEnd from Operation o
+            where o.makeId = :makeId and o.modelId = :modelId and o.engineId = :engineId
+            """)
+    List<Object[]> findDistanceRanges(@Param("makeId") Integer makeId,
+                                      @Param("modelId") Integer modelId,
+                                      @Param("engineId") Integer engineId);
+
+    /**
+     * Read the operations last changed within a range of change feed versions, oldest first.
+     *
+     * @param since  the exclusive lower bound
+     * @param upTo   the inclusive upper bound
+     * @param makeId the dictionary id of the brand, or null for every brand
+     * @param limit  the maximum number of operations
+     * @return the changed operations in version order
+     */
+    @Query("""
+            select o from Operation o
+            where o.version > :since and o.version <= :upTo and (:makeId is null or o.makeId = :makeId)
+            order by o.version
+            """)
+    List<Operation> findChanges(@Param("since") long since,
+                                @Param("upTo") long upTo,
+                                @Param("makeId") Integer makeId,
+                                Limit limit);
 }
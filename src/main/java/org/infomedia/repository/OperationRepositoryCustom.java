@@ -0,0 +1,44 @@
+package org.infomedia.repository;
+
+import org.infomedia.dto.SuggestionCostResponse;
+import org.infomedia.model.Operation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface OperationRepositoryCustom {
+
+    /**
+     * Read one page of operations without counting the total: one extra row is fetched to
+     * tell whether a next page exists.
+     *
+     * @param spec     the filter
+     * @param pageable pagination and sorting information
+     * @return a {@link Slice} of matching operations
+     */
+    Slice<Operation> findSlice(Specification<Operation> spec, Pageable pageable);
+
+    /**
+     * Stream operations from a forward-only cursor, detaching each one as it is read.
+     * Must be called inside a transaction and closed after use.
+     *
+     * @param spec the filter
+     * @param sort the order of the rows
+     * @return a stream of detached operations
+     */
+    Stream<Operation> stream(Specification<Operation> spec, Sort sort);
+
+    /**
+     * Count the matching operations and sum their cost and time in one aggregate query, grouped
+     * by operation name if asked; missing costs and times add nothing.
+     *
+     * @param spec   the filter
+     * @param byName whether to group by operation name
+     * @return one item per operation name in name order, or a single unnamed item with the totals
+     */
+    List<SuggestionCostResponse.Item> sumCosts(Specification<Operation> spec, boolean byName);
+}
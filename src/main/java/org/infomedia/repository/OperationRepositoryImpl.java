@@ -0,0 +1,97 @@
+package org.infomedia.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.infomedia.dto.SuggestionCostResponse;
+import org.infomedia.model.Operation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+class OperationRepositoryImpl implements OperationRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${export.fetch-size:500}")
+    private int fetchSize;
+
+    @Override
+    public Slice<Operation> findSlice(Specification<Operation> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Operation> query = cb.createQuery(Operation.class);
+        Root<Operation> root = query.from(Operation.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<Operation> typedQuery = entityManager.createQuery(query);
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(typedQuery.getResultList(), pageable, false);
+        }
+        typedQuery.setFirstResult((int) pageable.getOffset());
+        typedQuery.setMaxResults(pageable.getPageSize() + 1);
+        List<Operation> rows = typedQuery.getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    @Override
+    public Stream<Operation> stream(Specification<Operation> spec, Sort sort) {
+        return CursorStreams.stream(entityManager, Operation.class, spec, sort, fetchSize);
+    }
+
+    @Override
+    public List<SuggestionCostResponse.Item> sumCosts(Specification<Operation> spec, boolean byName) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Operation> root = query.from(Operation.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        Expression<Long> count = cb.count(root);
+        Expression<Double> cost = cb.sum(root.<Double>get("approxCost"));
+        Expression<Long> time = cb.sumAsLong(root.<Integer>get("time"));
+        if (byName) {
+            Path<String> name = root.get("name");
+            query.multiselect(name, count, cost, time).groupBy(name).orderBy(cb.asc(name));
+        } else {
+            query.multiselect(count, cost, time);
+        }
+
+        int first = byName ? 1 : 0;
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(row -> new SuggestionCostResponse.Item(
+                        byName ? row.get(0, String.class) : null,
+                        row.get(first, Long.class),
+                        orZero(row.get(first + 1, Double.class)),
+                        orZero(row.get(first + 2, Long.class))))
+                .toList();
+    }
+
+    private static double orZero(Double value) {
+        return value != null ? value : 0;
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,113 @@
+package org.infomedia.repository;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import org.infomedia.catalog.CatalogDictionary;
+import org.infomedia.dto.OperationSearchRequest;
+import org.infomedia.dto.SuggestionRequest;
+import org.infomedia.model.CatalogTerm.Kind;
+import org.infomedia.model.Operation;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Query filters over {@link Operation}, shared by the services, the export and the benchmarks.
+ * <p>
+ * Brand, model and engine are resolved through the {@link CatalogDictionary} when the filter is
+ * built, so the queries compare integer ids; a value missing from the dictionary matches nothing.
+ */
+public final class OperationSpecifications {
+
+    private OperationSpecifications() {
+    }
+
+    /**
+     * Filter of {@code /operations/search} and the operation export; null fields match everything.
+     *
+     * @param request    the search filter criteria
+     * @param dictionary resolves brand, model and engine to ids
+     * @return the {@link Specification} selecting operations whose ranges overlap the requested ones
+     */
+    public static Specification<Operation> search(OperationSearchRequest request, CatalogDictionary dictionary) {
+        Integer makeId = dictionary.find(Kind.MAKE, request.getBrand());
+        Integer modelId = dictionary.find(Kind.MODEL, request.getModel());
+        Integer engineId = dictionary.find(Kind.ENGINE, request.getEngine());
+        return (root, query, cb) -> {
+            Predicate predicate = cb.conjunction();
+
+            predicate = addIfNotNull(cb, predicate, makeId, id -> cb.equal(root.get("makeId"), id));
+
+            predicate = addIfNotNull(cb, predicate, modelId, id -> cb.equal(root.get("modelId"), id));
+
+            predicate = addIfNotNull(cb, predicate, engineId, id -> cb.equal(root.get("engineId"), id));
+
+            predicate = addIfNotNull(cb, predicate, request.getYearEnd(),
+                    yearEnd -> cb.greaterThanOrEqualTo(root.get("yearEnd"), yearEnd));
+
+            predicate = addIfNotNull(cb, predicate, request.getYearStart(),
+                    yearStart -> cb.lessThanOrEqualTo(root.get("yearStart"), yearStart));
+
+            predicate = addIfNotNull(cb, predicate, request.getDistanceStart(),
+                    distanceStart -> cb.greaterThanOrEqualTo(root.get("distanceEnd"), distanceStart));
+
+            predicate = addIfNotNull(cb, predicate, request.getDistanceEnd(),
+                    distanceEnd -> cb.lessThanOrEqualTo(root.get("distanceStart"), distanceEnd));
+
+            return predicate;
+        };
+    }
+
+    private static <T> Predicate addIfNotNull(
+            CriteriaBuilder cb,
+            Predicate base,
+            T value,
+            Function<T, Predicate> predicateSupplier) {
+
+        return value != null ? cb.and(base, predicateSupplier.apply(value)) : base;
+    }
+
+    /**
+     * Filter of the suggestion endpoint; null fields match everything.
+     *
+     * @param request    the suggestion filter criteria
+     * @param dictionary resolves brand, model and engine to ids
+     * @return the {@link Specification} selecting operations whose ranges contain the requested values
+     */
+    public static Specification<Operation> suggestion(SuggestionRequest request, CatalogDictionary dictionary) {
+        Integer makeId = dictionary.find(Kind.MAKE, request.getBrand());
+        Integer modelId = dictionary.find(Kind.MODEL, request.getModel());
+        Integer engineId = dictionary.find(Kind.ENGINE, request.getEngine());
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            addIfNotNull(makeId, () -> cb.equal(root.get("makeId"), makeId), predicates);
+            addIfNotNull(modelId, () -> cb.equal(root.get("modelId"), modelId), predicates);
+            addIfNotNull(engineId, () -> cb.equal(root.get("engineId"), engineId), predicates);
+
+            Integer year = request.getMakeYear();
+            if (year != null && year != SuggestionRequest.ANY_YEAR) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("yearStart"), year));
+                predicates.add(cb.greaterThanOrEqualTo(root.get("yearEnd"), year));
+            }
+
+            addIfNotNull(request.getTotalDistance(), () -> {
+                double distanceKm = request.totalDistanceKm();
+                return cb.and(
+                        cb.lessThanOrEqualTo(root.get("distanceStart"), distanceKm),
+                        cb.greaterThanOrEqualTo(root.get("distanceEnd"), distanceKm)
+                );
+            }, predicates);
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static <T> void addIfNotNull(T value, Supplier<Predicate> supplier, List<Predicate> predicates) {
+        if (value != null) {
+            predicates.add(supplier.get());
+        }
+    }
+}
@@ -1,7 +1,27 @@
 package org.infomedia.repository;
 
+import org.infomedia.dto.VehicleResponse;
 import org.infomedia.model.Vehicle;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
-public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
+public interface VehicleRepository extends JpaRepository<Vehicle, Long>, JpaSpecificationExecutor<Vehicle>,
+        VehicleRepositoryCustom {
+
+    /**
+     * Read one page of vehicles as flat DTOs in a single query, without loading entities or
+     * their operations.
+     *
+     * @param pageable pagination and sorting information
+     * @return a page of {@link VehicleResponse}
+     */
+    @Query(value = """
+            select new org.infomedia.dto.VehicleResponse(v.id, v.brand, v.model, v.engine, v.makeYear)
+            from Vehicle v
+            """,
+            countQuery = "select count(v) from Vehicle v")
+    Page<VehicleResponse> findAllResponses(Pageable pageable);
 }
@@ -0,0 +1,20 @@
+package org.infomedia.repository;
+
+import org.infomedia.model.Vehicle;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+public interface VehicleRepositoryCustom {
+
+    /**
+     * Stream vehicles from a forward-only cursor, detaching each one as it is read.
+     * Must be called inside a transaction and closed after use.
+     *
+     * @param spec the filter
+     * @param sort the order of the rows
+     * @return a stream of detached vehicles
+     */
+    Stream<Vehicle> stream(Specification<Vehicle> spec, Sort sort);
+}
@@ -0,0 +1,24 @@
+package org.infomedia.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.infomedia.model.Vehicle;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+class VehicleRepositoryImpl implements VehicleRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${export.fetch-size:500}")
+    private int fetchSize;
+
+    @Override
+    public Stream<Vehicle> stream(Specification<Vehicle> spec, Sort sort) {
+        return CursorStreams.stream(entityManager, Vehicle.class, spec, sort, fetchSize);
+    }
+}
@@ -0,0 +1,111 @@
+package org.infomedia.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.infomedia.event.OperationChangedEvent;
+import org.infomedia.event.OperationDeletedEvent;
+import org.infomedia.event.OperationsImportedEvent;
+import org.infomedia.event.VehicleChangedEvent;
+import org.infomedia.model.Operation;
+import org.infomedia.model.VehicleOperation;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the {@link VehicleOperation} applicability mapping.
+ * <p>
+ * Changes are applied incrementally in the transaction that made them, just before it
+ * commits, so the mapping never disagrees with committed vehicles and operations: a created
+ * vehicle gets its applicable operations, a created, updated or imported operation has its
+ * rows recomputed, a deleted operation has its rows removed. Rows written around JPA, such as
+ * {@code data.sql} or a generated catalog, are picked up by {@link #rebuild()}.
+ */
+@Service
+@RequiredArgsConstructor
+public class ApplicabilityService {
+
+    private static final String APPLICABLE = """
+            SELECT v.id, o.id FROM vehicle v
+            JOIN operation o ON o.make_id = v.make_id AND o.model_id = v.model_id AND o.engine_id = v.engine_id
+                            AND v.make_year BETWEEN o.year_start AND o.year_end
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final EntityManager entityManager;
+
+    /**
+     * Recompute the whole mapping.
+     *
+     * @return the number of vehicle/operation pairs
+     */
+    @Transactional
+    public int rebuild() {
+        entityManager.flush();
+        jdbcTemplate.getJdbcTemplate().update("DELETE FROM vehicle_operation");
+        return jdbcTemplate.getJdbcTemplate().update("INSERT INTO vehicle_operation (vehicle_id, operation_id) "
+                + APPLICABLE);
+    }
+
+    /**
+     * Map a created vehicle to its operations.
+     *
+     * @param event the {@link VehicleChangedEvent}
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onVehicleChanged(VehicleChangedEvent event) {
+        entityManager.flush();
+        Map<String, Object> id = Map.of("id", event.vehicle().getId());
+        jdbcTemplate.update("DELETE FROM vehicle_operation WHERE vehicle_id = :id", id);
+        jdbcTemplate.update("INSERT INTO vehicle_operation (vehicle_id, operation_id) " + APPLICABLE
+                + " WHERE v.id = :id", id);
+    }
+
+    /**
+     * Recompute the vehicles of a created or updated operation.
+     *
+     * @param event the {@link OperationChangedEvent}
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOperationChanged(OperationChangedEvent event) {
+        refresh(List.of(event.operation().getId()));
+    }
+
+    /**
+     * Map the operations of an imported batch to their vehicles.
+     *
+     * @param event the {@link OperationsImportedEvent}
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOperationsImported(OperationsImportedEvent event) {
+        refresh(event.operations().stream().map(Operation::getId).toList());
+    }
+
+    /**
+     * Unmap a deleted operation.
+     *
+     * @param event the {@link OperationDeletedEvent}
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOperationDeleted(OperationDeletedEvent event) {
+        jdbcTemplate.update("DELETE FROM vehicle_operation WHERE operation_id = :id",
+                Map.of("id", event.operation().getId()));
+    }
+
+    private void refresh(List<Long> operationIds) {
+        if (operationIds.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        Map<String, Object> ids = Map.of("ids", operationIds);
+        jdbcTemplate.update("DELETE FROM vehicle_operation WHERE operation_id IN (:ids)", ids);
+        jdbcTemplate.update("INSERT INTO vehicle_operation (vehicle_id, operation_id) " + APPLICABLE
+                + " WHERE o.id IN (:ids)", ids);
+    }
+}
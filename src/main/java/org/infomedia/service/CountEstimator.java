@@ -0,0 +1,123 @@
+package org.infomedia.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.infomedia.dto.EstimatedPage;
+import org.infomedia.event.OperationChangedEvent;
+import org.infomedia.event.OperationDeletedEvent;
+import org.infomedia.event.OperationsImportedEvent;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches row counts per filter so that paginated endpoints can report an approximate total
+ * without running a COUNT query on every request.
+ * <p>
+ * A miss never waits for the count: it is started on the task executor, and until it completes
+ * requests for the filter get an {@link EstimatedPage} whose total is what the page itself proves
+ * to exist. Entries expire after a short time and are dropped whenever the operation catalog
+ * changes, together with counts still running, so an estimate is at most one TTL old.
+ */
+@Component
+public class CountEstimator {
+
+    private final AsyncCache<Object, Long> counts;
+
+    public CountEstimator(@Qualifier("applicationTaskExecutor") Executor executor,
+                          @Value("${search.count-estimate.ttl:60s}") Duration ttl,
+                          @Value("${search.count-estimate.max-size:10000}") long maxSize) {
+        this.counts = Caffeine.newBuilder()
+                .executor(executor)
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .buildAsync();
+    }
+
+    /**
+     * Return the cached count for a filter, starting the count in the background on a miss.
+     *
+     * @param filter  a value identifying the filter, with equals/hashCode
+     * @param counter runs the exact count
+     * @return the cached count, or empty while it is being computed or if it failed
+     */
+    public OptionalLong estimate(Object filter, LongSupplier counter) {
+        CompletableFuture<Long> count = counts.get(filter, (key, executor) ->
+                CompletableFuture.supplyAsync(counter::getAsLong, executor));
+        return count.isDone() && !count.isCompletedExceptionally()
+                ? OptionalLong.of(count.join())
+                : OptionalLong.empty();
+    }
+
+    /**
+     * Turn a slice into a page whose total is the cached estimate for its filter. The total is
+     * never reported below what the slice itself proves to exist, which is all that is reported,
+     * in an {@link EstimatedPage}, until the count is known.
+     *
+     * @param slice   the slice read without counting
+     * @param filter  a value identifying the filter, with equals/hashCode
+     * @param counter runs the exact count on a cache miss
+     * @param <T>     the content type
+     * @return a {@link Page} with an estimated total
+     */
+    public <T> Page<T> page(Slice<T> slice, Object filter, LongSupplier counter) {
+        long seen = slice.getPageable().isPaged() ? slice.getPageable().getOffset() : 0;
+        seen += slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+        OptionalLong count = estimate(filter, counter);
+        if (count.isEmpty()) {
+            return new EstimatedPage<>(slice.getContent(), slice.getPageable(), seen);
+        }
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), Math.max(count.getAsLong(), seen));
+    }
+
+    /**
+     * Whether a result is an {@link EstimatedPage}, whose total changes once its count completes
+     * and which should therefore not be cached.
+     *
+     * @param result a result of {@link #page}
+     * @return {@code true} if the count was still running
+     */
+    public static boolean isPending(Slice<?> result) {
+        return result instanceof EstimatedPage;
+    }
+
+    /**
+     * Drop every cached count after a committed catalog change.
+     *
+     * @param event the {@link OperationChangedEvent}
+     */
+    @TransactionalEventListener
+    public void onOperationChanged(OperationChangedEvent event) {
+        counts.synchronous().invalidateAll();
+    }
+
+    /**
+     * Drop every cached count after a committed bulk import batch.
+     *
+     * @param event the {@link OperationsImportedEvent}
+     */
+    @TransactionalEventListener
+    public void onOperationsImported(OperationsImportedEvent event) {
+        counts.synchronous().invalidateAll();
+    }
+
+    /**
+     * Drop every cached count after a committed deletion.
+     *
+     * @param event the {@link OperationDeletedEvent}
+     */
+    @TransactionalEventListener
+    public void onOperationDeleted(OperationDeletedEvent event) {
+        counts.synchronous().invalidateAll();
+    }
+}
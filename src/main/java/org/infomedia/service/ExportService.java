@@ -0,0 +1,148 @@
+package org.infomedia.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import lombok.RequiredArgsConstructor;
+import org.infomedia.catalog.CatalogDictionary;
+import org.infomedia.dto.ExportFormat;
+import org.infomedia.dto.OperationResponse;
+import org.infomedia.dto.OperationSearchRequest;
+import org.infomedia.dto.VehicleResponse;
+import org.infomedia.model.CatalogTerm.Kind;
+import org.infomedia.model.Operation;
+import org.infomedia.model.Vehicle;
+import org.infomedia.repository.OperationRepository;
+import org.infomedia.repository.OperationSpecifications;
+import org.infomedia.repository.VehicleRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.zip.GZIPOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Streams the catalog out as NDJSON or CSV.
+ * <p>
+ * Rows come from a forward-only database cursor in id order and are written to the output as
+ * they are read, each entity being detached right away, so neither the persistence context
+ * nor the response buffer grows with the size of the export.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    private static final Sort BY_ID = Sort.by("id");
+
+    private final OperationRepository operationRepository;
+
+    private final VehicleRepository vehicleRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final CatalogDictionary catalogDictionary;
+
+    private final CsvMapper csvMapper = CsvMapper.builder()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .build();
+
+    /**
+     * Write the operations matching the search filters.
+     *
+     * @param request the search filter criteria, the same as for {@code /operations/search}
+     * @param format  the output format
+     * @param gzip    whether to gzip the output
+     * @param out     the response stream; it is not closed
+     * @throws IOException if writing fails, typically because the client went away
+     */
+    @Transactional(readOnly = true)
+    public void exportOperations(OperationSearchRequest request, ExportFormat format, boolean gzip,
+                                 OutputStream out) throws IOException {
+        Specification<Operation> spec = OperationSpecifications.search(request, catalogDictionary);
+        try (Stream<Operation> rows = operationRepository.stream(spec, BY_ID)) {
+            write(rows.map(OperationResponse::toResponse), OperationResponse.class, format, gzip, out);
+        }
+    }
+
+    /**
+     * Write the vehicles matching the given filters; null filters match everything.
+     *
+     * @param brand    the brand, matched case-insensitively
+     * @param model    the model, matched case-insensitively
+     * @param engine   the engine, matched case-insensitively
+     * @param makeYear the make year
+     * @param format   the output format
+     * @param gzip     whether to gzip the output
+     * @param out      the response stream; it is not closed
+     * @throws IOException if writing fails, typically because the client went away
+     */
+    @Transactional(readOnly = true)
+    public void exportVehicles(String brand, String model, String engine, Integer makeYear,
+                               ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        Integer makeId = catalogDictionary.find(Kind.MAKE, brand);
+        Integer modelId = catalogDictionary.find(Kind.MODEL, model);
+        Integer engineId = catalogDictionary.find(Kind.ENGINE, engine);
+        Specification<Vehicle> spec = (root, query, cb) -> cb.and(
+                makeId == null ? cb.conjunction() : cb.equal(root.get("makeId"), makeId),
+                modelId == null ? cb.conjunction() : cb.equal(root.get("modelId"), modelId),
+                engineId == null ? cb.conjunction() : cb.equal(root.get("engineId"), engineId),
+                makeYear == null ? cb.conjunction() : cb.equal(root.get("makeYear"), makeYear));
+        try (Stream<Vehicle> rows = vehicleRepository.stream(spec, BY_ID)) {
+            write(rows.map(VehicleResponse::toResponse), VehicleResponse.class, format, gzip, out);
+        }
+    }
+
+    /**
+     * @param acceptEncoding the {@code Accept-Encoding} request header, may be null
+     * @return {@code true} if the client accepts a gzip-encoded response
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";\\s*q=");
+            if (parts[0].trim().equalsIgnoreCase("gzip")
+                    && (parts.length == 1 || !parts[1].trim().matches("0(\\.0*)?"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private <R> void write(Stream<R> rows, Class<R> type, ExportFormat format, boolean gzip, OutputStream out)
+            throws IOException {
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, 8192) : null;
+        OutputStream target = gzip ? compressed : out;
+        ObjectWriter writer = format == ExportFormat.CSV
+                ? csvMapper.writer(csvMapper.schemaFor(type).withHeader())
+                : objectMapper.writerFor(type)
+                        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                        .withRootValueSeparator("\n");
+        boolean empty = true;
+        try (SequenceWriter sequence = writer.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .writeValues(target)) {
+            for (Iterator<R> iterator = rows.iterator(); iterator.hasNext(); ) {
+                sequence.write(iterator.next());
+                empty = false;
+            }
+        }
+        if (format == ExportFormat.NDJSON && !empty) {
+            target.write('\n');
+        }
+        if (compressed != null) {
+            compressed.finish();
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,254 @@
+package org.infomedia.service;
+
+import org.infomedia.catalog.CatalogDictionary;
+import org.infomedia.dto.OperationChange;
+import org.infomedia.dto.OperationChangeFeed;
+import org.infomedia.exception.BadRequestException;
+import org.infomedia.model.CatalogTerm.Kind;
+import org.infomedia.model.CatalogVersion;
+import org.infomedia.model.Operation;
+import org.infomedia.model.OperationTombstone;
+import org.infomedia.repository.OperationRepository;
+import org.springframework.core.Ordered;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions operation changes for the delta sync feed.
+ * <p>
+ * Every create, update, import and delete takes the next versions from the {@link CatalogVersion}
+ * row, in the writing transaction: the row stays locked until that transaction ends, so versions
+ * are committed in increasing order and a reader that has seen version {@code N} committed has
+ * seen every change up to {@code N}. Created and updated operations carry their version;
+ * deleted operations, and operations that moved to another brand, leave an
+ * {@link OperationTombstone} behind so that clients syncing one brand learn about them too.
+ * <p>
+ * The highest committed version is also kept in memory, for HTTP validators that must not touch
+ * the database. It advances after the after-commit listeners of the writing transaction, so the
+ * in-memory indexes and caches already reflect a version once it is visible here.
+ */
+@Service
+public class OperationChangeLog {
+
+    private static final String SEED = """
+            INSERT INTO catalog_version (id, version)
+            SELECT 1, 0 WHERE NOT EXISTS (SELECT 1 FROM catalog_version WHERE id = 1)""";
+
+    private static final String ALLOCATE = "UPDATE catalog_version SET version = version + ? WHERE id = 1";
+
+    private static final String CURRENT = "SELECT version FROM catalog_version WHERE id = 1";
+
+    private static final String TOMBSTONE =
+            "INSERT INTO operation_tombstone (operation_id, make_id, version) VALUES (?, ?, ?)";
+
+    private static final String TOMBSTONES = """
+            SELECT operation_id, version FROM operation_tombstone
+            WHERE version > ? AND version <= ? %s
+            ORDER BY version LIMIT ?""";
+
+    private static final String PENDING = """
+            SELECT COUNT(*) FROM (SELECT id FROM operation WHERE version IS NULL LIMIT ?) p""";
+
+    private static final String BACKFILL = """
+            MERGE INTO operation o
+            USING (SELECT id, ROW_NUMBER() OVER (ORDER BY id) AS n
+                   FROM (SELECT id FROM operation WHERE version IS NULL ORDER BY id LIMIT ?) p) s
+            ON o.id = s.id
+            WHEN MATCHED THEN UPDATE SET version = ? + s.n""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final OperationRepository operationRepository;
+
+    private final CatalogDictionary catalogDictionary;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong committed;
+
+    public OperationChangeLog(JdbcTemplate jdbcTemplate,
+                              OperationRepository operationRepository,
+                              CatalogDictionary catalogDictionary,
+                              PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.operationRepository = operationRepository;
+        this.catalogDictionary = catalogDictionary;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        jdbcTemplate.update(SEED);
+        this.committed = new AtomicLong(current());
+    }
+
+    /**
+     * @return the highest version committed by this instance or found at startup
+     */
+    public long committedVersion() {
+        return committed.get();
+    }
+
+    /**
+     * Version a created or updated operation before it is saved.
+     *
+     * @param operation      the operation, already encoded
+     * @param previousMakeId the brand id before an update, or null for a created operation
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(Operation operation, Integer previousMakeId) {
+        boolean moved = previousMakeId != null && !Objects.equals(previousMakeId, operation.getMakeId());
+        long version = allocate(moved ? 2 : 1);
+        if (moved) {
+            jdbcTemplate.update(TOMBSTONE, operation.getId(), previousMakeId, version - 1);
+        }
+        operation.setVersion(version);
+    }
+
+    /**
+     * Version a batch of created operations before they are saved.
+     *
+     * @param operations the operations, in the order their versions should follow
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanges(List<Operation> operations) {
+        long version = allocate(operations.size()) - operations.size();
+        for (Operation operation : operations) {
+            operation.setVersion(++version);
+        }
+    }
+
+    /**
+     * Leave a tombstone for a deleted operation.
+     *
+     * @param operation the deleted operation
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletion(Operation operation) {
+        jdbcTemplate.update(TOMBSTONE, operation.getId(), operation.getMakeId(), allocate(1));
+    }
+
+    /**
+     * Read the changes committed after a version, oldest first. Only changes up to the catalog
+     * version read at the start are returned, so changes committed meanwhile are left for the
+     * next call instead of being skipped.
+     *
+     * @param since the version the client has synced up to, 0 for a full sync
+     * @param brand the brand to sync, matched case-insensitively, or null for every brand; a brand
+     *              the catalog has never seen has no changes
+     * @param limit the maximum number of changes
+     * @return the {@link OperationChangeFeed}
+     * @throws BadRequestException if {@code since} is ahead of the catalog, e.g. after the catalog was recreated
+     */
+    @Transactional(readOnly = true)
+    public OperationChangeFeed changes(long since, String brand, int limit) {
+        long upTo = current();
+        if (since > upTo) {
+            throw new BadRequestException(
+                    "Version %d is ahead of the catalog version %d; sync again from 0".formatted(since, upTo));
+        }
+        Integer makeId = brand == null ? null : catalogDictionary.find(Kind.MAKE, brand);
+        if (makeId != null && makeId == CatalogDictionary.UNKNOWN) {
+            return new OperationChangeFeed(List.of(), upTo, false);
+        }
+        List<OperationChange> changes = new ArrayList<>();
+        operationRepository.findChanges(since, upTo, makeId, Limit.of(limit + 1))
+                .forEach(operation -> changes.add(OperationChange.upsert(operation)));
+        if (makeId == null) {
+            jdbcTemplate.query(TOMBSTONES.formatted(""), rs -> {
+                changes.add(OperationChange.tombstone(rs.getLong(1), rs.getLong(2)));
+            }, since, upTo, limit + 1);
+        } else {
+            jdbcTemplate.query(TOMBSTONES.formatted("AND make_id = ?"), rs -> {
+                changes.add(OperationChange.tombstone(rs.getLong(1), rs.getLong(2)));
+            }, since, upTo, makeId, limit + 1);
+        }
+        changes.sort(Comparator.comparingLong(OperationChange::getVersion));
+        if (changes.size() > limit) {
+            List<OperationChange> page = List.copyOf(changes.subList(0, limit));
+            return new OperationChangeFeed(page, page.get(limit - 1).getVersion(), true);
+        }
+        return new OperationChangeFeed(changes, upTo, false);
+    }
+
+    /**
+     * Version the operations written around JPA, such as {@code data.sql} or a generated
+     * catalog, in id order and in chunks so a large catalog is not rewritten in one transaction.
+     * The in-memory committed version is brought up to the table's as well, which a catalog
+     * snapshot may have set.
+     *
+     * @param chunkSize the number of operations per transaction
+     * @return the number of operations versioned
+     */
+    public int backfill(int chunkSize) {
+        int total = 0;
+        int updated;
+        do {
+            updated = Objects.requireNonNull(transactionTemplate.execute(status -> {
+                Integer pending = jdbcTemplate.queryForObject(PENDING, Integer.class, chunkSize);
+                if (pending == null || pending == 0) {
+                    return 0;
+                }
+                return jdbcTemplate.update(BACKFILL, chunkSize, allocate(pending) - pending);
+            }));
+            total += updated;
+        } while (updated == chunkSize);
+        committed.accumulateAndGet(current(), Math::max);
+        return total;
+    }
+
+    /**
+     * Take the next {@code count} versions, locking the version row until the transaction ends.
+     *
+     * @return the last of the allocated versions
+     */
+    private long allocate(int count) {
+        jdbcTemplate.update(ALLOCATE, count);
+        long version = current();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new Publication(version));
+        } else {
+            committed.accumulateAndGet(version, Math::max);
+        }
+        return version;
+    }
+
+    private long current() {
+        Long version = jdbcTemplate.queryForObject(CURRENT, Long.class);
+        return version == null ? 0 : version;
+    }
+
+    /**
+     * Publishes an allocated version once its transaction has committed. It runs last, after the
+     * {@code @TransactionalEventListener}s, whose order defaults to 0.
+     */
+    private final class Publication implements TransactionSynchronization {
+
+        private final long version;
+
+        Publication(long version) {
+            this.version = version;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED) {
+                committed.accumulateAndGet(version, Math::max);
+            }
+        }
+    }
+}
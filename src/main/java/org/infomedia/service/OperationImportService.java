@@ -0,0 +1,263 @@
+package org.infomedia.service;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.infomedia.catalog.CatalogDictionary;
+import org.infomedia.dto.OperationImportResponse;
+import org.infomedia.dto.OperationRequest;
+import org.infomedia.event.OperationsImportedEvent;
+import org.infomedia.exception.BadRequestException;
+import org.infomedia.model.Operation;
+import org.infomedia.repository.OperationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streams operations from CSV or NDJSON into the catalog.
+ * <p>
+ * The body is read one record at a time; every row is validated against the
+ * {@link OperationRequest} and {@link Operation} constraints, and valid rows are inserted in batches of
+ * {@code operation.import.batch-size}, each in its own transaction that is flushed as JDBC
+ * batches and then cleared. Memory use is bounded by the batch size and the number of
+ * reported errors, not by the size of the upload. Invalid rows are reported with the line, and
+ * for unparseable values the column, where the parser found them, and skipped. A failed batch is
+ * retried in halves down to single rows, so only the rows that fail by themselves are rejected;
+ * batches committed before a failure stay committed.
+ */
+@Service
+public class OperationImportService {
+
+    private final OperationRepository operationRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogDictionary catalogDictionary;
+    private final OperationChangeLog operationChangeLog;
+    private final Validator validator;
+    private final ObjectReader jsonReader;
+    private final CsvMapper csvMapper;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public OperationImportService(OperationRepository operationRepository,
+                                  EntityManager entityManager,
+                                  PlatformTransactionManager transactionManager,
+                                  ApplicationEventPublisher eventPublisher,
+                                  CatalogDictionary catalogDictionary,
+                                  OperationChangeLog operationChangeLog,
+                                  Validator validator,
+                                  ObjectMapper objectMapper,
+                                  @Value("${operation.import.batch-size:1000}") int batchSize,
+                                  @Value("${operation.import.max-errors:100}") int maxErrors) {
+        this.operationRepository = operationRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.catalogDictionary = catalogDictionary;
+        this.operationChangeLog = operationChangeLog;
+        this.validator = validator;
+        this.jsonReader = objectMapper.readerFor(OperationRequest.class);
+        this.csvMapper = CsvMapper.builder()
+                .enable(CsvParser.Feature.TRIM_SPACES)
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+                .build();
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Import operations from CSV whose first line names the {@link OperationRequest} fields.
+     * Quoted fields may span lines.
+     *
+     * @param body the CSV stream
+     * @return the {@link OperationImportResponse} with the imported and rejected counts
+     * @throws IOException         if the body cannot be read
+     * @throws BadRequestException if the header names an unknown column
+     */
+    public OperationImportResponse importCsv(InputStream body) throws IOException {
+        Run run = new Run();
+        try (MappingIterator<OperationRequest> rows = csvMapper.readerFor(OperationRequest.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .readValues(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            // the header is read with the first record
+            boolean more = hasNext(rows, run);
+            checkColumns(((CsvParser) rows.getParser()).getSchema());
+            while (more) {
+                long line = rows.getParser().currentLocation().getLineNr();
+                try {
+                    run.add(line, rows.nextValue());
+                } catch (JsonProcessingException ex) {
+                    run.reject(ex, ex.getLocation() == null ? line : ex.getLocation().getLineNr());
+                }
+                more = hasNext(rows, run);
+            }
+        }
+        run.flush();
+        return run.response();
+    }
+
+    /**
+     * Import operations from newline-delimited JSON, one {@link OperationRequest} per line.
+     *
+     * @param body the NDJSON stream
+     * @return the {@link OperationImportResponse} with the imported and rejected counts
+     * @throws IOException if the body cannot be read
+     */
+    public OperationImportResponse importNdjson(InputStream body) throws IOException {
+        Run run = new Run();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    run.add(lineNumber, jsonReader.readValue(line));
+                } catch (JsonProcessingException ex) {
+                    run.reject(ex, lineNumber);
+                }
+            }
+        }
+        run.flush();
+        return run.response();
+    }
+
+    /**
+     * A record the CSV parser cannot recover from ends the import; the rows before it are kept.
+     */
+    private static boolean hasNext(MappingIterator<OperationRequest> rows, Run run) throws IOException {
+        try {
+            return rows.hasNextValue();
+        } catch (JsonProcessingException ex) {
+            run.reject(ex, ex.getLocation() == null ? 0 : ex.getLocation().getLineNr());
+            return false;
+        }
+    }
+
+    private void checkColumns(CsvSchema header) {
+        CsvSchema known = csvMapper.schemaFor(OperationRequest.class);
+        for (CsvSchema.Column column : header) {
+            if (known.column(column.getName()) == null) {
+                throw new BadRequestException("Unknown CSV column '%s'".formatted(column.getName()));
+            }
+        }
+    }
+
+    /**
+     * State of one import: the pending batch and the running totals.
+     */
+    private class Run {
+        private final List<Operation> batch = new ArrayList<>();
+        private final List<Long> batchLines = new ArrayList<>();
+        private final List<OperationImportResponse.RowError> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        void add(long lineNumber, OperationRequest request) {
+            Operation operation = OperationRequest.toEntity(request);
+            String violations = Stream.concat(validator.validate(request).stream(), validator.validate(operation).stream())
+                    .map(OperationImportService::describe)
+                    .distinct()
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            if (!violations.isEmpty()) {
+                reject(lineNumber, null, violations);
+                return;
+            }
+            catalogDictionary.encode(operation);
+            batch.add(operation);
+            batchLines.add(lineNumber);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            insert(batch, batchLines);
+            batch.clear();
+            batchLines.clear();
+        }
+
+        /**
+         * Insert rows in one transaction. When it fails, each half is retried on its own, so
+         * only the rows that fail by themselves are rejected and the rest are imported.
+         */
+        private void insert(List<Operation> operations, List<Long> lines) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    operationChangeLog.recordChanges(operations);
+                    operationRepository.saveAll(operations);
+                    entityManager.flush();
+                    entityManager.clear();
+                    eventPublisher.publishEvent(new OperationsImportedEvent(List.copyOf(operations)));
+                });
+                imported += operations.size();
+            } catch (DataAccessException | PersistenceException | TransactionException ex) {
+                // ids assigned in the rolled back transaction were never stored
+                operations.forEach(operation -> operation.setId(null));
+                if (operations.size() == 1) {
+                    reject(lines.get(0), null,
+                            "Insert failed: " + NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+                    return;
+                }
+                int half = operations.size() / 2;
+                insert(operations.subList(0, half), lines.subList(0, half));
+                insert(operations.subList(half, operations.size()), lines.subList(half, lines.size()));
+            }
+        }
+
+        void reject(JsonProcessingException ex, long lineNumber) {
+            JsonLocation location = ex.getLocation();
+            Integer column = location == null || location.getColumnNr() < 0 ? null : location.getColumnNr();
+            reject(lineNumber, column, ex.getOriginalMessage());
+        }
+
+        private void reject(long lineNumber, Integer column, String error) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new OperationImportResponse.RowError(lineNumber, column, error));
+            }
+        }
+
+        OperationImportResponse response() {
+            return new OperationImportResponse(imported, rejected, errors);
+        }
+    }
+
+    private static String describe(ConstraintViolation<?> violation) {
+        String path = violation.getPropertyPath().toString();
+        return path.isEmpty() ? violation.getMessage() : path + ": " + violation.getMessage();
+    }
+}
@@ -1,31 +1,70 @@
 package org.infomedia.service;
 
-import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.Predicate;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.aop.MeterTag;
 import lombok.RequiredArgsConstructor;
+import org.infomedia.catalog.CatalogDictionary;
+import org.infomedia.dto.CountMode;
+import org.infomedia.dto.CursorPage;
 import org.infomedia.dto.OperationRequest;
 import org.infomedia.dto.OperationResponse;
 import org.infomedia.dto.OperationSearchRequest;
+import org.infomedia.event.OperationChangedEvent;
+import org.infomedia.event.OperationDeletedEvent;
+import org.infomedia.exception.BadRequestException;
 import org.infomedia.exception.ResourceNotFoundException;
+import org.infomedia.index.OperationTextIndex;
+import org.infomedia.metrics.SearchFiltersTagResolver;
+import org.infomedia.model.CatalogTerm.Kind;
 import org.infomedia.model.Operation;
+import org.infomedia.model.OperationKey;
+import org.infomedia.repository.Keyset;
 import org.infomedia.repository.OperationRepository;
-import org.modelmapper.ModelMapper;
+import org.infomedia.repository.OperationSpecifications;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OperationService {
 
-    private final ModelMapper modelMapper;
+    private static final int DEFAULT_SEEK_SIZE = 20;
+
+    private static final Keyset<Operation> KEYSET = Keyset.of("id", Operation::getId)
+            .sortable("name", Function.identity(), Operation::getName)
+            .sortable("yearStart", Integer::valueOf, Operation::getYearStart)
+            .sortable("yearEnd", Integer::valueOf, Operation::getYearEnd)
+            .sortable("distanceStart", Double::valueOf, Operation::getDistanceStart)
+            .sortable("distanceEnd", Double::valueOf, Operation::getDistanceEnd)
+            .sortable("approxCost", Double::valueOf, Operation::getApproxCost)
+            .sortable("time", Integer::valueOf, Operation::getTime);
 
     private final OperationRepository operationRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final CountEstimator countEstimator;
+
+    private final CatalogDictionary catalogDictionary;
+
+    private final OperationTextIndex operationTextIndex;
+
+    private final OperationChangeLog operationChangeLog;
+
     /**
      * Create a new operation.
      *
@@ -33,9 +72,13 @@ public class OperationService {
      * @return the created {@link OperationResponse}
      */
     @Transactional
+    @Timed(value = "operation.create", histogram = true)
     public OperationResponse create(OperationRequest request) {
         Operation operation = OperationRequest.toEntity(request);
+        catalogDictionary.encode(operation);
+        operationChangeLog.recordChange(operation, null);
         Operation saved = operationRepository.save(operation);
+        eventPublisher.publishEvent(new OperationChangedEvent(saved, null));
         return OperationResponse.toResponse(saved);
     }
 
@@ -48,60 +91,131 @@ public class OperationService {
      * @throws ResourceNotFoundException if the operation is not found
      */
     @Transactional
+    @Timed(value = "operation.update", histogram = true)
     public OperationResponse update(Long id, OperationRequest request) {
         Operation operation = operationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Operation %d not found".formatted(id)));
-        modelMapper.map(request, operation);
+        OperationKey previousKey = OperationKey.of(operation);
+        Integer previousMakeId = operation.getMakeId();
+        request.applyTo(operation);
+        catalogDictionary.encode(operation);
+        operationChangeLog.recordChange(operation, previousMakeId);
         operationRepository.save(operation);
+        eventPublisher.publishEvent(new OperationChangedEvent(operation, previousKey));
         return OperationResponse.toResponse(operation);
     }
 
     /**
-     * Search for operations based on filter criteria.
+     * Delete an operation, leaving a tombstone in the change feed.
+     *
+     * @param id the ID of the operation
+     * @throws ResourceNotFoundException if the operation is not found
+     */
+    @Transactional
+    @Timed(value = "operation.delete", histogram = true)
+    public void delete(Long id) {
+        Operation operation = operationRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Operation %d not found".formatted(id)));
+        operationRepository.delete(operation);
+        operationChangeLog.recordDeletion(operation);
+        eventPublisher.publishEvent(new OperationDeletedEvent(operation));
+    }
+
+    /**
+     * Search for operations based on filter criteria. With a {@code text} filter the operations
+     * are found in the {@link OperationTextIndex} and ordered by relevance, ignoring the sort.
      *
      * @param request the search filter request
      * @param pageable pagination and sorting information
      * @return a paginated list of {@link OperationResponse}
      */
     @Transactional(readOnly = true)
-    public Page<OperationResponse> search(OperationSearchRequest request, Pageable pageable) {
-        Specification<Operation> spec = (root, query, cb) -> {
-            Predicate predicate = cb.conjunction();
-
-            predicate = addIfNotNull(cb, predicate, request.getBrand(),
-                    brand -> cb.equal(cb.lower(root.get("brand")), brand.toLowerCase()));
-
-            predicate = addIfNotNull(cb, predicate, request.getModel(),
-                    model -> cb.equal(cb.lower(root.get("model")), model.toLowerCase()));
-
-            predicate = addIfNotNull(cb, predicate, request.getEngine(),
-                    engine -> cb.equal(cb.lower(root.get("engine")), engine.toLowerCase()));
-
-            predicate = addIfNotNull(cb, predicate, request.getYearEnd(),
-                    yearEnd -> cb.greaterThanOrEqualTo(root.get("yearEnd"), yearEnd));
-
-            predicate = addIfNotNull(cb, predicate, request.getYearStart(),
-                    yearStart -> cb.lessThanOrEqualTo(root.get("yearStart"), yearStart));
-
-            predicate = addIfNotNull(cb, predicate, request.getDistanceStart(),
-                    distanceStart -> cb.greaterThanOrEqualTo(root.get("distanceEnd"), distanceStart));
-
-            predicate = addIfNotNull(cb, predicate, request.getDistanceEnd(),
-                    distanceEnd -> cb.lessThanOrEqualTo(root.get("distanceStart"), distanceEnd));
-
-            return predicate;
-        };
+    @Timed(value = "operation.search", histogram = true)
+    public Page<OperationResponse> search(
+            @MeterTag(key = "filters", resolver = SearchFiltersTagResolver.class) OperationSearchRequest request,
+            Pageable pageable) {
+        if (StringUtils.hasText(request.getText())) {
+            return searchText(request, pageable);
+        }
+        return operationRepository.findAll(OperationSpecifications.search(request, catalogDictionary), pageable)
+                .map(OperationResponse::toResponse);
+    }
 
-        return operationRepository.findAll(spec, pageable)
+    /**
+     * Search for operations, choosing how the total is computed.
+     *
+     * @param request the search filter request
+     * @param pageable pagination and sorting information
+     * @param count {@link CountMode#EXACT} for a counted page, {@link CountMode#NONE} for a slice
+     *              without total, {@link CountMode#ESTIMATE} for a page with a cached total; a
+     *              text search always returns a counted page, its total being known anyway
+     * @return a {@link Slice} (a {@link Page} unless the count is skipped) of {@link OperationResponse}
+     */
+    @Transactional(readOnly = true)
+    @Timed(value = "operation.search", histogram = true)
+    public Slice<OperationResponse> search(
+            @MeterTag(key = "filters", resolver = SearchFiltersTagResolver.class) OperationSearchRequest request,
+            Pageable pageable, CountMode count) {
+        if (count == CountMode.EXACT || StringUtils.hasText(request.getText())) {
+            return search(request, pageable);
+        }
+        Specification<Operation> spec = OperationSpecifications.search(request, catalogDictionary);
+        Slice<OperationResponse> slice = operationRepository.findSlice(spec, pageable)
                 .map(OperationResponse::toResponse);
+        if (count == CountMode.NONE) {
+            return slice;
+        }
+        List<Object> filter = Arrays.asList("search",
+                OperationKey.normalize(request.getBrand()),
+                OperationKey.normalize(request.getModel()),
+                OperationKey.normalize(request.getEngine()),
+                request.getYearStart(), request.getYearEnd(),
+                request.getDistanceStart(), request.getDistanceEnd());
+        return countEstimator.page(slice, filter, () -> operationRepository.count(spec));
     }
 
-    private <T> Predicate addIfNotNull(
-            CriteriaBuilder cb,
-            Predicate base,
-            T value,
-            Function<T, Predicate> predicateSupplier) {
+    /**
+     * Search for operations with keyset pagination: the next page is read by seeking past the
+     * last returned row instead of skipping an offset, and no count query is run.
+     *
+     * @param request  the search filter request
+     * @param cursor   the cursor returned with the previous page, or blank for the first page
+     * @param pageable the page size and, on the first page, the sort order
+     * @return a {@link CursorPage} of {@link OperationResponse}
+     * @throws BadRequestException if the request has a {@code text} filter
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<OperationResponse> seek(OperationSearchRequest request, String cursor, Pageable pageable) {
+        if (StringUtils.hasText(request.getText())) {
+            throw new BadRequestException("Cursor pagination does not support text search");
+        }
+        Keyset.Cursor position = KEYSET.cursor(cursor, pageable.getSort());
+        int size = pageable.isPaged() ? pageable.getPageSize() : DEFAULT_SEEK_SIZE;
+        Specification<Operation> spec = OperationSpecifications.search(request, catalogDictionary);
+        List<Operation> rows = operationRepository.findBy(spec.and(KEYSET.after(position)),
+                query -> query.sortBy(KEYSET.sort(position)).limit(size + 1).all());
+        return KEYSET.page(rows, position, size, OperationResponse::toResponse);
+    }
 
-        return value != null ? cb.and(base, predicateSupplier.apply(value)) : base;
+    private Page<OperationResponse> searchText(OperationSearchRequest request, Pageable pageable) {
+        Integer makeId = catalogDictionary.find(Kind.MAKE, request.getBrand());
+        Integer modelId = catalogDictionary.find(Kind.MODEL, request.getModel());
+        Integer engineId = catalogDictionary.find(Kind.ENGINE, request.getEngine());
+        List<OperationTextIndex.Hit> hits = operationTextIndex.search(request.getText(),
+                document -> document.matches(makeId, modelId, engineId, request));
+        List<OperationTextIndex.Hit> page = hits;
+        if (pageable.isPaged()) {
+            int from = (int) Math.min(pageable.getOffset(), hits.size());
+            page = hits.subList(from, Math.min(from + pageable.getPageSize(), hits.size()));
+        }
+        List<Long> ids = page.stream().map(OperationTextIndex.Hit::id).toList();
+        Map<Long, Operation> operations = operationRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Operation::getId, Function.identity()));
+        List<OperationResponse> content = ids.stream()
+                .map(operations::get)
+                .filter(Objects::nonNull)
+                .map(OperationResponse::toResponse)
+                .toList();
+        return new PageImpl<>(content, pageable, hits.size());
     }
 }
@@ -0,0 +1,219 @@
+package org.infomedia.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.infomedia.catalog.CatalogDictionary;
+import org.infomedia.dto.CountMode;
+import org.infomedia.dto.SuggestionRequest;
+import org.infomedia.dto.SuggestionResponse;
+import org.infomedia.event.OperationChangedEvent;
+import org.infomedia.event.OperationDeletedEvent;
+import org.infomedia.event.OperationsImportedEvent;
+import org.infomedia.model.CatalogTerm.Kind;
+import org.infomedia.model.OperationKey;
+import org.infomedia.repository.OperationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Caches suggestion results per brand/model/engine key, make year and distance interval.
+ * <p>
+ * Every distance between the same two consecutive range boundaries of a key's operations
+ * selects the same operations, so the distance is replaced by the index of that elementary
+ * interval (boundaries themselves get their own slot because ranges are inclusive).
+ * <p>
+ * Each key has a generation that is part of every cache entry of that key. A committed
+ * create or update drops the generation of the operation's old and new key, and the next read
+ * draws a value never used before, which makes all entries of those keys unreachable at once,
+ * including entries a concurrent reader is still computing from the previous catalog state.
+ * Unreachable entries are removed eagerly and otherwise age out through the size and TTL bounds,
+ * as do generations, whose eviction only costs a miss.
+ * <p>
+ * Results are kept as immutable copies and every hit returns new {@link SuggestionResponse}s.
+ */
+@Component
+public class SuggestionCache {
+
+    private final OperationRepository operationRepository;
+    private final CatalogDictionary catalogDictionary;
+    private final Cache<Entry, Result> results;
+    private final Cache<Generation, double[]> boundaries;
+    private final Cache<OperationKey, Long> generations;
+    private final AtomicLong nextGeneration = new AtomicLong();
+
+    public SuggestionCache(OperationRepository operationRepository,
+                           CatalogDictionary catalogDictionary,
+                           MeterRegistry meterRegistry,
+                           @Value("${suggestion.cache.ttl:10m}") Duration ttl,
+                           @Value("${suggestion.cache.max-size:10000}") long maxSize) {
+        this.operationRepository = operationRepository;
+        this.catalogDictionary = catalogDictionary;
+        this.results = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        this.boundaries = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+        this.generations = Caffeine.newBuilder()
+                .expireAfterAccess(ttl)
+                .maximumSize(maxSize)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "suggestions");
+    }
+
+    /**
+     * Return the cached result of a suggestion request, loading it on a miss.
+     * Requests missing any filter value, and pages whose count is still running, are not cached.
+     *
+     * @param request  the suggestion filter criteria
+     * @param pageable pagination and sorting information
+     * @param count    how the total is computed
+     * @param loader   computes the result on a miss
+     * @return the cached or freshly loaded result
+     */
+    public Slice<SuggestionResponse> get(SuggestionRequest request, Pageable pageable, CountMode count,
+                                         Supplier<Slice<SuggestionResponse>> loader) {
+        if (request.getBrand() == null || request.getModel() == null || request.getEngine() == null
+                || request.getMakeYear() == null || request.getTotalDistance() == null) {
+            return loader.get();
+        }
+        OperationKey key = OperationKey.of(request.getBrand(), request.getModel(), request.getEngine());
+        Generation generation = new Generation(key, generations.get(key, k -> nextGeneration.incrementAndGet()));
+        int slot = slot(boundaries.get(generation, this::loadBoundaries), request.totalDistanceKm());
+        Entry entry = new Entry(generation, request.getMakeYear(), slot, pageable, count);
+        Result cached = results.getIfPresent(entry);
+        if (cached != null) {
+            return cached.toSlice();
+        }
+        Slice<SuggestionResponse> loaded = loader.get();
+        if (!CountEstimator.isPending(loaded)) {
+            results.put(entry, Result.of(loaded));
+        }
+        return loaded;
+    }
+
+    /**
+     * Invalidate the keys touched by a committed create or update.
+     *
+     * @param event the {@link OperationChangedEvent}
+     */
+    @TransactionalEventListener
+    public void onOperationChanged(OperationChangedEvent event) {
+        Set<OperationKey> keys = new HashSet<>();
+        keys.add(OperationKey.of(event.operation()));
+        if (event.previousKey() != null) {
+            keys.add(event.previousKey());
+        }
+        invalidate(keys);
+    }
+
+    /**
+     * Invalidate the keys touched by a committed bulk import batch.
+     *
+     * @param event the {@link OperationsImportedEvent}
+     */
+    @TransactionalEventListener
+    public void onOperationsImported(OperationsImportedEvent event) {
+        invalidate(event.operations().stream().map(OperationKey::of).collect(Collectors.toSet()));
+    }
+
+    /**
+     * Invalidate the key of a committed deletion.
+     *
+     * @param event the {@link OperationDeletedEvent}
+     */
+    @TransactionalEventListener
+    public void onOperationDeleted(OperationDeletedEvent event) {
+        invalidate(Set.of(OperationKey.of(event.operation())));
+    }
+
+    private void invalidate(Set<OperationKey> keys) {
+        generations.invalidateAll(keys);
+        results.asMap().keySet().removeIf(entry -> keys.contains(entry.generation().key()));
+        boundaries.asMap().keySet().removeIf(generation -> keys.contains(generation.key()));
+    }
+
+    private double[] loadBoundaries(Generation generation) {
+        OperationKey key = generation.key();
+        return operationRepository.findDistanceRanges(
+                        catalogDictionary.find(Kind.MAKE, key.brand()),
+                        catalogDictionary.find(Kind.MODEL, key.model()),
+                        catalogDictionary.find(Kind.ENGINE, key.engine()))
+                .stream()
+                .flatMap(Arrays::stream)
+                .filter(Objects::nonNull)
+                .mapToDouble(value -> ((Number) value).doubleValue())
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    /**
+     * Map a distance to its elementary interval: odd slots are the boundaries themselves,
+     * even slots the open intervals between them.
+     */
+    static int slot(double[] boundaries, double distanceKm) {
+        int index = Arrays.binarySearch(boundaries, distanceKm);
+        return index >= 0 ? 2 * index + 1 : 2 * (-index - 1);
+    }
+
+    private record Generation(OperationKey key, long value) {
+    }
+
+    private record Entry(Generation generation, int makeYear, int slot, Pageable pageable, CountMode count) {
+    }
+
+    /**
+     * Immutable copy of a result, so that neither the caller that loaded it nor later callers,
+     * who each get their own {@link SuggestionResponse} instances, can change the cached value.
+     */
+    private record Result(List<Suggestion> content, Pageable pageable, boolean hasNext, Long total) {
+
+        static Result of(Slice<SuggestionResponse> slice) {
+            return new Result(slice.getContent().stream().map(Suggestion::of).toList(), slice.getPageable(),
+                    slice.hasNext(), slice instanceof Page<?> page ? page.getTotalElements() : null);
+        }
+
+        Slice<SuggestionResponse> toSlice() {
+            List<SuggestionResponse> responses = content.stream().map(Suggestion::toResponse).toList();
+            return total != null
+                    ? new PageImpl<>(responses, pageable, total)
+                    : new SliceImpl<>(responses, pageable, hasNext);
+        }
+    }
+
+    private record Suggestion(Long operationId, String name, String description, Double approxCost,
+                              Integer time, String brand, String model, String engine) {
+
+        static Suggestion of(SuggestionResponse response) {
+            return new Suggestion(response.getOperationId(), response.getName(), response.getDescription(),
+                    response.getApproxCost(), response.getTime(), response.getBrand(), response.getModel(),
+                    response.getEngine());
+        }
+
+        SuggestionResponse toResponse() {
+            return new SuggestionResponse(operationId, name, description, approxCost, time, brand, model, engine);
+        }
+    }
+}
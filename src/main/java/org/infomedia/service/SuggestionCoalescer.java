@@ -0,0 +1,123 @@
+package org.infomedia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.infomedia.dto.CountMode;
+import org.infomedia.dto.SuggestionRequest;
+import org.infomedia.dto.SuggestionResponse;
+import org.infomedia.model.OperationKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collapses identical concurrent suggestion requests into one call of
+ * {@link SuggestionService#suggest(SuggestionRequest, Pageable, CountMode)}.
+ * <p>
+ * Requests are identical when they agree on the normalized brand/model/engine key, make year,
+ * distance in kilometres, page, sort and count mode, and arrived at the same committed catalog
+ * version of the {@link OperationChangeLog}. The first request runs the query; the others wait
+ * for and return its result, without holding a transaction or connection while they wait. A
+ * call is forgotten as soon as it completes, and a request arriving after a catalog write
+ * carries the new version, so it never joins a call that may have read the catalog before
+ * that write.
+ */
+@Component
+public class SuggestionCoalescer {
+
+    private final SuggestionService suggestionService;
+
+    private final OperationChangeLog operationChangeLog;
+
+    private final boolean enabled;
+
+    private final Map<Flight, CompletableFuture<Slice<SuggestionResponse>>> flights = new ConcurrentHashMap<>();
+
+    private final Counter executed;
+
+    private final Counter coalesced;
+
+    public SuggestionCoalescer(SuggestionService suggestionService,
+                               OperationChangeLog operationChangeLog,
+                               MeterRegistry meterRegistry,
+                               @Value("${suggestion.coalescing.enabled:true}") boolean enabled) {
+        this.suggestionService = suggestionService;
+        this.operationChangeLog = operationChangeLog;
+        this.enabled = enabled;
+        this.executed = counter(meterRegistry, "executed");
+        this.coalesced = counter(meterRegistry, "coalesced");
+        Gauge.builder("suggestion.requests.in.flight", flights, Map::size)
+                .description("Distinct suggestion requests being computed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns suggested operations, sharing the result of an identical request already in flight.
+     *
+     * @param request  the suggestion filter criteria
+     * @param pageable pagination and sorting information
+     * @param count    how the total is computed
+     * @return the result of {@link SuggestionService#suggest(SuggestionRequest, Pageable, CountMode)}
+     */
+    public Slice<SuggestionResponse> suggest(SuggestionRequest request, Pageable pageable, CountMode count) {
+        if (!enabled) {
+            return suggestionService.suggest(request, pageable, count);
+        }
+        Flight flight = new Flight(operationChangeLog.committedVersion(),
+                OperationKey.of(request.getBrand(), request.getModel(), request.getEngine()),
+                request.getMakeYear(), request.getTotalDistance() == null ? null : request.totalDistanceKm(),
+                pageable, count);
+        CompletableFuture<Slice<SuggestionResponse>> call = new CompletableFuture<>();
+        CompletableFuture<Slice<SuggestionResponse>> inFlight = flights.putIfAbsent(flight, call);
+        if (inFlight != null) {
+            coalesced.increment();
+            return join(inFlight);
+        }
+        executed.increment();
+        try {
+            Slice<SuggestionResponse> result = suggestionService.suggest(request, pageable, count);
+            flights.remove(flight, call);
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            flights.remove(flight, call);
+            call.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Wait for a call in flight, failing with the exception it failed with.
+     */
+    private static Slice<SuggestionResponse> join(CompletableFuture<Slice<SuggestionResponse>> call) {
+        try {
+            return call.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("suggestion.requests")
+                .description("Suggestion requests computed, or answered by an identical request in flight")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record Flight(long version, OperationKey key, Integer makeYear, Double distanceKm,
+                          Pageable pageable, CountMode count) {
+    }
+}
@@ -1,78 +1,253 @@
 package org.infomedia.service;
 
-import jakarta.persistence.criteria.Predicate;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.infomedia.catalog.CatalogDictionary;
+import org.infomedia.dto.CountMode;
+import org.infomedia.dto.SuggestionBatchRequest;
+import org.infomedia.dto.SuggestionBatchResponse;
+import org.infomedia.dto.SuggestionCostResponse;
 import org.infomedia.dto.SuggestionRequest;
 import org.infomedia.dto.SuggestionResponse;
+import org.infomedia.index.IndexedOperation;
+import org.infomedia.index.OperationIndex;
+import org.infomedia.model.CatalogTerm.Kind;
 import org.infomedia.model.Operation;
+import org.infomedia.model.OperationKey;
 import org.infomedia.repository.OperationRepository;
-import org.modelmapper.ModelMapper;
+import org.infomedia.repository.OperationSpecifications;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import systems.uom.common.USCustomary;
-import tech.units.indriya.quantity.Quantities;
 
-import javax.measure.MetricPrefix;
-import javax.measure.Quantity;
-import javax.measure.quantity.Length;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.function.Supplier;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class SuggestionService {
 
-    private final ModelMapper modelMapper;
-
     private final OperationRepository operationRepository;
 
+    private final OperationIndex operationIndex;
+
+    private final CountEstimator countEstimator;
+
+    private final SuggestionCache suggestionCache;
+
+    private final CatalogDictionary catalogDictionary;
+
     /**
      * Returns a page of suggested operations based on the filter criteria.
+     * <p>
+     * Served from the {@link OperationIndex} when the {@code memory} engine is enabled and
+     * loaded, otherwise from the database.
      *
      * @param request  the suggestion filter criteria
      * @param pageable pagination and sorting information
      * @return a page of {@link SuggestionResponse} matching the filters
      */
     @Transactional(readOnly = true)
+    @Timed(value = "suggestion.suggest", histogram = true)
     public Page<SuggestionResponse> suggest(SuggestionRequest request, Pageable pageable) {
-        Specification<Operation> spec = (root, query, cb) -> {
-            List<Predicate> predicates = new ArrayList<>();
-            addIfNotNull(request.getBrand(),
-                    () -> cb.equal(cb.lower(root.get("brand")), request.getBrand().toLowerCase()), predicates);
-            addIfNotNull(request.getModel(),
-                    () -> cb.equal(cb.lower(root.get("model")), request.getModel().toLowerCase()), predicates);
-            addIfNotNull(request.getEngine(),
-                    () -> cb.equal(cb.lower(root.get("engine")), request.getEngine().toLowerCase()), predicates);
-
-            if (request.getMakeYear() != 0) {
-                int year = request.getMakeYear();
-                predicates.add(cb.lessThanOrEqualTo(root.get("yearStart"), year));
-                predicates.add(cb.greaterThanOrEqualTo(root.get("yearEnd"), year));
-            }
+        if (canUseIndex(request, pageable)) {
+            OperationKey key = OperationKey.of(request.getBrand(), request.getModel(), request.getEngine());
+            return operationIndex.find(key, request.getMakeYear(), request.totalDistanceKm(), pageable)
+                    .map(this::toResponse);
+        }
+
+        return operationRepository.findAll(OperationSpecifications.suggestion(request, catalogDictionary), pageable)
+                .map(SuggestionResponse::toResponse);
+    }
+
+    /**
+     * Returns suggested operations, choosing how the total is computed.
+     * <p>
+     * Results are served from the {@link SuggestionCache} when the request names a full
+     * brand/model/engine key, make year and distance.
+     *
+     * @param request  the suggestion filter criteria
+     * @param pageable pagination and sorting information
+     * @param count    {@link CountMode#EXACT} for a counted page, {@link CountMode#NONE} for a slice
+     *                 without total, {@link CountMode#ESTIMATE} for a page with a cached total
+     * @return a {@link Slice} (a {@link Page} unless the count is skipped) of {@link SuggestionResponse}
+     */
+    @Transactional(readOnly = true)
+    @Timed(value = "suggestion.suggest", histogram = true)
+    public Slice<SuggestionResponse> suggest(SuggestionRequest request, Pageable pageable, CountMode count) {
+        return suggestionCache.get(request, pageable, count, () -> load(request, pageable, count));
+    }
+
+    private Slice<SuggestionResponse> load(SuggestionRequest request, Pageable pageable, CountMode count) {
+        if (count == CountMode.EXACT || canUseIndex(request, pageable)) {
+            return suggest(request, pageable);
+        }
+        Specification<Operation> spec = OperationSpecifications.suggestion(request, catalogDictionary);
+        Slice<SuggestionResponse> slice = operationRepository.findSlice(spec, pageable)
+                .map(SuggestionResponse::toResponse);
+        if (count == CountMode.NONE) {
+            return slice;
+        }
+        List<Object> filter = Arrays.asList("suggest",
+                OperationKey.normalize(request.getBrand()),
+                OperationKey.normalize(request.getModel()),
+                OperationKey.normalize(request.getEngine()),
+                request.getMakeYear(), request.totalDistanceKm());
+        return countEstimator.page(slice, filter, () -> operationRepository.count(spec));
+    }
+
+    /**
+     * Returns the number, total cost and total time of the suggested operations, and optionally
+     * the same per operation name, without reading the operations themselves.
+     * <p>
+     * Summed over the {@link OperationIndex} when it can serve the request, otherwise computed by
+     * one aggregate query grouped by name.
+     *
+     * @param request   the suggestion filter criteria
+     * @param breakdown whether to include the totals per operation name
+     * @return the {@link SuggestionCostResponse}
+     */
+    @Transactional(readOnly = true)
+    @Timed(value = "suggestion.costs", histogram = true)
+    public SuggestionCostResponse costs(SuggestionRequest request, boolean breakdown) {
+        List<SuggestionCostResponse.Item> groups;
+        if (canUseIndex(request)) {
+            OperationKey key = OperationKey.of(request.getBrand(), request.getModel(), request.getEngine());
+            groups = sumCosts(operationIndex.find(key, request.getMakeYear(), request.totalDistanceKm()), breakdown);
+        } else {
+            groups = operationRepository.sumCosts(
+                    OperationSpecifications.suggestion(request, catalogDictionary), breakdown);
+        }
+        SuggestionCostResponse response = new SuggestionCostResponse(0, 0, 0, breakdown ? groups : null);
+        for (SuggestionCostResponse.Item group : groups) {
+            response.setCount(response.getCount() + group.getCount());
+            response.setTotalCost(response.getTotalCost() + group.getTotalCost());
+            response.setTotalTime(response.getTotalTime() + group.getTotalTime());
+        }
+        return response;
+    }
 
-            addIfNotNull(request.getTotalDistance(), () -> {
-                Quantity<Length> miles = Quantities.getQuantity(request.getTotalDistance(), USCustomary.MILE);
-                double distanceKm = miles.to(MetricPrefix.KILO(USCustomary.METER)).getValue().doubleValue();
-                return cb.and(
-                        cb.lessThanOrEqualTo(root.get("distanceStart"), distanceKm),
-                        cb.greaterThanOrEqualTo(root.get("distanceEnd"), distanceKm)
-                );
-            }, predicates);
+    private static List<SuggestionCostResponse.Item> sumCosts(List<IndexedOperation> operations, boolean byName) {
+        Map<String, SuggestionCostResponse.Item> groups = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        for (IndexedOperation operation : operations) {
+            SuggestionCostResponse.Item group = groups.computeIfAbsent(byName ? operation.name() : "",
+                    name -> new SuggestionCostResponse.Item(byName ? name : null, 0, 0, 0));
+            group.setCount(group.getCount() + 1);
+            group.setTotalCost(group.getTotalCost() + (operation.approxCost() != null ? operation.approxCost() : 0));
+            group.setTotalTime(group.getTotalTime() + (operation.time() != null ? operation.time() : 0));
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    /**
+     * Returns a page of the operations applicable to a registered vehicle at a given distance,
+     * read through the materialized vehicle/operation mapping instead of matching keys and
+     * year ranges at query time.
+     *
+     * @param vehicleId  the vehicle id
+     * @param distanceKm the vehicle's total distance in kilometers
+     * @param pageable   pagination and sorting information
+     * @return a page of {@link SuggestionResponse}
+     */
+    @Transactional(readOnly = true)
+    @Timed(value = "suggestion.suggest.vehicle", histogram = true)
+    public Page<SuggestionResponse> suggestForVehicle(Long vehicleId, double distanceKm, Pageable pageable) {
+        return operationRepository.findApplicable(vehicleId, distanceKm, pageable)
+                .map(SuggestionResponse::toResponse);
+    }
+
+    /**
+     * Resolve suggestions for a whole fleet in one call.
+     * <p>
+     * Identical (brand, model, engine, year, distance) items are resolved once, and all items
+     * sharing a brand/model/engine key are answered from a single range query covering the
+     * smallest and largest year and distance of the group.
+     *
+     * @param request the batch of suggestion criteria and the optional per-item cap
+     * @return one {@link SuggestionBatchResponse.Item} per request item, in request order
+     */
+    @Transactional(readOnly = true)
+    @Timed(value = "suggestion.suggest.batch", histogram = true)
+    public SuggestionBatchResponse suggestBatch(SuggestionBatchRequest request) {
+        List<SuggestionRequest> items = request.getItems();
+        Map<Lookup, List<Integer>> positions = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            SuggestionRequest item = items.get(i);
+            Lookup lookup = new Lookup(OperationKey.of(item.getBrand(), item.getModel(), item.getEngine()),
+                    item.getMakeYear(), item.totalDistanceKm());
+            positions.computeIfAbsent(lookup, l -> new ArrayList<>()).add(i);
+        }
 
-            return cb.and(predicates.toArray(new Predicate[0]));
-        };
+        Map<OperationKey, List<Lookup>> groups = positions.keySet().stream()
+                .collect(Collectors.groupingBy(Lookup::key, LinkedHashMap::new, Collectors.toList()));
+        int limit = request.getLimit() != null ? request.getLimit() : Integer.MAX_VALUE;
 
-        return operationRepository.findAll(spec, pageable)
-                .map(operation -> modelMapper.map(operation, SuggestionResponse.class));
+        SuggestionBatchResponse.Item[] results = new SuggestionBatchResponse.Item[items.size()];
+        groups.forEach((key, lookups) -> {
+            Function<Lookup, List<IndexedOperation>> resolver = resolver(key, lookups);
+            for (Lookup lookup : lookups) {
+                List<IndexedOperation> matches = resolver.apply(lookup);
+                List<SuggestionResponse> suggestions = matches.stream()
+                        .sorted(Comparator.comparing(IndexedOperation::id))
+                        .limit(limit)
+                        .map(this::toResponse)
+                        .toList();
+                for (int index : positions.get(lookup)) {
+                    results[index] = new SuggestionBatchResponse.Item(index, matches.size(), suggestions);
+                }
+            }
+        });
+        return new SuggestionBatchResponse(Arrays.asList(results));
     }
 
-    private <T> void addIfNotNull(T value, Supplier<Predicate> supplier, List<Predicate> predicates) {
-        if (value != null) {
-            predicates.add(supplier.get());
+    private Function<Lookup, List<IndexedOperation>> resolver(OperationKey key, List<Lookup> lookups) {
+        if (operationIndex.isEnabled() && operationIndex.isReady()) {
+            return lookup -> operationIndex.find(key, lookup.year(), lookup.distanceKm());
         }
+        IntSummaryStatistics years = lookups.stream().mapToInt(Lookup::year).summaryStatistics();
+        DoubleSummaryStatistics distances = lookups.stream().mapToDouble(Lookup::distanceKm).summaryStatistics();
+        boolean anyYear = lookups.stream().anyMatch(lookup -> lookup.year() == SuggestionRequest.ANY_YEAR);
+        List<IndexedOperation> candidates = operationRepository.findCandidates(
+                        catalogDictionary.find(Kind.MAKE, key.brand()),
+                        catalogDictionary.find(Kind.MODEL, key.model()),
+                        catalogDictionary.find(Kind.ENGINE, key.engine()),
+                        anyYear ? Integer.MIN_VALUE : years.getMin(), anyYear ? Integer.MAX_VALUE : years.getMax(),
+                        distances.getMin(), distances.getMax())
+                .stream()
+                .map(IndexedOperation::of)
+                .toList();
+        return lookup -> candidates.stream()
+                .filter(operation -> operation.covers(lookup.year(), lookup.distanceKm()))
+                .toList();
+    }
+
+    private boolean canUseIndex(SuggestionRequest request, Pageable pageable) {
+        return canUseIndex(request) && operationIndex.supports(pageable.getSort());
+    }
+
+    private boolean canUseIndex(SuggestionRequest request) {
+        return operationIndex.isEnabled() && operationIndex.isReady()
+                && request.getBrand() != null && request.getModel() != null && request.getEngine() != null
+                && request.getMakeYear() != null && request.getTotalDistance() != null;
+    }
+
+    private SuggestionResponse toResponse(IndexedOperation operation) {
+        return new SuggestionResponse(
+                operation.id(),
+                operation.name(),
+                operation.description(),
+                operation.approxCost(),
+                operation.time(),
+                operation.brand(),
+                operation.model(),
+                operation.engine()
+        );
+    }
+
+    private record Lookup(OperationKey key, int year, double distanceKm) {
     }
 }
@@ -0,0 +1,35 @@
+package org.infomedia.service;
+
+import lombok.RequiredArgsConstructor;
+import org.infomedia.catalog.CatalogDictionary;
+import org.infomedia.event.VehicleChangedEvent;
+import org.infomedia.model.Vehicle;
+import org.infomedia.repository.VehicleRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class VehicleService {
+
+    private final VehicleRepository vehicleRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final CatalogDictionary catalogDictionary;
+
+    /**
+     * Create a new vehicle.
+     *
+     * @param vehicle the vehicle to create
+     * @return the saved {@link Vehicle}
+     */
+    @Transactional
+    public Vehicle create(Vehicle vehicle) {
+        catalogDictionary.encode(vehicle);
+        Vehicle saved = vehicleRepository.save(vehicle);
+        eventPublisher.publishEvent(new VehicleChangedEvent(saved));
+        return saved;
+    }
+}
@@ -0,0 +1,223 @@
+package org.infomedia.web;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrency limit that adapts to latency, with a bounded queue in front of it.
+ * <p>
+ * The limit follows a gradient: latencies are averaged over windows of at least {@link #MIN_WINDOW}
+ * requests, or one per permit of the limit, and compared with a slowly moving long-term average.
+ * While a window stays within {@link #TOLERANCE} times the long-term latency, the target is the
+ * limit plus its square root, provided the window used at least half of the limit. When requests
+ * slow down, e.g. because they queue for the connection pool, the target shrinks by the ratio of
+ * the two latencies, to no less than half the limit. After each window the limit moves a fifth of
+ * the way to the target, kept between the minimum and maximum.
+ * <p>
+ * A request over the limit waits in FIFO order for a permit, unless {@code queueSize} requests
+ * already wait, and gives up after the maximum wait.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    static final int MIN_WINDOW = 10;
+
+    static final double TOLERANCE = 1.5;
+
+    static final double SMOOTHING = 0.2;
+
+    /**
+     * Weight of a window in the long-term latency, which so averages about the last 100 windows.
+     */
+    static final double LONG_TERM_WEIGHT = 0.01;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final int queueSize;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+
+    private final Condition available = lock.newCondition();
+
+    private double limit;
+
+    private int inFlight;
+
+    private int queued;
+
+    private double longTermNanos;
+
+    private double windowNanos;
+
+    private int windowSamples;
+
+    private int windowMaxInFlight;
+
+    /**
+     * @param initialLimit the limit until latencies are observed
+     * @param minLimit     the smallest limit
+     * @param maxLimit     the largest limit
+     * @param queueSize    how many requests may wait for a permit
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int queueSize) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max, got %d <= %d <= %d"
+                    .formatted(minLimit, initialLimit, maxLimit));
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * Take a permit, waiting up to {@code maxWait} in the queue if the limit is reached.
+     * A permit that was granted must be returned with {@link #release(long)} or {@link #release()}.
+     *
+     * @param maxWait how long to wait for a permit
+     * @return whether a permit was granted, and if not why
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Admission acquire(Duration maxWait) throws InterruptedException {
+        lock.lock();
+        try {
+            if (queued == 0 && inFlight < limit()) {
+                admit();
+                return Admission.ADMITTED;
+            }
+            if (queued >= queueSize) {
+                return Admission.QUEUE_FULL;
+            }
+            queued++;
+            try {
+                long remaining = maxWait.toNanos();
+                while (inFlight >= limit()) {
+                    if (remaining <= 0) {
+                        return Admission.TIMED_OUT;
+                    }
+                    remaining = available.awaitNanos(remaining);
+                }
+                admit();
+                return Admission.ADMITTED;
+            } finally {
+                queued--;
+                if (inFlight < limit()) {
+                    available.signal();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return a permit of a request that completed normally, recording how long it took.
+     *
+     * @param latencyNanos the time between admission and completion
+     */
+    public void release(long latencyNanos) {
+        lock.lock();
+        try {
+            inFlight--;
+            windowNanos += latencyNanos;
+            windowSamples++;
+            if (windowSamples >= Math.max(MIN_WINDOW, limit())) {
+                adapt(windowNanos / windowSamples);
+                windowNanos = 0;
+                windowSamples = 0;
+                windowMaxInFlight = inFlight;
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return a permit without a latency sample, e.g. of a request that failed.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void admit() {
+        inFlight++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+    }
+
+    private void adapt(double shortTermNanos) {
+        if (longTermNanos == 0) {
+            longTermNanos = shortTermNanos;
+        } else {
+            longTermNanos += (shortTermNanos - longTermNanos) * LONG_TERM_WEIGHT;
+            if (longTermNanos > 2 * shortTermNanos) {
+                // Recover quickly once the load that raised the long-term latency is gone
+                longTermNanos = Math.max(shortTermNanos, longTermNanos * 0.9);
+            }
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longTermNanos / shortTermNanos));
+        if (gradient == 1.0 && windowMaxInFlight < limit / 2) {
+            // The limit was not what held requests back, so there is nothing to learn about it
+            return;
+        }
+        double target = limit * gradient + Math.sqrt(limit);
+        double previous = limit;
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+        if (limit() > (int) previous) {
+            available.signalAll();
+        }
+    }
+
+    /**
+     * @return the current limit
+     */
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of permits taken
+     */
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of requests waiting for a permit
+     */
+    public int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Outcome of {@link #acquire(Duration)}.
+     */
+    public enum Admission {
+        ADMITTED,
+        QUEUE_FULL,
+        TIMED_OUT
+    }
+}
@@ -0,0 +1,133 @@
+package org.infomedia.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.infomedia.web.AdaptiveConcurrencyLimiter.Admission;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Admission control for database-bound endpoints: a request runs only with a permit of the
+ * {@link AdaptiveConcurrencyLimiter}, so under a traffic spike the excess waits briefly in a
+ * bounded queue and is then turned away with {@code 503 Service Unavailable} and
+ * {@code Retry-After}, instead of every request queueing for the connection pool.
+ * <p>
+ * Requests that complete with a status below 500 feed their latency to the limiter; failed
+ * requests only return their permit. Only requests matching one of the path patterns are limited,
+ * since servlet URL patterns cannot express paths such as {@code /vehicles/{id}/suggestions}.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final byte[] REJECTED =
+            "{\"error\":\"Too many concurrent requests, retry later\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final List<PathPattern> paths;
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    private final Duration maxWait;
+
+    private final String retryAfter;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param paths         the path patterns of the limited endpoints, e.g. {@code /vehicles/{id}/suggestions}
+     * @param limiter       the limit shared by all filtered endpoints
+     * @param maxWait       how long a request may wait for a permit
+     * @param retryAfter    the {@code Retry-After} of rejected requests, rounded up to whole seconds
+     * @param meterRegistry where the limit, queue and rejections are published
+     */
+    public AdmissionControlFilter(List<String> paths, AdaptiveConcurrencyLimiter limiter, Duration maxWait,
+                                  Duration retryAfter, MeterRegistry meterRegistry) {
+        this.paths = paths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.limiter = limiter;
+        this.maxWait = maxWait;
+        this.retryAfter = Long.toString(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("http.server.requests.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                .description("Requests admitted at once")
+                .register(meterRegistry);
+        Gauge.builder("http.server.requests.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                .description("Admitted requests running")
+                .register(meterRegistry);
+        Gauge.builder("http.server.requests.concurrency.queued", limiter, AdaptiveConcurrencyLimiter::queued)
+                .description("Requests waiting for admission")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return matching(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Admission admission;
+        try {
+            admission = limiter.acquire(maxWait);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            admission = Admission.TIMED_OUT;
+        }
+        if (admission != Admission.ADMITTED) {
+            reject(admission, request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            chain.doFilter(request, response);
+            completed = response.getStatus() < HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        } finally {
+            if (completed) {
+                limiter.release(System.nanoTime() - start);
+            } else {
+                limiter.release();
+            }
+        }
+    }
+
+    private void reject(Admission admission, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Counter.builder("http.server.requests.rejected")
+                .description("Requests turned away by admission control")
+                .tag("method", request.getMethod())
+                .tag("uri", matching(request).getPatternString())
+                .tag("reason", admission.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry)
+                .increment();
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(REJECTED.length);
+        response.getOutputStream().write(REJECTED);
+    }
+
+    private PathPattern matching(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(
+                request.getRequestURI().substring(request.getContextPath().length()));
+        for (PathPattern pattern : paths) {
+            if (pattern.matches(path)) {
+                return pattern;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,270 @@
+package org.infomedia.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.infomedia.service.ExportService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Conditional requests and compression for catalog reads whose response depends only on the
+ * request and the catalog version, such as {@code GET /operations/search} and
+ * {@code POST /suggestions}.
+ * <p>
+ * The strong ETag is the catalog version followed by a hash of the method, path, sorted query
+ * parameters and request body, so it is computed without running the query. A request whose
+ * {@code If-None-Match} lists it gets {@code 304 Not Modified} before reaching the controller.
+ * Otherwise successful JSON responses not marked {@code no-store} are kept in a byte-bounded
+ * cache under their ETag, gzipped once if they are at least {@code minCompressSize} long; a
+ * catalog write changes the version and with it every ETag, so stale entries are never served
+ * and age out. The version is read
+ * before the response is computed, so a body is never older than its ETag.
+ */
+public class ConditionalResponseFilter extends OncePerRequestFilter {
+
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    private final LongSupplier catalogVersion;
+
+    private final Cache<String, CachedResponse> responses;
+
+    private final int minCompressSize;
+
+    private final MeterRegistry meterRegistry;
+
+    public ConditionalResponseFilter(LongSupplier catalogVersion, Cache<String, CachedResponse> responses,
+                                     int minCompressSize, MeterRegistry meterRegistry) {
+        this.catalogVersion = catalogVersion;
+        this.responses = responses;
+        this.minCompressSize = minCompressSize;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) && !"POST".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long version = catalogVersion.getAsLong();
+        byte[] body = "POST".equals(request.getMethod())
+                ? StreamUtils.copyToByteArray(request.getInputStream())
+                : new byte[0];
+        String etag = etag(version, request, body);
+        boolean gzip = ExportService.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        String matched = match(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag);
+        if (matched != null) {
+            counter("http.server.requests.not.modified", "Requests answered 304 from the ETag alone", request)
+                    .increment();
+            response.setHeader(HttpHeaders.ETAG, matched);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        CachedResponse cached = responses.getIfPresent(etag);
+        if (cached == null) {
+            ContentCachingResponseWrapper captured = new ContentCachingResponseWrapper(response);
+            chain.doFilter(new CachedBodyRequest(request, body), captured);
+            if (captured.getStatus() != HttpServletResponse.SC_OK || !isJson(captured.getContentType())
+                    || isNoStore(captured.getHeader(HttpHeaders.CACHE_CONTROL))) {
+                captured.copyBodyToResponse();
+                return;
+            }
+            cached = CachedResponse.of(captured.getContentAsByteArray(), captured.getContentType(), minCompressSize);
+            responses.put(etag, cached);
+        }
+        write(cached, gzip, etag, response);
+    }
+
+    private void write(CachedResponse cached, boolean gzip, String etag, HttpServletResponse response)
+            throws IOException {
+        byte[] content = cached.gzipped() && !gzip ? gunzip(cached.body()) : cached.body();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType());
+        if (cached.gzipped() && gzip) {
+            response.setHeader(HttpHeaders.ETAG, gzipTag(etag));
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        } else {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+        response.setContentLength(content.length);
+        response.getOutputStream().write(content);
+    }
+
+    /**
+     * The gzipped representation gets its own strong ETag: the identity ETag with a suffix.
+     */
+    private static String gzipTag(String etag) {
+        return etag.substring(0, etag.length() - 1) + GZIP_SUFFIX + "\"";
+    }
+
+    /**
+     * @return the ETag of the representation the client holds if {@code If-None-Match} lists either
+     * representation or {@code *}, otherwise null
+     */
+    static String match(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*")) {
+                return etag;
+            }
+            if (tag.equals(etag) || tag.equals(gzipTag(etag))) {
+                return tag;
+            }
+        }
+        return null;
+    }
+
+    static String etag(long version, HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + ' ' + request.getRequestURI()).getBytes(StandardCharsets.UTF_8));
+            for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+                digest.update((byte) '\n');
+                digest.update(parameter.getKey().getBytes(StandardCharsets.UTF_8));
+                for (String value : parameter.getValue()) {
+                    digest.update((byte) '=');
+                    digest.update(value.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            digest.update((byte) 0);
+            digest.update(body);
+            return "\"" + version + "-" + HexFormat.of().formatHex(digest.digest(), 0, 12) + "\"";
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static boolean isNoStore(String cacheControl) {
+        return cacheControl != null && cacheControl.contains("no-store");
+    }
+
+    private static boolean isJson(String contentType) {
+        try {
+            return contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    private Counter counter(String name, String description, HttpServletRequest request) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("method", request.getMethod())
+                .tag("uri", request.getRequestURI())
+                .register(meterRegistry);
+    }
+
+    private static byte[] gunzip(byte[] content) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * A response body kept for reuse, gzipped if it was large enough to be worth it.
+     *
+     * @param body        the body, gzipped if {@code gzipped}
+     * @param contentType the response content type
+     * @param gzipped     whether the body is gzipped
+     */
+    public record CachedResponse(byte[] body, String contentType, boolean gzipped) {
+
+        static CachedResponse of(byte[] body, String contentType, int minCompressSize) throws IOException {
+            if (body.length < minCompressSize) {
+                return new CachedResponse(body, contentType, false);
+            }
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(body);
+            }
+            return new CachedResponse(compressed.toByteArray(), contentType, true);
+        }
+    }
+
+    /**
+     * Replays a request body that was read to compute the ETag.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("The request body has already been read");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.infomedia.web;
+
+import org.infomedia.dto.ExportFormat;
+import org.infomedia.service.ExportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+
+/**
+ * Builds the streaming responses of the export endpoints: content type, gzip negotiation and an
+ * async timeout of {@code export.timeout} for the current request only, since an export may stream
+ * for much longer than other asynchronous requests should be allowed to run.
+ */
+@Component
+public class ExportResponses {
+
+    private final Duration timeout;
+
+    public ExportResponses(@Value("${export.timeout:30m}") Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * @param format         the export format, which sets the content type
+     * @param acceptEncoding the {@code Accept-Encoding} header; the body is gzipped if it allows gzip
+     * @param body           writes the rows, gzipped or not
+     * @return a response streaming the body once the handler returns
+     */
+    public ResponseEntity<StreamingResponseBody> stream(ExportFormat format, String acceptEncoding, Body body) {
+        boolean gzip = ExportService.acceptsGzip(acceptEncoding);
+        extendTimeout();
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .headers(headers -> {
+                    if (gzip) {
+                        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                    }
+                })
+                .body(out -> body.write(gzip, out));
+    }
+
+    /**
+     * The async request is set up before the handler runs and the streaming body keeps its timeout.
+     */
+    private void extendTimeout() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            AsyncWebRequest asyncWebRequest = WebAsyncUtils.getAsyncManager(attributes.getRequest()).getAsyncWebRequest();
+            if (asyncWebRequest != null) {
+                asyncWebRequest.setTimeout(timeout.toMillis());
+            }
+        }
+    }
+
+    /**
+     * Writes an export to the response.
+     */
+    @FunctionalInterface
+    public interface Body {
+
+        /**
+         * @param gzip whether to gzip the output
+         * @param out  the response body
+         * @throws IOException if writing fails
+         */
+        void write(boolean gzip, OutputStream out) throws IOException;
+    }
+}
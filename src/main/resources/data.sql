@@ -52,54 +52,57 @@ INSERT INTO vehicle (brand, model, engine, make_year) VALUES
 ('Honda', 'Accord', '2.0L Turbo', 2018);
 
 -- Insert 50 operations
-INSERT INTO operation (brand, model, engine, year_start, year_end, distance_start, distance_end, name, approx_cost, description, time) VALUES
-('Toyota', 'Camry', '2.5L', 2015, 2020, 30000, 60000, 'Oil Change', 75.0, 'Standard oil change with synthetic oil', 1),
-('Toyota', 'Camry', '2.5L', 2015, 2020, 50000, 100000, 'Brake Pad Replacement', 150.0, 'Replace front and rear brake pads', 2),
-('Honda', 'Civic', '1.5L Turbo', 2016, 2021, 20000, 50000, 'Tire Rotation', 50.0, 'Rotate tires for even wear', 1),
-('Honda', 'Civic', '1.5L Turbo', 2016, 2021, 60000, 120000, 'Timing Belt Replacement', 300.0, 'Replace timing belt and inspect pulleys', 4),
-('Ford', 'Mustang', '5.0L V8', 2018, 2022, 10000, 40000, 'Air Filter Replacement', 60.0, 'Replace engine air filter', 1),
-('Ford', 'Mustang', '5.0L V8', 2018, 2022, 50000, 80000, 'Spark Plug Replacement', 120.0, 'Replace all spark plugs', 2),
-('Toyota', 'Corolla', '1.8L', 2014, 2019, 20000, 50000, 'Oil Change', 70.0, 'Standard oil change', 1),
-('Toyota', 'Corolla', '1.8L', 2014, 2019, 60000, 100000, 'Brake Fluid Flush', 100.0, 'Flush and replace brake fluid', 2),
-('Honda', 'Accord', '2.0L Hybrid', 2018, 2022, 30000, 70000, 'Hybrid Battery Check', 200.0, 'Inspect hybrid battery health', 2),
-('Honda', 'Accord', '2.0L Hybrid', 2018, 2022, 80000, 120000, 'Coolant Flush', 90.0, 'Replace engine coolant', 2),
-('Ford', 'F-150', '3.5L EcoBoost', 2014, 2018, 40000, 80000, 'Oil Change', 80.0, 'Synthetic oil change for truck', 1),
-('Ford', 'F-150', '3.5L EcoBoost', 2014, 2018, 90000, 150000, 'Transmission Service', 250.0, 'Service automatic transmission', 3),
-('Toyota', 'RAV4', '2.5L', 2018, 2022, 20000, 50000, 'Tire Rotation', 50.0, 'Rotate tires for SUV', 1),
-('Toyota', 'RAV4', '2.5L', 2018, 2022, 60000, 100000, 'Brake Pad Replacement', 160.0, 'Replace brake pads for SUV', 2),
-('Honda', 'CR-V', '1.5L Turbo', 2017, 2021, 30000, 60000, 'Oil Change', 75.0, 'Synthetic oil change', 1),
-('Honda', 'CR-V', '1.5L Turbo', 2017, 2021, 70000, 120000, 'Air Filter Replacement', 55.0, 'Replace cabin and engine air filters', 1),
-('Ford', 'Explorer', '2.3L EcoBoost', 2016, 2020, 40000, 80000, 'Brake Pad Replacement', 170.0, 'Replace front and rear brake pads', 2),
-('Ford', 'Explorer', '2.3L EcoBoost', 2016, 2020, 90000, 150000, 'Coolant Flush', 100.0, 'Flush and replace coolant', 2),
-('Toyota', 'Highlander', '3.5L V6', 2017, 2021, 30000, 60000, 'Oil Change', 80.0, 'Synthetic oil change for SUV', 1),
-('Toyota', 'Highlander', '3.5L V6', 2017, 2021, 70000, 120000, 'Spark Plug Replacement', 130.0, 'Replace spark plugs', 2),
-('Honda', 'Pilot', '3.5L V6', 2015, 2020, 40000, 80000, 'Tire Rotation', 50.0, 'Rotate tires for SUV', 1),
-('Honda', 'Pilot', '3.5L V6', 2015, 2020, 90000, 150000, 'Timing Belt Replacement', 350.0, 'Replace timing belt', 4),
-('Ford', 'Escape', '1.5L EcoBoost', 2018, 2022, 20000, 50000, 'Oil Change', 70.0, 'Synthetic oil change', 1),
-('Ford', 'Escape', '1.5L EcoBoost', 2018, 2022, 60000, 100000, 'Brake Fluid Flush', 110.0, 'Flush brake fluid', 2),
-('Toyota', 'Prius', '1.8L Hybrid', 2014, 2018, 30000, 60000, 'Hybrid Battery Check', 180.0, 'Inspect hybrid battery', 2),
-('Toyota', 'Prius', '1.8L Hybrid', 2014, 2018, 70000, 120000, 'Coolant Flush', 90.0, 'Replace hybrid coolant', 2),
-('Honda', 'Fit', '1.5L', 2016, 2020, 20000, 50000, 'Oil Change', 65.0, 'Standard oil change', 1),
-('Honda', 'Fit', '1.5L', 2016, 2020, 60000, 100000, 'Air Filter Replacement', 50.0, 'Replace engine air filter', 1),
-('Ford', 'Focus', '2.0L', 2017, 2021, 30000, 60000, 'Tire Rotation', 50.0, 'Rotate tires', 1),
-('Ford', 'Focus', '2.0L', 2017, 2021, 70000, 120000, 'Brake Pad Replacement', 140.0, 'Replace brake pads', 2),
-('Toyota', 'Sienna', '3.5L V6', 2017, 2021, 40000, 80000, 'Oil Change', 80.0, 'Synthetic oil change for minivan', 1),
-('Toyota', 'Sienna', '3.5L V6', 2017, 2021, 90000, 150000, 'Transmission Service', 260.0, 'Service transmission', 3),
-('Honda', 'Odyssey', '3.5L V6', 2016, 2020, 30000, 60000, 'Tire Rotation', 50.0, 'Rotate tires for minivan', 1),
-('Honda', 'Odyssey', '3.5L V6', 2016, 2020, 70000, 120000, 'Spark Plug Replacement', 130.0, 'Replace spark plugs', 2),
-('Ford', 'Edge', '2.0L EcoBoost', 2018, 2022, 40000, 80000, 'Oil Change', 75.0, 'Synthetic oil change', 1),
-('Ford', 'Edge', '2.0L EcoBoost', 2018, 2022, 90000, 150000, 'Coolant Flush', 100.0, 'Flush and replace coolant', 2),
-('Toyota', 'Tacoma', '3.5L V6', 2016, 2020, 30000, 60000, 'Tire Rotation', 50.0, 'Rotate tires for truck', 1),
-('Toyota', 'Tacoma', '3.5L V6', 2016, 2020, 70000, 120000, 'Brake Pad Replacement', 160.0, 'Replace brake pads', 2),
-('Honda', 'HR-V', '1.8L', 2017, 2021, 20000, 50000, 'Oil Change', 70.0, 'Synthetic oil change', 1),
-('Honda', 'HR-V', '1.8L', 2017, 2021, 60000, 100000, 'Air Filter Replacement', 55.0, 'Replace air filters', 1),
-('Ford', 'Bronco', '2.7L EcoBoost', 2020, 2023, 30000, 60000, 'Oil Change', 80.0, 'Synthetic oil change', 1),
-('Ford', 'Bronco', '2.7L EcoBoost', 2020, 2023, 70000, 120000, 'Brake Fluid Flush', 110.0, 'Flush brake fluid', 2),
-('Toyota', '4Runner', '4.0L V6', 2014, 2019, 40000, 80000, 'Tire Rotation', 50.0, 'Rotate tires for SUV', 1),
-('Toyota', '4Runner', '4.0L V6', 2014, 2019, 90000, 150000, 'Transmission Service', 270.0, 'Service transmission', 3),
-('Honda', 'Civic', '2.0L', 2018, 2022, 20000, 50000, 'Oil Change', 70.0, 'Synthetic oil change', 1),
-('Honda', 'Civic', '2.0L', 2018, 2022, 60000, 100000, 'Brake Pad Replacement', 150.0, 'Replace brake pads', 2),
-('Ford', 'Ranger', '2.3L EcoBoost', 2019, 2023, 30000, 60000, 'Tire Rotation', 50.0, 'Rotate tires for truck', 1),
-('Ford', 'Ranger', '2.3L EcoBoost', 2019, 2023, 70000, 120000, 'Air Filter Replacement', 60.0, 'Replace engine air filter', 1),
-('Toyota', 'Avalon', '3.5L V6', 2016, 2020, 40000, 80000, 'Oil Change', 80.0, 'Synthetic oil change', 1),
-('Toyota', 'Avalon', '3.5L V6', 2016, 2020, 90000, 150000, 'Spark Plug Replacement', 130.0, 'Replace spark plugs', 2);
+INSERT INTO operation (id, brand, model, engine, year_start, year_end, distance_start, distance_end, name, approx_cost, description, time) VALUES
+(1, 'Toyota', 'Camry', '2.5L', 2015, 2020, 30000, 60000, 'Oil Change', 75.0, 'Standard oil change with synthetic oil', 1),
+(2, 'Toyota', 'Camry', '2.5L', 2015, 2020, 50000, 100000, 'Brake Pad Replacement', 150.0, 'Replace front and rear brake pads', 2),
+(3, 'Honda', 'Civic', '1.5L Turbo', 2016, 2021, 20000, 50000, 'Tire Rotation', 50.0, 'Rotate tires for even wear', 1),
+(4, 'Honda', 'Civic', '1.5L Turbo', 2016, 2021, 60000, 120000, 'Timing Belt Replacement', 300.0, 'Replace timing belt and inspect pulleys', 4),
+(5, 'Ford', 'Mustang', '5.0L V8', 2018, 2022, 10000, 40000, 'Air Filter Replacement', 60.0, 'Replace engine air filter', 1),
+(6, 'Ford', 'Mustang', '5.0L V8', 2018, 2022, 50000, 80000, 'Spark Plug Replacement', 120.0, 'Replace all spark plugs', 2),
+(7, 'Toyota', 'Corolla', '1.8L', 2014, 2019, 20000, 50000, 'Oil Change', 70.0, 'Standard oil change', 1),
+(8, 'Toyota', 'Corolla', '1.8L', 2014, 2019, 60000, 100000, 'Brake Fluid Flush', 100.0, 'Flush and replace brake fluid', 2),
+(9, 'Honda', 'Accord', '2.0L Hybrid', 2018, 2022, 30000, 70000, 'Hybrid Battery Check', 200.0, 'Inspect hybrid battery health', 2),
+(10, 'Honda', 'Accord', '2.0L Hybrid', 2018, 2022, 80000, 120000, 'Coolant Flush', 90.0, 'Replace engine coolant', 2),
+(11, 'Ford', 'F-150', '3.5L EcoBoost', 2014, 2018, 40000, 80000, 'Oil Change', 80.0, 'Synthetic oil change for truck', 1),
+(12, 'Ford', 'F-150', '3.5L EcoBoost', 2014, 2018, 90000, 150000, 'Transmission Service', 250.0, 'Service automatic transmission', 3),
+(13, 'Toyota', 'RAV4', '2.5L', 2018, 2022, 20000, 50000, 'Tire Rotation', 50.0, 'Rotate tires for SUV', 1),
+(14, 'Toyota', 'RAV4', '2.5L', 2018, 2022, 60000, 100000, 'Brake Pad Replacement', 160.0, 'Replace brake pads for SUV', 2),
+(15, 'Honda', 'CR-V', '1.5L Turbo', 2017, 2021, 30000, 60000, 'Oil Change', 75.0, 'Synthetic oil change', 1),
+(16, 'Honda', 'CR-V', '1.5L Turbo', 2017, 2021, 70000, 120000, 'Air Filter Replacement', 55.0, 'Replace cabin and engine air filters', 1),
+(17, 'Ford', 'Explorer', '2.3L EcoBoost', 2016, 2020, 40000, 80000, 'Brake Pad Replacement', 170.0, 'Replace front and rear brake pads', 2),
+(18, 'Ford', 'Explorer', '2.3L EcoBoost', 2016, 2020, 90000, 150000, 'Coolant Flush', 100.0, 'Flush and replace coolant', 2),
+(19, 'Toyota', 'Highlander', '3.5L V6', 2017, 2021, 30000, 60000, 'Oil Change', 80.0, 'Synthetic oil change for SUV', 1),
+(20, 'Toyota', 'Highlander', '3.5L V6', 2017, 2021, 70000, 120000, 'Spark Plug Replacement', 130.0, 'Replace spark plugs', 2),
+(21, 'Honda', 'Pilot', '3.5L V6', 2015, 2020, 40000, 80000, 'Tire Rotation', 50.0, 'Rotate tires for SUV', 1),
+(22, 'Honda', 'Pilot', '3.5L V6', 2015, 2020, 90000, 150000, 'Timing Belt Replacement', 350.0, 'Replace timing belt', 4),
+(23, 'Ford', 'Escape', '1.5L EcoBoost', 2018, 2022, 20000, 50000, 'Oil Change', 70.0, 'Synthetic oil change', 1),
+(24, 'Ford', 'Escape', '1.5L EcoBoost', 2018, 2022, 60000, 100000, 'Brake Fluid Flush', 110.0, 'Flush brake fluid', 2),
+(25, 'Toyota', 'Prius', '1.8L Hybrid', 2014, 2018, 30000, 60000, 'Hybrid Battery Check', 180.0, 'Inspect hybrid battery', 2),
+(26, 'Toyota', 'Prius', '1.8L Hybrid', 2014, 2018, 70000, 120000, 'Coolant Flush', 90.0, 'Replace hybrid coolant', 2),
+(27, 'Honda', 'Fit', '1.5L', 2016, 2020, 20000, 50000, 'Oil Change', 65.0, 'Standard oil change', 1),
+(28, 'Honda', 'Fit', '1.5L', 2016, 2020, 60000, 100000, 'Air Filter Replacement', 50.0, 'Replace engine air filter', 1),
+(29, 'Ford', 'Focus', '2.0L', 2017, 2021, 30000, 60000, 'Tire Rotation', 50.0, 'Rotate tires', 1),
+(30, 'Ford', 'Focus', '2.0L', 2017, 2021, 70000, 120000, 'Brake Pad Replacement', 140.0, 'Replace brake pads', 2),
+(31, 'Toyota', 'Sienna', '3.5L V6', 2017, 2021, 40000, 80000, 'Oil Change', 80.0, 'Synthetic oil change for minivan', 1),
+(32, 'Toyota', 'Sienna', '3.5L V6', 2017, 2021, 90000, 150000, 'Transmission Service', 260.0, 'Service transmission', 3),
+(33, 'Honda', 'Odyssey', '3.5L V6', 2016, 2020, 30000, 60000, 'Tire Rotation', 50.0, 'Rotate tires for minivan', 1),
+(34, 'Honda', 'Odyssey', '3.5L V6', 2016, 2020, 70000, 120000, 'Spark Plug Replacement', 130.0, 'Replace spark plugs', 2),
+(35, 'Ford', 'Edge', '2.0L EcoBoost', 2018, 2022, 40000, 80000, 'Oil Change', 75.0, 'Synthetic oil change', 1),
+(36, 'Ford', 'Edge', '2.0L EcoBoost', 2018, 2022, 90000, 150000, 'Coolant Flush', 100.0, 'Flush and replace coolant', 2),
+(37, 'Toyota', 'Tacoma', '3.5L V6', 2016, 2020, 30000, 60000, 'Tire Rotation', 50.0, 'Rotate tires for truck', 1),
+(38, 'Toyota', 'Tacoma', '3.5L V6', 2016, 2020, 70000, 120000, 'Brake Pad Replacement', 160.0, 'Replace brake pads', 2),
+(39, 'Honda', 'HR-V', '1.8L', 2017, 2021, 20000, 50000, 'Oil Change', 70.0, 'Synthetic oil change', 1),
+(40, 'Honda', 'HR-V', '1.8L', 2017, 2021, 60000, 100000, 'Air Filter Replacement', 55.0, 'Replace air filters', 1),
+(41, 'Ford', 'Bronco', '2.7L EcoBoost', 2020, 2023, 30000, 60000, 'Oil Change', 80.0, 'Synthetic oil change', 1),
+(42, 'Ford', 'Bronco', '2.7L EcoBoost', 2020, 2023, 70000, 120000, 'Brake Fluid Flush', 110.0, 'Flush brake fluid', 2),
+(43, 'Toyota', '4Runner', '4.0L V6', 2014, 2019, 40000, 80000, 'Tire Rotation', 50.0, 'Rotate tires for SUV', 1),
+(44, 'Toyota', '4Runner', '4.0L V6', 2014, 2019, 90000, 150000, 'Transmission Service', 270.0, 'Service transmission', 3),
+(45, 'Honda', 'Civic', '2.0L', 2018, 2022, 20000, 50000, 'Oil Change', 70.0, 'Synthetic oil change', 1),
+(46, 'Honda', 'Civic', '2.0L', 2018, 2022, 60000, 100000, 'Brake Pad Replacement', 150.0, 'Replace brake pads', 2),
+(47, 'Ford', 'Ranger', '2.3L EcoBoost', 2019, 2023, 30000, 60000, 'Tire Rotation', 50.0, 'Rotate tires for truck', 1),
+(48, 'Ford', 'Ranger', '2.3L EcoBoost', 2019, 2023, 70000, 120000, 'Air Filter Replacement', 60.0, 'Replace engine air filter', 1),
+(49, 'Toyota', 'Avalon', '3.5L V6', 2016, 2020, 40000, 80000, 'Oil Change', 80.0, 'Synthetic oil change', 1),
+(50, 'Toyota', 'Avalon', '3.5L V6', 2016, 2020, 90000, 150000, 'Spark Plug Replacement', 130.0, 'Replace spark plugs', 2);
+
+-- Continue the operation id sequence after the seeded rows
+ALTER SEQUENCE operation_seq RESTART WITH 51;
@@ -0,0 +1,88 @@
+package org.infomedia.catalog;
+
+import org.infomedia.model.CatalogTerm.Kind;
+import org.infomedia.model.Operation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CatalogDictionaryTest {
+
+    private static final String SELECT = "SELECT id FROM catalog_term WHERE kind = ? AND term_key = ?";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private CatalogDictionary catalogDictionary;
+
+    @BeforeEach
+    void setUp() {
+        catalogDictionary = new CatalogDictionary(jdbcTemplate, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void find_shouldNormalizeAndCacheKnownTerms() {
+        when(jdbcTemplate.queryForList(SELECT, Integer.class, "MAKE", "toyota")).thenReturn(List.of(3));
+
+        assertThat(catalogDictionary.find(Kind.MAKE, "Toyota ")).isEqualTo(3);
+        assertThat(catalogDictionary.find(Kind.MAKE, "TOYOTA")).isEqualTo(3);
+
+        verify(jdbcTemplate, times(1)).queryForList(SELECT, Integer.class, "MAKE", "toyota");
+    }
+
+    @Test
+    void find_shouldReturnUnknownWithoutCachingIt() {
+        when(jdbcTemplate.queryForList(SELECT, Integer.class, "MODEL", "corolla"))
+                .thenReturn(List.of())
+                .thenReturn(List.of(5));
+
+        assertThat(catalogDictionary.find(Kind.MODEL, "Corolla")).isEqualTo(CatalogDictionary.UNKNOWN);
+        assertThat(catalogDictionary.find(Kind.MODEL, "Corolla")).isEqualTo(5);
+        assertThat(catalogDictionary.find(Kind.MODEL, null)).isNull();
+    }
+
+    @Test
+    void idFor_shouldInsertMissingTermsWithTheirFirstSpelling() {
+        when(jdbcTemplate.queryForList(SELECT, Integer.class, "ENGINE", "1.8l"))
+                .thenReturn(List.of())
+                .thenReturn(List.of(9));
+
+        assertThat(catalogDictionary.idFor(Kind.ENGINE, " 1.8L")).isEqualTo(9);
+        assertThat(catalogDictionary.idFor(Kind.ENGINE, "1.8l")).isEqualTo(9);
+
+        verify(jdbcTemplate, times(1))
+                .update("INSERT INTO catalog_term (kind, term_key, name) VALUES (?, ?, ?)", "ENGINE", "1.8l", "1.8L");
+    }
+
+    @Test
+    void idFor_shouldReadBackTermsCreatedConcurrently() {
+        when(jdbcTemplate.queryForList(SELECT, Integer.class, "MAKE", "honda"))
+                .thenReturn(List.of())
+                .thenReturn(List.of(4));
+        when(jdbcTemplate.update(anyString(), anyString(), anyString(), anyString()))
+                .thenThrow(new DuplicateKeyException("uk_catalog_term"));
+
+        assertThat(catalogDictionary.idFor(Kind.MAKE, "Honda")).isEqualTo(4);
+    }
+
+    @Test
+    void encode_shouldSetTheIdsOfAnOperation() {
+        when(jdbcTemplate.queryForList(SELECT, Integer.class, "MAKE", "toyota")).thenReturn(List.of(1));
+        when(jdbcTemplate.queryForList(SELECT, Integer.class, "MODEL", "corolla")).thenReturn(List.of(2));
+        when(jdbcTemplate.queryForList(SELECT, Integer.class, "ENGINE", "1.8l")).thenReturn(List.of(3));
+        Operation operation = Operation.builder().brand("Toyota").model("Corolla").engine("1.8L").build();
+
+        catalogDictionary.encode(operation);
+
+        assertThat(operation.getMakeId()).isEqualTo(1);
+        assertThat(operation.getModelId()).isEqualTo(2);
+        assertThat(operation.getEngineId()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,77 @@
+package org.infomedia.catalog;
+
+import org.infomedia.model.Operation;
+import org.infomedia.model.Vehicle;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogGeneratorTest {
+
+    @Test
+    void sameSeed_shouldGenerateTheSameCatalog() {
+        List<String> first = describe(new CatalogGenerator(7, 500, 2000));
+        List<String> second = describe(new CatalogGenerator(7, 500, 2000));
+        List<String> other = describe(new CatalogGenerator(8, 500, 2000));
+
+        assertThat(first).hasSize(2500).isEqualTo(second);
+        assertThat(other).isNotEqualTo(first);
+    }
+
+    @Test
+    void vehicles_shouldBeUniquePerConfigurationAndYear() {
+        List<Vehicle> vehicles = new CatalogGenerator(1, 20_000, 0).vehicles().toList();
+
+        assertThat(vehicles).hasSize(20_000);
+        assertThat(vehicles.stream()
+                .map(v -> v.getBrand() + '|' + v.getModel() + '|' + v.getEngine() + '|' + v.getMakeYear())
+                .distinct()
+                .count()).isEqualTo(20_000);
+        assertThat(vehicles).allSatisfy(v -> assertThat(v.getMakeYear())
+                .isBetween(CatalogGenerator.FIRST_YEAR, CatalogGenerator.LAST_YEAR));
+    }
+
+    @Test
+    void operations_shouldHaveValidOverlappingRangesAndBoundedDescriptions() {
+        List<Operation> operations = new CatalogGenerator(3, 0, 20_000).operations().toList();
+
+        assertThat(operations).allSatisfy(operation -> {
+            assertThat(operation.getYearStart()).isLessThanOrEqualTo(operation.getYearEnd());
+            assertThat(operation.getDistanceStart()).isLessThan(operation.getDistanceEnd());
+            assertThat(operation.getDescription()).hasSizeBetween(1, CatalogGenerator.MAX_DESCRIPTION_LENGTH);
+        });
+        assertThat(operations).anySatisfy(operation ->
+                assertThat(operation.getDescription()).hasSizeGreaterThan(1900));
+    }
+
+    @Test
+    void operations_shouldFavourPopularBrands() {
+        Map<String, Long> perBrand = new CatalogGenerator(5, 0, 20_000).operations()
+                .collect(Collectors.groupingBy(Operation::getBrand, Collectors.counting()));
+        List<Long> counts = perBrand.values().stream().sorted().toList();
+
+        assertThat(counts.get(counts.size() - 1)).isGreaterThan(3 * counts.get(counts.size() / 2));
+    }
+
+    @Test
+    void negativeSize_shouldBeRejected() {
+        assertThatThrownBy(() -> new CatalogGenerator(1, -1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<String> describe(CatalogGenerator generator) {
+        Function<Operation, String> operation = o -> String.join("|", o.getBrand(), o.getModel(), o.getEngine(),
+                o.getYearStart() + "-" + o.getYearEnd(), o.getDistanceStart() + "-" + o.getDistanceEnd(),
+                o.getName(), String.valueOf(o.getApproxCost()), o.getDescription(), String.valueOf(o.getTime()));
+        return Stream.concat(
+                generator.vehicles().map(v -> v.getBrand() + '|' + v.getModel() + '|' + v.getEngine() + '|'
+                        + v.getMakeYear()),
+                generator.operations().map(operation)).toList();
+    }
+}
@@ -0,0 +1,57 @@
+package org.infomedia.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogLoaderTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CatalogDictionary catalogDictionary;
+
+    @InjectMocks
+    private CatalogLoader catalogLoader;
+
+    @Test
+    void load_shouldInsertInBatchesAfterExistingIdsAndMoveTheSequence() {
+        when(jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM operation", Long.class)).thenReturn(50L);
+        List<Integer> vehicleBatches = new ArrayList<>();
+        List<Integer> operationBatches = new ArrayList<>();
+        List<Object> firstOperationIds = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            List<Object[]> batch = invocation.getArgument(1);
+            if (sql.startsWith("INSERT INTO vehicle")) {
+                vehicleBatches.add(batch.size());
+            } else {
+                operationBatches.add(batch.size());
+                firstOperationIds.add(batch.get(0)[0]);
+            }
+            return new int[batch.size()];
+        });
+
+        CatalogLoader.Result result = catalogLoader.load(new CatalogGenerator(1, 1500, 2500));
+
+        assertThat(result).isEqualTo(new CatalogLoader.Result(1500, 2500));
+        assertThat(vehicleBatches).containsExactly(1000, 500);
+        assertThat(operationBatches).containsExactly(1000, 1000, 500);
+        assertThat(firstOperationIds).containsExactly(51L, 1051L, 2051L);
+        verify(jdbcTemplate).execute("ALTER SEQUENCE operation_seq RESTART WITH 2551");
+    }
+}
@@ -0,0 +1,165 @@
+package org.infomedia.catalog;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.infomedia.catalog.CatalogSnapshot.InvalidSnapshotException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSnapshotTest {
+
+    private static final long SOURCE = CatalogSnapshot.sourceFingerprint(
+            List.of("INSERT ...".getBytes(StandardCharsets.UTF_8)), "vehicles=0,operations=0,seed=42");
+
+    @TempDir
+    Path directory;
+
+    private JdbcDataSource source;
+
+    private JdbcTemplate sourceJdbc;
+
+    private Path path;
+
+    @BeforeEach
+    void setUp() {
+        source = h2();
+        sourceJdbc = new JdbcTemplate(source);
+        path = directory.resolve("catalog.snapshot");
+        sourceJdbc.update("INSERT INTO catalog_term (kind, term) VALUES ('MAKE', 'Toyota'), ('MODEL', 'Corolla')");
+        sourceJdbc.update("INSERT INTO vehicle (brand, model, model_year) VALUES ('Toyota', 'Corolla', 2018), "
+                + "('Toyota', 'Corolla', NULL)");
+        sourceJdbc.update("INSERT INTO operation (id, vehicle_id, name, labor_time) VALUES "
+                + "(NEXT VALUE FOR operation_seq, 1, 'Oil change', 0.5), "
+                + "(NEXT VALUE FOR operation_seq, 2, 'Remplacement des plaquettes ✓', NULL)");
+        sourceJdbc.update("INSERT INTO operation_tombstone (operation_id, version) VALUES (99, 3)");
+        sourceJdbc.update("INSERT INTO catalog_version (id, version) VALUES (1, 4)");
+        sourceJdbc.update("INSERT INTO vehicle_operation (vehicle_id, operation_id) VALUES (1, 1), (2, 2), (1, 2)");
+    }
+
+    @Test
+    void load_shouldRestoreTheRowsAndContinueTheIds() throws Exception {
+        CatalogSnapshot.Result written = new CatalogSnapshot(source, path, SOURCE).write();
+        assertThat(written.rows()).isEqualTo(11);
+        assertThat(written.catalogVersion()).isEqualTo(4);
+        assertThat(written.bytes()).isEqualTo(Files.size(path));
+
+        JdbcDataSource target = h2();
+        CatalogSnapshot snapshot = new CatalogSnapshot(target, path, SOURCE);
+        CatalogSnapshot.Result loaded = snapshot.load();
+
+        assertThat(loaded.rows()).isEqualTo(11);
+        assertThat(loaded.catalogVersion()).isEqualTo(4);
+        assertThat(snapshot.loaded()).isTrue();
+        JdbcTemplate jdbc = new JdbcTemplate(target);
+        for (String query : List.of("SELECT * FROM catalog_term ORDER BY id", "SELECT * FROM vehicle ORDER BY id",
+                "SELECT * FROM operation ORDER BY id", "SELECT * FROM operation_tombstone ORDER BY id",
+                "SELECT * FROM catalog_version", "SELECT * FROM vehicle_operation ORDER BY vehicle_id, operation_id")) {
+            assertThat(jdbc.queryForList(query)).isEqualTo(sourceJdbc.queryForList(query));
+        }
+        jdbc.update("INSERT INTO vehicle (brand, model, model_year) VALUES ('Honda', 'Civic', 2020)");
+        jdbc.update("INSERT INTO operation (id, vehicle_id, name) VALUES (NEXT VALUE FOR operation_seq, 3, 'Tires')");
+        assertThat(jdbc.queryForObject("SELECT MAX(id) FROM vehicle", Long.class)).isEqualTo(3L);
+        assertThat(jdbc.queryForObject("SELECT MAX(id) FROM operation", Long.class)).isEqualTo(3L);
+    }
+
+    @Test
+    void write_shouldProduceIdenticalSnapshotsOfTheSameCatalog() throws Exception {
+        Path other = directory.resolve("other.snapshot");
+        new CatalogSnapshot(source, path, SOURCE).write();
+        new CatalogSnapshot(source, other, SOURCE).write();
+
+        assertThat(Files.readAllBytes(other)).isEqualTo(Files.readAllBytes(path));
+        assertThat(directory.resolve("catalog.snapshot.tmp")).doesNotExist();
+    }
+
+    @Test
+    void load_shouldRejectACorruptSnapshot() throws Exception {
+        new CatalogSnapshot(source, path, SOURCE).write();
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(path, bytes);
+
+        assertRejected(new CatalogSnapshot(h2(), path, SOURCE), "checksum mismatch");
+    }
+
+    @Test
+    void load_shouldRejectASnapshotOfOtherDataScripts() throws Exception {
+        new CatalogSnapshot(source, path, SOURCE).write();
+        long otherSource = CatalogSnapshot.sourceFingerprint(
+                List.of("INSERT ...".getBytes(StandardCharsets.UTF_8)), "vehicles=10,operations=0,seed=42");
+
+        assertRejected(new CatalogSnapshot(h2(), path, otherSource), "written from other data scripts");
+    }
+
+    @Test
+    void load_shouldRejectASnapshotOfOtherColumns() throws Exception {
+        new CatalogSnapshot(source, path, SOURCE).write();
+        JdbcDataSource target = h2();
+        new JdbcTemplate(target).execute("ALTER TABLE operation ADD COLUMN part_number VARCHAR(64)");
+
+        assertRejected(new CatalogSnapshot(target, path, SOURCE), "written for other table columns");
+    }
+
+    @Test
+    void load_shouldLeaveANonEmptyCatalogAlone() throws Exception {
+        new CatalogSnapshot(source, path, SOURCE).write();
+
+        assertRejected(new CatalogSnapshot(source, path, SOURCE), "the catalog is not empty");
+        assertThat(sourceJdbc.queryForObject("SELECT COUNT(*) FROM vehicle_operation", Long.class)).isEqualTo(3L);
+    }
+
+    @Test
+    void load_shouldRejectAMissingSnapshot() {
+        assertRejected(new CatalogSnapshot(h2(), path, SOURCE), "no snapshot");
+    }
+
+    @Test
+    void load_shouldDeletePartiallyLoadedRowsWhenATableFails() throws Exception {
+        new CatalogSnapshot(source, path, SOURCE).write();
+        JdbcDataSource target = h2();
+        JdbcTemplate jdbc = new JdbcTemplate(target);
+        jdbc.execute("ALTER TABLE vehicle_operation ADD CONSTRAINT no_pairs CHECK (vehicle_id <> 1)");
+
+        assertThatThrownBy(() -> new CatalogSnapshot(target, path, SOURCE).load())
+                .isInstanceOf(InvalidSnapshotException.class);
+        for (CatalogSnapshot.Table table : CatalogSnapshot.TABLES) {
+            assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM " + table.name(), Long.class)).isZero();
+        }
+    }
+
+    private static void assertRejected(CatalogSnapshot snapshot, String reason) {
+        assertThatThrownBy(snapshot::load)
+                .isInstanceOf(InvalidSnapshotException.class)
+                .hasMessageContaining(reason);
+        assertThat(snapshot.loaded()).isFalse();
+    }
+
+    private static JdbcDataSource h2() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE catalog_term (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "kind VARCHAR(16) NOT NULL, term VARCHAR(255) NOT NULL)");
+        jdbc.execute("CREATE TABLE vehicle (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "brand VARCHAR(255), model VARCHAR(255), model_year INTEGER)");
+        jdbc.execute("CREATE SEQUENCE operation_seq START WITH 1 INCREMENT BY 1");
+        jdbc.execute("CREATE TABLE operation (id BIGINT PRIMARY KEY, vehicle_id BIGINT REFERENCES vehicle (id), "
+                + "name VARCHAR(255), labor_time DOUBLE PRECISION)");
+        jdbc.execute("CREATE TABLE operation_tombstone (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "operation_id BIGINT NOT NULL, version BIGINT NOT NULL)");
+        jdbc.execute("CREATE TABLE catalog_version (id INTEGER PRIMARY KEY, version BIGINT NOT NULL)");
+        jdbc.execute("CREATE TABLE vehicle_operation (vehicle_id BIGINT NOT NULL REFERENCES vehicle (id), "
+                + "operation_id BIGINT NOT NULL REFERENCES operation (id), PRIMARY KEY (vehicle_id, operation_id))");
+        return dataSource;
+    }
+}
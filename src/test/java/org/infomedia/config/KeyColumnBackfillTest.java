@@ -0,0 +1,78 @@
+package org.infomedia.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyColumnBackfillTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private KeyColumnBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                CREATE TABLE catalog_term (id INT AUTO_INCREMENT PRIMARY KEY, kind VARCHAR(8) NOT NULL,
+                                           term_key VARCHAR(255) NOT NULL, name VARCHAR(255) NOT NULL)
+                """);
+        jdbcTemplate.execute("""
+                CREATE TABLE operation (id BIGINT PRIMARY KEY, brand VARCHAR(255), model VARCHAR(255),
+                                        engine VARCHAR(255), make_id INT, model_id INT, engine_id INT)
+                """);
+        backfill = new KeyColumnBackfill(jdbcTemplate);
+        ReflectionTestUtils.setField(backfill, "chunkSize", 2);
+    }
+
+    @Test
+    void backfill_shouldFillIdsInChunks() {
+        jdbcTemplate.update("""
+                INSERT INTO operation (id, brand, model, engine) VALUES
+                (1, 'Toyota', 'Camry', '2.5L'), (2, ' toyota', 'CAMRY', '2.5l'), (3, 'Honda', 'Civic', '1.5L'),
+                (4, 'Honda', 'Civic', '2.0L'), (5, 'Mazda', 'CX-5', '2.5L')
+                """);
+
+        assertThat(backfill.backfill("operation")).isEqualTo(5);
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT make_id, model_id, engine_id FROM operation ORDER BY id");
+        assertThat(rows).allSatisfy(row -> assertThat(row.values()).doesNotContainNull());
+        assertThat(rows.get(0)).isEqualTo(rows.get(1));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM catalog_term WHERE kind = 'MAKE'", Integer.class))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void backfill_shouldTerminateWhenRawColumnsAreNull() {
+        jdbcTemplate.update("""
+                INSERT INTO operation (id, brand, model, engine) VALUES
+                (1, NULL, 'Camry', '2.5L'), (2, 'Honda', NULL, NULL), (3, NULL, NULL, NULL),
+                (4, NULL, NULL, NULL), (5, 'Mazda', 'CX-5', NULL)
+                """);
+
+        assertThat(backfill.backfill("operation")).isEqualTo(3);
+
+        assertThat(jdbcTemplate.queryForList("SELECT make_id, model_id, engine_id FROM operation ORDER BY id"))
+                .extracting(row -> Arrays.asList(row.get("MAKE_ID") != null, row.get("MODEL_ID") != null,
+                        row.get("ENGINE_ID") != null))
+                .containsExactly(
+                        List.of(false, true, true),
+                        List.of(true, false, false),
+                        List.of(false, false, false),
+                        List.of(false, false, false),
+                        List.of(true, true, false));
+        assertThat(backfill.backfill("operation")).isZero();
+    }
+}
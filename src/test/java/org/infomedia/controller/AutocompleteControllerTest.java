@@ -0,0 +1,84 @@
+package org.infomedia.controller;
+
+import org.infomedia.index.AutocompleteIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AutocompleteController.class)
+class AutocompleteControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AutocompleteIndex autocompleteIndex;
+
+    @Test
+    void brands_shouldReturn200_withDefaultLimit() throws Exception {
+        when(autocompleteIndex.brands("to", 10)).thenReturn(List.of("Toyota"));
+
+        mockMvc.perform(get("/autocomplete/brands").param("prefix", "to"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("Toyota"));
+    }
+
+    @Test
+    void models_shouldReturn200() throws Exception {
+        when(autocompleteIndex.models("Toyota", "", 5)).thenReturn(List.of("Camry", "Corolla"));
+
+        mockMvc.perform(get("/autocomplete/models").param("brand", "Toyota").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1]").value("Corolla"));
+    }
+
+    @Test
+    void engines_shouldReturn200() throws Exception {
+        when(autocompleteIndex.engines("Toyota", "Corolla", "1", 10)).thenReturn(List.of("1.8L"));
+
+        mockMvc.perform(get("/autocomplete/engines")
+                        .param("brand", "Toyota").param("model", "Corolla").param("prefix", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("1.8L"));
+    }
+
+    @Test
+    void brands_shouldReturn400_whenLimitOutOfRange() throws Exception {
+        mockMvc.perform(get("/autocomplete/brands").param("limit", "101"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("limit must be between 1 and 100"));
+
+        verify(autocompleteIndex, never()).brands(anyString(), anyInt());
+    }
+
+    @Test
+    void models_shouldReturn400_whenBrandIsMissing() throws Exception {
+        mockMvc.perform(get("/autocomplete/models").param("prefix", "Ca"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Missing required parameter 'brand'"));
+
+        verify(autocompleteIndex, never()).models(anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    void brands_shouldReturn400_whenLimitIsNotANumber() throws Exception {
+        mockMvc.perform(get("/autocomplete/brands").param("limit", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid value 'abc' for parameter 'limit'"));
+
+        verify(autocompleteIndex, never()).brands(anyString(), anyInt());
+    }
+}
@@ -1,30 +1,47 @@
 package org.infomedia.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.infomedia.dto.CountMode;
+import org.infomedia.dto.CursorPage;
+import org.infomedia.dto.OperationChange;
+import org.infomedia.dto.OperationChangeFeed;
+import org.infomedia.dto.ExportFormat;
 import org.infomedia.dto.OperationRequest;
 import org.infomedia.dto.OperationResponse;
+import org.infomedia.service.ExportService;
+import org.infomedia.service.OperationChangeLog;
+import org.infomedia.service.OperationImportService;
 import org.infomedia.service.OperationService;
+import org.infomedia.web.ExportResponses;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(OperationController.class)
+@Import(ExportResponses.class)
 class OperationControllerTest {
 
     @Autowired
@@ -36,6 +53,15 @@ class OperationControllerTest {
     @MockBean
     private OperationService operationService;
 
+    @MockBean
+    private OperationImportService operationImportService;
+
+    @MockBean
+    private ExportService exportService;
+
+    @MockBean
+    private OperationChangeLog operationChangeLog;
+
     @Test
     void create_shouldReturn200_whenValidRequest() throws Exception {
         OperationRequest request = new OperationRequest("Toyota", "Corolla", "2.0",
@@ -88,7 +114,7 @@ class OperationControllerTest {
         Page<OperationResponse> page =
                 new PageImpl<>(List.of(response), PageRequest.of(0, 10), 1);
 
-        Mockito.when(operationService.search(any(), any()))
+        Mockito.when(operationService.search(any(), any(), eq(CountMode.EXACT)))
                 .thenReturn(page);
 
         mockMvc.perform(get("/operations/search")
@@ -129,7 +155,7 @@ class OperationControllerTest {
 
     @Test
     void search_shouldReturnEmptyPage_whenNoResultsFound() throws Exception {
-        Mockito.when(operationService.search(any(), any(Pageable.class)))
+        Mockito.when(operationService.search(any(), any(Pageable.class), eq(CountMode.EXACT)))
                 .thenReturn(new PageImpl<>(Collections.emptyList()));
 
         mockMvc.perform(get("/operations/search")
@@ -138,4 +164,125 @@ class OperationControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content").isEmpty());
     }
+
+    @Test
+    void search_shouldUseKeysetPagination_whenCursorPresent() throws Exception {
+        OperationResponse response = new OperationResponse();
+        response.setId(7L);
+        response.setBrand("Mazda");
+
+        Mockito.when(operationService.seek(any(), eq("abc"), any(Pageable.class)))
+                .thenReturn(new CursorPage<>(List.of(response), 1, "def"));
+
+        mockMvc.perform(get("/operations/search")
+                        .param("brand", "Mazda")
+                        .param("cursor", "abc")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(7L))
+                .andExpect(jsonPath("$.nextCursor").value("def"))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void search_shouldReturnSliceWithoutTotal_whenCountNone() throws Exception {
+        OperationResponse response = new OperationResponse();
+        response.setId(1L);
+        response.setBrand("Mazda");
+
+        Mockito.when(operationService.search(any(), any(Pageable.class), eq(CountMode.NONE)))
+                .thenReturn(new SliceImpl<>(List.of(response), PageRequest.of(0, 1), true));
+
+        mockMvc.perform(get("/operations/search")
+                        .param("brand", "Mazda")
+                        .param("count", "NONE")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1L))
+                .andExpect(jsonPath("$.last").value(false))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void search_shouldReturn400_whenCountModeIsUnknown() throws Exception {
+        mockMvc.perform(get("/operations/search")
+                        .param("brand", "Mazda")
+                        .param("count", "bogus"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(
+                        "Invalid value 'bogus' for parameter 'count', expected one of EXACT, NONE, ESTIMATE"));
+
+        Mockito.verifyNoInteractions(operationService);
+    }
+
+    @Test
+    void export_shouldStreamGzippedCsv_whenClientAcceptsGzip() throws Exception {
+        MvcResult result = mockMvc.perform(get("/operations/export")
+                        .param("brand", "Mazda")
+                        .param("format", "CSV")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        Mockito.verify(exportService).exportOperations(
+                argThat(request -> "Mazda".equals(request.getBrand())), eq(ExportFormat.CSV), eq(true), any());
+    }
+
+    @Test
+    void export_shouldReturn400_whenTextSearchRequested() throws Exception {
+        mockMvc.perform(get("/operations/export").param("text", "brake"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Export does not support text search"));
+        Mockito.verifyNoInteractions(exportService);
+    }
+
+    @Test
+    void delete_shouldReturn204() throws Exception {
+        mockMvc.perform(delete("/operations/{id}", 5L))
+                .andExpect(status().isNoContent());
+        Mockito.verify(operationService).delete(5L);
+    }
+
+    @Test
+    void changes_shouldReturnTheFeed() throws Exception {
+        Mockito.when(operationChangeLog.changes(10L, "Mazda", 500)).thenReturn(new OperationChangeFeed(
+                List.of(OperationChange.tombstone(4L, 11L)), 11L, false));
+
+        mockMvc.perform(get("/operations/changes").param("since", "10").param("brand", "Mazda"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].id").value(4))
+                .andExpect(jsonPath("$.changes[0].deleted").value(true))
+                .andExpect(jsonPath("$.changes[0].operation").doesNotExist())
+                .andExpect(jsonPath("$.version").value(11))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void changes_shouldReturn400_whenLimitOutOfRange() throws Exception {
+        mockMvc.perform(get("/operations/changes").param("limit", "1001"))
+                .andExpect(status().isBadRequest());
+        Mockito.verifyNoInteractions(operationChangeLog);
+    }
+
+    @Test
+    void changes_shouldReturn400_whenSinceIsNotANumber() throws Exception {
+        mockMvc.perform(get("/operations/changes").param("since", "x"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid value 'x' for parameter 'since'"));
+        Mockito.verifyNoInteractions(operationChangeLog);
+    }
+
+    @Test
+    void export_shouldReturn400_whenFormatIsUnknown() throws Exception {
+        mockMvc.perform(get("/operations/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(
+                        "Invalid value 'xml' for parameter 'format', expected one of NDJSON, CSV"));
+        Mockito.verifyNoInteractions(exportService);
+    }
 }
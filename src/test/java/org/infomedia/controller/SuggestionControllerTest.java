@@ -1,14 +1,23 @@
 package org.infomedia.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.infomedia.dto.CountMode;
+import org.infomedia.dto.EstimatedPage;
+import org.infomedia.dto.SuggestionBatchRequest;
+import org.infomedia.dto.SuggestionBatchResponse;
+import org.infomedia.dto.SuggestionCostResponse;
 import org.infomedia.dto.SuggestionRequest;
 import org.infomedia.dto.SuggestionResponse;
+import org.infomedia.service.OperationChangeLog;
+import org.infomedia.service.SuggestionCoalescer;
 import org.infomedia.service.SuggestionService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -19,10 +28,12 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(SuggestionController.class)
+@Import({SuggestionCoalescer.class, SimpleMeterRegistry.class})
 class SuggestionControllerTest {
 
     @Autowired
@@ -34,6 +45,9 @@ class SuggestionControllerTest {
     @MockBean
     private SuggestionService suggestionService;
 
+    @MockBean
+    private OperationChangeLog operationChangeLog;
+
     @Test
     void suggest_shouldReturn200_withResults() throws Exception {
         SuggestionRequest request = new SuggestionRequest("Honda", "Civic", "2.0 Turbo",
@@ -44,7 +58,7 @@ class SuggestionControllerTest {
         Page<SuggestionResponse> page =
                 new PageImpl<>(List.of(response), PageRequest.of(0, 10), 1);
 
-        Mockito.when(suggestionService.suggest(any(SuggestionRequest.class), any()))
+        Mockito.when(suggestionService.suggest(any(SuggestionRequest.class), any(), eq(CountMode.EXACT)))
                 .thenReturn(page);
 
         mockMvc.perform(post("/suggestions")
@@ -62,7 +76,7 @@ class SuggestionControllerTest {
         Page<SuggestionResponse> emptyPage =
                 new PageImpl<>(Collections.emptyList(), PageRequest.of(0, 10), 0);
 
-        Mockito.when(suggestionService.suggest(any(SuggestionRequest.class), any()))
+        Mockito.when(suggestionService.suggest(any(SuggestionRequest.class), any(), eq(CountMode.EXACT)))
                 .thenReturn(emptyPage);
 
         mockMvc.perform(post("/suggestions")
@@ -72,6 +86,27 @@ class SuggestionControllerTest {
                 .andExpect(jsonPath("$.content").isEmpty());
     }
 
+    @Test
+    void suggest_shouldFlagAPendingEstimateAndForbidStoringIt() throws Exception {
+        SuggestionRequest request = new SuggestionRequest("Honda", "Civic", "2.0 Turbo",
+                2020, 50000d);
+        SuggestionResponse response = new SuggestionResponse(1L, "Brake Pad Replacement",
+                "Replace front and rear brake pads", 150d, 2,
+                "Honda", "Civic", "2.0 Turbo");
+
+        Mockito.when(suggestionService.suggest(any(SuggestionRequest.class), any(), eq(CountMode.ESTIMATE)))
+                .thenReturn(new EstimatedPage<>(List.of(response), PageRequest.of(0, 1), 2));
+
+        mockMvc.perform(post("/suggestions")
+                        .param("count", "ESTIMATE")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(jsonPath("$.estimated").value(true))
+                .andExpect(jsonPath("$.totalElements").value(2));
+    }
+
     @Test
     void suggest_shouldReturn400_whenInvalidRequest() throws Exception {
         SuggestionRequest invalidRequest = new SuggestionRequest();
@@ -82,12 +117,51 @@ class SuggestionControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void suggest_shouldReturn400_whenUnitIsUnknown() throws Exception {
+        mockMvc.perform(post("/suggestions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"brand":"Honda","model":"Civic","engine":"2.0 Turbo",
+                                 "makeYear":2020,"totalDistance":50000,"unit":"parsecs"}
+                                """))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unknown distance unit: parsecs"));
+
+        Mockito.verifyNoInteractions(suggestionService);
+    }
+
+    @Test
+    void suggest_shouldReturn400_whenCountModeIsUnknown() throws Exception {
+        SuggestionRequest request = new SuggestionRequest("Honda", "Civic", "2.0 Turbo",
+                2020, 50000d);
+
+        mockMvc.perform(post("/suggestions")
+                        .param("count", "bogus")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(
+                        "Invalid value 'bogus' for parameter 'count', expected one of EXACT, NONE, ESTIMATE"));
+
+        Mockito.verifyNoInteractions(suggestionService);
+    }
+
+    @Test
+    void suggest_shouldReturn400_whenBodyIsMalformed() throws Exception {
+        mockMvc.perform(post("/suggestions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"brand\":"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
     @Test
     void suggest_shouldReturn500_whenServiceThrowsException() throws Exception {
         SuggestionRequest request = new SuggestionRequest("Honda", "Civic", "2.0 Turbo",
                 2020, 50000d);
 
-        Mockito.when(suggestionService.suggest(any(SuggestionRequest.class), any()))
+        Mockito.when(suggestionService.suggest(any(SuggestionRequest.class), any(), eq(CountMode.EXACT)))
                 .thenThrow(new RuntimeException("Service error"));
 
         mockMvc.perform(post("/suggestions")
@@ -95,4 +169,83 @@ class SuggestionControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isInternalServerError());
     }
+
+    @Test
+    void suggestBatch_shouldReturn200_withResultPerItem() throws Exception {
+        SuggestionBatchRequest request = new SuggestionBatchRequest(List.of(
+                new SuggestionRequest("Honda", "Civic", "2.0 Turbo", 2020, 50000d),
+                new SuggestionRequest("Toyota", "Corolla", "1.8L", 2016, 20000d)), 5);
+        SuggestionResponse response = new SuggestionResponse(1L, "Brake Pad Replacement",
+                "Replace front and rear brake pads", 150d, 2,
+                "Honda", "Civic", "2.0 Turbo");
+        SuggestionBatchResponse batchResponse = new SuggestionBatchResponse(List.of(
+                new SuggestionBatchResponse.Item(0, 1, List.of(response)),
+                new SuggestionBatchResponse.Item(1, 0, List.of())));
+
+        Mockito.when(suggestionService.suggestBatch(any(SuggestionBatchRequest.class)))
+                .thenReturn(batchResponse);
+
+        mockMvc.perform(post("/suggestions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].suggestions[0].operationId").value(1L))
+                .andExpect(jsonPath("$.results[1].index").value(1))
+                .andExpect(jsonPath("$.results[1].suggestions").isEmpty());
+    }
+
+    @Test
+    void suggestBatch_shouldReturn400_whenItemInvalid() throws Exception {
+        SuggestionBatchRequest request = new SuggestionBatchRequest(List.of(new SuggestionRequest()), null);
+
+        mockMvc.perform(post("/suggestions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors['items[0].brand']").exists());
+    }
+
+    @Test
+    void costs_shouldReturn200_withTotalsAndBreakdown() throws Exception {
+        SuggestionRequest request = new SuggestionRequest("Honda", "Civic", "2.0 Turbo", 2020, 50000d);
+        SuggestionCostResponse response = new SuggestionCostResponse(3, 400d, 5, List.of(
+                new SuggestionCostResponse.Item("Brake Pad Replacement", 2, 300d, 4),
+                new SuggestionCostResponse.Item("Oil Change", 1, 100d, 1)));
+
+        Mockito.when(suggestionService.costs(any(SuggestionRequest.class), eq(true))).thenReturn(response);
+
+        mockMvc.perform(post("/suggestions/costs")
+                        .param("breakdown", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(3))
+                .andExpect(jsonPath("$.totalCost").value(400d))
+                .andExpect(jsonPath("$.totalTime").value(5))
+                .andExpect(jsonPath("$.breakdown[0].name").value("Brake Pad Replacement"))
+                .andExpect(jsonPath("$.breakdown[1].count").value(1));
+    }
+
+    @Test
+    void costs_shouldOmitTheBreakdownByDefault() throws Exception {
+        SuggestionRequest request = new SuggestionRequest("Honda", "Civic", "2.0 Turbo", 2020, 50000d);
+
+        Mockito.when(suggestionService.costs(any(SuggestionRequest.class), eq(false)))
+                .thenReturn(new SuggestionCostResponse(0, 0d, 0, null));
+
+        mockMvc.perform(post("/suggestions/costs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(0))
+                .andExpect(jsonPath("$.breakdown").doesNotExist());
+    }
+
+    @Test
+    void costs_shouldReturn400_whenInvalidRequest() throws Exception {
+        mockMvc.perform(post("/suggestions/costs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new SuggestionRequest())))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -1,29 +1,46 @@
 package org.infomedia.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.infomedia.dto.ExportFormat;
+import org.infomedia.dto.SuggestionResponse;
+import org.infomedia.dto.VehicleResponse;
+import org.infomedia.model.Operation;
 import org.infomedia.model.Vehicle;
+import org.infomedia.repository.OperationRepository;
 import org.infomedia.repository.VehicleRepository;
+import org.infomedia.service.ExportService;
+import org.infomedia.service.SuggestionService;
+import org.infomedia.service.VehicleService;
+import org.infomedia.web.ExportResponses;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Collections;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(VehicleController.class)
+@Import(ExportResponses.class)
 class VehicleControllerTest {
 
     @Autowired
@@ -35,6 +52,18 @@ class VehicleControllerTest {
     @MockBean
     private VehicleRepository vehicleRepository;
 
+    @MockBean
+    private OperationRepository operationRepository;
+
+    @MockBean
+    private VehicleService vehicleService;
+
+    @MockBean
+    private SuggestionService suggestionService;
+
+    @MockBean
+    private ExportService exportService;
+
     @Test
     void createVehicle_shouldReturn201_whenValidRequest() throws Exception {
         Vehicle vehicle = new Vehicle();
@@ -44,7 +73,7 @@ class VehicleControllerTest {
         vehicle.setEngine("1.8L");
         vehicle.setMakeYear(2020);
 
-        Mockito.when(vehicleRepository.save(any(Vehicle.class))).thenReturn(vehicle);
+        Mockito.when(vehicleService.create(any(Vehicle.class))).thenReturn(vehicle);
 
         mockMvc.perform(post("/vehicles")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -57,28 +86,26 @@ class VehicleControllerTest {
 
     @Test
     void listVehicles_shouldReturn200_withResults() throws Exception {
-        Vehicle vehicle = new Vehicle();
-        vehicle.setId(1L);
-        vehicle.setBrand("Honda");
-        vehicle.setModel("Civic");
+        VehicleResponse vehicle = new VehicleResponse(1L, "Honda", "Civic", "1.5L Turbo", 2017);
 
-        Page<Vehicle> page =
+        Page<VehicleResponse> page =
                 new PageImpl<>(List.of(vehicle), PageRequest.of(0, 10), 1);
 
-        Mockito.when(vehicleRepository.findAll(any(PageRequest.class))).thenReturn(page);
+        Mockito.when(vehicleRepository.findAllResponses(any(PageRequest.class))).thenReturn(page);
 
         mockMvc.perform(get("/vehicles?page=0&size=10"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content[0].brand").value("Honda"))
-                .andExpect(jsonPath("$.content[0].model").value("Civic"));
+                .andExpect(jsonPath("$.content[0].model").value("Civic"))
+                .andExpect(jsonPath("$.content[0].operations").doesNotExist());
     }
 
     @Test
     void listVehicles_shouldReturn200_withEmptyResults() throws Exception {
-        Page<Vehicle> emptyPage =
+        Page<VehicleResponse> emptyPage =
                 new PageImpl<>(Collections.emptyList(), PageRequest.of(0, 10), 0);
 
-        Mockito.when(vehicleRepository.findAll(any(PageRequest.class))).thenReturn(emptyPage);
+        Mockito.when(vehicleRepository.findAllResponses(any(PageRequest.class))).thenReturn(emptyPage);
 
         mockMvc.perform(get("/vehicles?page=0&size=10"))
                 .andExpect(status().isOk())
@@ -97,10 +124,111 @@ class VehicleControllerTest {
 
     @Test
     void listVehicles_shouldReturn500_whenRepositoryThrowsException() throws Exception {
-        Mockito.when(vehicleRepository.findAll(any(PageRequest.class)))
+        Mockito.when(vehicleRepository.findAllResponses(any(PageRequest.class)))
                 .thenThrow(new RuntimeException("Database error"));
 
         mockMvc.perform(get("/vehicles?page=0&size=10"))
                 .andExpect(status().isInternalServerError());
     }
+
+    @Test
+    void listVehicles_shouldReturnCursorPage_whenCursorPresent() throws Exception {
+        Vehicle first = new Vehicle();
+        first.setId(1L);
+        first.setBrand("Honda");
+        Vehicle second = new Vehicle();
+        second.setId(2L);
+        second.setBrand("Toyota");
+
+        Mockito.when(vehicleRepository.findBy(ArgumentMatchers.<Specification<Vehicle>>any(), any()))
+                .thenReturn(List.of(first, second));
+
+        mockMvc.perform(get("/vehicles?cursor=&size=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].brand").value("Honda"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+    }
+
+    @Test
+    void listVehicles_shouldReturn400_whenCursorInvalid() throws Exception {
+        mockMvc.perform(get("/vehicles?cursor=%%%"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listOperations_shouldReturnThePageOfTheVehiclesOperations() throws Exception {
+        Operation operation = Operation.builder().id(7L).brand("Honda").model("Civic").engine("1.5L Turbo")
+                .name("Oil Change").build();
+        Mockito.when(vehicleRepository.existsById(1L)).thenReturn(true);
+        Mockito.when(operationRepository.findByVehicleId(eq(1L), any(PageRequest.class)))
+                .thenReturn(new PageImpl<>(List.of(operation), PageRequest.of(0, 5), 1));
+
+        mockMvc.perform(get("/vehicles/1/operations?page=0&size=5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(7L))
+                .andExpect(jsonPath("$.content[0].name").value("Oil Change"))
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    void listOperations_shouldReturn404_whenVehicleMissing() throws Exception {
+        Mockito.when(vehicleRepository.existsById(99L)).thenReturn(false);
+
+        mockMvc.perform(get("/vehicles/99/operations"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void suggestions_shouldConvertTheDistanceAndReturnApplicableOperations() throws Exception {
+        SuggestionResponse suggestion = new SuggestionResponse();
+        suggestion.setOperationId(7L);
+        suggestion.setName("Oil Change");
+        Mockito.when(vehicleRepository.existsById(1L)).thenReturn(true);
+        Mockito.when(suggestionService.suggestForVehicle(eq(1L), eq(32.18688), any(PageRequest.class)))
+                .thenReturn(new PageImpl<>(List.of(suggestion), PageRequest.of(0, 20), 1));
+
+        mockMvc.perform(get("/vehicles/1/suggestions?totalDistance=20&unit=mi"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].operationId").value(7L))
+                .andExpect(jsonPath("$.content[0].name").value("Oil Change"));
+    }
+
+    @Test
+    void suggestions_shouldReturn400_whenUnitUnknown() throws Exception {
+        mockMvc.perform(get("/vehicles/1/suggestions?totalDistance=20&unit=furlong"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void suggestions_shouldReturn404_whenVehicleMissing() throws Exception {
+        Mockito.when(vehicleRepository.existsById(99L)).thenReturn(false);
+
+        mockMvc.perform(get("/vehicles/99/suggestions?totalDistance=20"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void export_shouldStreamNdjsonWithoutGzip_whenClientDoesNotAcceptIt() throws Exception {
+        MvcResult result = mockMvc.perform(get("/vehicles/export").param("brand", "Toyota"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+        Mockito.verify(exportService).exportVehicles(eq("Toyota"), isNull(), isNull(), isNull(),
+                eq(ExportFormat.NDJSON), eq(false), any());
+    }
+
+    @Test
+    void export_shouldReturn400_whenFormatIsUnknown() throws Exception {
+        mockMvc.perform(get("/vehicles/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(
+                        "Invalid value 'xml' for parameter 'format', expected one of NDJSON, CSV"));
+        Mockito.verifyNoInteractions(exportService);
+    }
 }
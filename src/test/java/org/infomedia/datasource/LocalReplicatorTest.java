@@ -0,0 +1,96 @@
+package org.infomedia.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalReplicatorTest {
+
+    private final Instant now = Instant.parse("2026-01-01T10:00:00Z");
+
+    private JdbcTemplate primary;
+
+    private JdbcTemplate copy;
+
+    private Replica replica;
+
+    private ReplicaLagMonitor monitor;
+
+    private LocalReplicator replicator;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource primaryDataSource = h2();
+        JdbcDataSource replicaDataSource = h2();
+        primary = new JdbcTemplate(primaryDataSource);
+        copy = new JdbcTemplate(replicaDataSource);
+        primary.execute("CREATE TABLE vehicle (id BIGINT PRIMARY KEY, brand VARCHAR(255))");
+        primary.execute("CREATE TABLE operation (id BIGINT PRIMARY KEY, vehicle_id BIGINT REFERENCES vehicle (id))");
+        primary.update("INSERT INTO vehicle VALUES (1, 'Toyota'), (2, 'Honda')");
+        primary.update("INSERT INTO operation VALUES (10, 1)");
+
+        replica = new Replica("replica-1", replicaDataSource);
+        ReplicaSet replicaSet = new ReplicaSet(primaryDataSource, List.of(replica), Duration.ofSeconds(5));
+        monitor = new ReplicaLagMonitor(replicaSet, new SimpleMeterRegistry(), Clock.fixed(now, ZoneOffset.UTC));
+        replicator = new LocalReplicator(replicaSet);
+    }
+
+    @Test
+    void replicate_shouldCopySchemaAndRowsAndMakeTheLagMeasurable() {
+        monitor.check();
+        assertThat(replica.lag()).isNull();
+
+        replicator.replicate();
+        monitor.check();
+
+        assertThat(copy.queryForList("SELECT brand FROM vehicle ORDER BY id", String.class))
+                .containsExactly("Toyota", "Honda");
+        assertThat(copy.queryForObject("SELECT vehicle_id FROM operation", Long.class)).isEqualTo(1L);
+        assertThat(replica.lag()).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void replicate_shouldReplaceRowsOnLaterRounds() {
+        replicator.replicate();
+        primary.update("DELETE FROM operation");
+        primary.update("DELETE FROM vehicle WHERE id = 1");
+        primary.update("INSERT INTO vehicle VALUES (3, 'Ford')");
+
+        assertThat(copy.queryForList("SELECT id FROM vehicle ORDER BY id", Long.class)).containsExactly(1L, 2L);
+
+        replicator.replicate();
+
+        assertThat(copy.queryForList("SELECT id FROM vehicle ORDER BY id", Long.class)).containsExactly(2L, 3L);
+        assertThat(copy.queryForObject("SELECT COUNT(*) FROM operation", Long.class)).isZero();
+    }
+
+    @Test
+    void replicate_shouldRecopyTheSchemaWhenTablesChange() {
+        replicator.replicate();
+        primary.execute("CREATE TABLE catalog_term (id INT PRIMARY KEY, name VARCHAR(255))");
+        primary.update("INSERT INTO catalog_term VALUES (1, 'Toyota')");
+
+        replicator.replicate();
+
+        assertThat(copy.queryForObject("SELECT name FROM catalog_term", String.class)).isEqualTo("Toyota");
+        assertThat(copy.queryForObject("SELECT COUNT(*) FROM vehicle", Long.class)).isEqualTo(2L);
+    }
+
+    private static JdbcDataSource h2() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+}
@@ -0,0 +1,113 @@
+package org.infomedia.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private static final Duration MAX_LAG = Duration.ofSeconds(5);
+
+    private static final Instant NOW = Instant.parse("2026-01-01T10:00:00Z");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final DataSource primary = mock(DataSource.class);
+
+    private final Connection primaryConnection = mock(Connection.class);
+
+    private Instant lastCommit = Instant.MIN;
+
+    @Test
+    void getConnection_shouldRotateOverAvailableReplicas() throws SQLException {
+        Connection first = mock(Connection.class);
+        Connection second = mock(Connection.class);
+        Replica one = replica("replica-1", first, Duration.ofMillis(200));
+        Replica two = replica("replica-2", second, Duration.ofSeconds(1));
+        ReplicaRoutingDataSource routing = routing(one, two);
+
+        assertThat(List.of(routing.getConnection(), routing.getConnection(), routing.getConnection()))
+                .containsExactly(first, second, first);
+        assertThat(count("replica-1")).isEqualTo(2);
+        assertThat(count("replica-2")).isEqualTo(1);
+        assertThat(count("primary")).isZero();
+    }
+
+    @Test
+    void getConnection_shouldSkipLaggingAndUnknownReplicas() throws SQLException {
+        Connection current = mock(Connection.class);
+        Replica lagging = replica("replica-1", mock(Connection.class), Duration.ofSeconds(30));
+        Replica unknown = replica("replica-2", mock(Connection.class), null);
+        Replica upToDate = replica("replica-3", current, Duration.ZERO);
+        ReplicaRoutingDataSource routing = routing(lagging, unknown, upToDate);
+
+        assertThat(routing.getConnection()).isSameAs(current);
+        assertThat(routing.getConnection()).isSameAs(current);
+    }
+
+    @Test
+    void getConnection_shouldFallBackToThePrimary() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        Replica lagging = replica("replica-1", mock(Connection.class), Duration.ofMinutes(1));
+
+        assertThat(routing(lagging).getConnection()).isSameAs(primaryConnection);
+        assertThat(routing().getConnection()).isSameAs(primaryConnection);
+        assertThat(count("primary")).isEqualTo(2);
+    }
+
+    @Test
+    void getConnection_shouldTakeRefusingReplicasOutOfRotation() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        DataSource down = mock(DataSource.class);
+        when(down.getConnection()).thenThrow(new SQLException("Connection refused"));
+        Replica replica = new Replica("replica-1", down);
+        replica.heartbeat(NOW, NOW);
+
+        assertThat(routing(replica).getConnection()).isSameAs(primaryConnection);
+        assertThat(replica.lag()).isNull();
+    }
+
+    @Test
+    void getConnection_shouldKeepReadsOnThePrimaryUntilTheLastCommitIsReplicated() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        Connection current = mock(Connection.class);
+        Replica replica = replica("replica-1", current, Duration.ofSeconds(1));
+        ReplicaRoutingDataSource routing = routing(replica);
+        lastCommit = NOW.minusMillis(500);
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+
+        replica.heartbeat(NOW.minusMillis(400), NOW);
+
+        assertThat(routing.getConnection()).isSameAs(current);
+    }
+
+    private ReplicaRoutingDataSource routing(Replica... replicas) {
+        return new ReplicaRoutingDataSource(new ReplicaSet(primary, List.of(replicas), MAX_LAG), () -> lastCommit,
+                meterRegistry);
+    }
+
+    private static Replica replica(String name, Connection connection, Duration lag) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        Replica replica = new Replica(name, dataSource);
+        if (lag != null) {
+            replica.heartbeat(NOW.minus(lag), NOW);
+        }
+        return replica;
+    }
+
+    private double count(String target) {
+        return meterRegistry.get("datasource.routing.connections").tag("target", target).counter().count();
+    }
+}
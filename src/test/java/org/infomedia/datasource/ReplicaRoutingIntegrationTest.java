@@ -0,0 +1,128 @@
+package org.infomedia.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The {@code replica} profile end to end. Replication and lag checks are driven by the test
+ * instead of the scheduler.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "datasource.replica.max-lag=1s")
+@ActiveProfiles("replica")
+class ReplicaRoutingIntegrationTest {
+
+    private static final Duration MAX_LAG = Duration.ofSeconds(1);
+
+    private static final String VERSION = "SELECT version FROM catalog_version WHERE id = 1";
+
+    @MockBean
+    private LocalReplicator scheduledReplicator;
+
+    @MockBean
+    private ReplicaLagMonitor scheduledMonitor;
+
+    @Autowired
+    private ReplicaSet replicaSet;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private LocalReplicator replicator;
+
+    private ReplicaLagMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        replicator = new LocalReplicator(replicaSet);
+        monitor = new ReplicaLagMonitor(replicaSet, new SimpleMeterRegistry(), Clock.systemUTC());
+    }
+
+    @Test
+    void writesShouldGoToThePrimaryAndReadsToTheReplicaOnceItHasTheWrite() {
+        catchUp();
+        double primaryReads = count("primary");
+        double replicaReads = count("replica-1");
+
+        long before = read();
+
+        assertThat(count("replica-1")).isEqualTo(replicaReads + 1);
+
+        write();
+
+        assertThat(new JdbcTemplate(replicaSet.primary()).queryForObject(VERSION, Long.class)).isEqualTo(before + 1);
+        assertThat(replicaVersion()).isEqualTo(before);
+        assertThat(count("primary")).isEqualTo(primaryReads);
+        assertThat(count("replica-1")).isEqualTo(replicaReads + 1);
+
+        assertThat(read()).isEqualTo(before + 1);
+        assertThat(count("primary")).isEqualTo(primaryReads + 1);
+
+        catchUp();
+
+        assertThat(read()).isEqualTo(before + 1);
+        assertThat(count("replica-1")).isEqualTo(replicaReads + 2);
+    }
+
+    @Test
+    void readsShouldFallBackToThePrimaryWhenTheReplicaLags() throws InterruptedException {
+        catchUp();
+        write();
+        Thread.sleep(MAX_LAG.plusMillis(200).toMillis());
+        monitor.check();
+        double primaryReads = count("primary");
+
+        assertThat(read()).isGreaterThan(replicaVersion());
+
+        assertThat(replicaSet.replicas().get(0).lag()).isGreaterThan(MAX_LAG);
+        assertThat(count("primary")).isEqualTo(primaryReads + 1);
+    }
+
+    /**
+     * Write a heartbeat, replicate it and read it back, so the replica has every commit so far.
+     */
+    private void catchUp() {
+        monitor.check();
+        replicator.replicate();
+        monitor.check();
+    }
+
+    private long read() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> jdbcTemplate.queryForObject(VERSION, Long.class));
+    }
+
+    private void write() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> jdbcTemplate.update("UPDATE catalog_version SET version = version + 1 WHERE id = 1"));
+    }
+
+    private long replicaVersion() {
+        return new JdbcTemplate(replicaSet.replicas().get(0).dataSource()).queryForObject(VERSION, Long.class);
+    }
+
+    private double count(String target) {
+        return meterRegistry.get("datasource.routing.connections").tag("target", target).counter().count();
+    }
+}
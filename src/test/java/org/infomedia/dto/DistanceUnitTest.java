@@ -0,0 +1,55 @@
+package org.infomedia.dto;
+
+import org.junit.jupiter.api.Test;
+import systems.uom.common.USCustomary;
+import tech.units.indriya.quantity.Quantities;
+
+import javax.measure.MetricPrefix;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DistanceUnitTest {
+
+    @Test
+    void miles_shouldMatchIndriyaBitForBit() {
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            double miles = switch (i % 6) {
+                case 0 -> random.nextInt(1_000_000);
+                case 1 -> Math.round(random.nextDouble() * 10_000_000) / 10.0;
+                case 2 -> Math.round(random.nextDouble() * 100_000_000) / 1000.0;
+                case 3 -> random.nextDouble() * 1_000_000;
+                case 4 -> Double.longBitsToDouble(random.nextLong() & 0x7fefffffffffffffL);
+                default -> -random.nextDouble() * 1e12;
+            };
+            assertSameBits(miles);
+        }
+        for (double miles : new double[]{0, -0.0, 0.1, 0.3, 1e-9, 1e-10, 12345.6789, 4.4e10, 9e15, Double.MAX_VALUE}) {
+            assertSameBits(miles);
+        }
+    }
+
+    @Test
+    void kilometers_shouldNotConvert() {
+        assertThat(DistanceUnit.KILOMETERS.toKilometers(48280.32)).isEqualTo(48280.32);
+    }
+
+    @Test
+    void fromString_shouldAcceptAbbreviations() {
+        assertThat(DistanceUnit.fromString("km")).isEqualTo(DistanceUnit.KILOMETERS);
+        assertThat(DistanceUnit.fromString(" Miles")).isEqualTo(DistanceUnit.MILES);
+        assertThat(DistanceUnit.fromString("mi")).isEqualTo(DistanceUnit.MILES);
+        assertThat(DistanceUnit.fromString(null)).isNull();
+        assertThatThrownBy(() -> DistanceUnit.fromString("furlong")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertSameBits(double miles) {
+        double expected = Quantities.getQuantity(miles, USCustomary.MILE)
+                .to(MetricPrefix.KILO(USCustomary.METER)).getValue().doubleValue();
+        assertThat(Double.doubleToRawLongBits(DistanceUnit.MILES.toKilometers(miles)))
+                .as("%s mi", miles)
+                .isEqualTo(Double.doubleToRawLongBits(expected));
+    }
+}
@@ -0,0 +1,82 @@
+package org.infomedia.index;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.infomedia.event.OperationChangedEvent;
+import org.infomedia.event.OperationsImportedEvent;
+import org.infomedia.event.VehicleChangedEvent;
+import org.infomedia.model.Operation;
+import org.infomedia.model.OperationKey;
+import org.infomedia.model.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AutocompleteIndexTest {
+
+    private AutocompleteIndex autocompleteIndex;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE operation (brand VARCHAR(255), model VARCHAR(255), engine VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE vehicle (brand VARCHAR(255), model VARCHAR(255), engine VARCHAR(255))");
+        jdbcTemplate.update("""
+                INSERT INTO operation VALUES ('Toyota', 'Corolla', '1.8L'), ('toyota ', 'COROLLA', '2.0L'),
+                                             ('Toyota', 'Camry', '2.5L'), ('Tesla', 'Model 3', 'Electric')""");
+        jdbcTemplate.update("INSERT INTO vehicle VALUES ('Honda', 'Civic', '1.5L Turbo')");
+        autocompleteIndex = new AutocompleteIndex(jdbcTemplate);
+        autocompleteIndex.load();
+    }
+
+    @Test
+    void brands_shouldMatchPrefixesCaseInsensitively() {
+        assertThat(autocompleteIndex.brands("", 10)).containsExactly("Honda", "Tesla", "Toyota");
+        assertThat(autocompleteIndex.brands("T", 10)).containsExactly("Tesla", "Toyota");
+        assertThat(autocompleteIndex.brands(" TOY", 10)).containsExactly("Toyota");
+        assertThat(autocompleteIndex.brands("T", 1)).containsExactly("Tesla");
+        assertThat(autocompleteIndex.brands("x", 10)).isEmpty();
+    }
+
+    @Test
+    void modelsAndEngines_shouldFollowTheSelectedBrandAndModel() {
+        assertThat(autocompleteIndex.models("TOYOTA", "", 10)).containsExactly("Camry", "Corolla");
+        assertThat(autocompleteIndex.models("Toyota", "co", 10)).containsExactly("Corolla");
+        assertThat(autocompleteIndex.engines("toyota", "corolla", "", 10)).containsExactly("1.8L", "2.0L");
+        assertThat(autocompleteIndex.engines("Honda", "Civic", "1", 10)).containsExactly("1.5L Turbo");
+        assertThat(autocompleteIndex.models("Ford", "", 10)).isEmpty();
+        assertThat(autocompleteIndex.engines("Toyota", "Yaris", "", 10)).isEmpty();
+    }
+
+    @Test
+    void writes_shouldAddAndRetireCombinations() {
+        Operation moved = operation("Tesla", "Model Y", "Electric");
+        autocompleteIndex.onOperationChanged(
+                new OperationChangedEvent(moved, OperationKey.of("Tesla", "Model 3", "Electric")));
+        autocompleteIndex.onOperationsImported(new OperationsImportedEvent(List.of(operation("Ford", "Focus", "1.0L"))));
+        autocompleteIndex.onVehicleChanged(new VehicleChangedEvent(
+                Vehicle.builder().brand("Kia").model("Rio").engine("1.2L").makeYear(2020).build()));
+
+        assertThat(autocompleteIndex.models("Tesla", "", 10)).containsExactly("Model Y");
+        assertThat(autocompleteIndex.brands("", 10)).containsExactly("Ford", "Honda", "Kia", "Tesla", "Toyota");
+    }
+
+    @Test
+    void onOperationChanged_shouldKeepCombinationsStillInUse() {
+        autocompleteIndex.onOperationChanged(new OperationChangedEvent(operation("Toyota", "Camry", "2.5L"),
+                OperationKey.of("Toyota", "Corolla", "1.8L")));
+
+        assertThat(autocompleteIndex.engines("Toyota", "Corolla", "", 10)).containsExactly("2.0L");
+        assertThat(autocompleteIndex.engines("Toyota", "Camry", "", 10)).containsExactly("2.5L");
+    }
+
+    private static Operation operation(String brand, String model, String engine) {
+        return Operation.builder().brand(brand).model(model).engine(engine).build();
+    }
+}
@@ -0,0 +1,69 @@
+package org.infomedia.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntervalTreeTest {
+
+    record Interval(int id, double start, double end) {
+    }
+
+    @Test
+    void stab_shouldReturnIntervalsContainingPoint_inclusiveBounds() {
+        IntervalTree<Interval> tree = IntervalTree.build(List.of(
+                new Interval(1, 30000, 60000),
+                new Interval(2, 50000, 100000),
+                new Interval(3, 100000, 150000)
+        ), Interval::start, Interval::end);
+
+        List<Integer> hits = new ArrayList<>();
+        tree.stab(60000, interval -> hits.add(interval.id()));
+        assertThat(hits).containsExactlyInAnyOrder(1, 2);
+
+        hits.clear();
+        tree.stab(100000, interval -> hits.add(interval.id()));
+        assertThat(hits).containsExactlyInAnyOrder(2, 3);
+
+        hits.clear();
+        tree.stab(10, interval -> hits.add(interval.id()));
+        assertThat(hits).isEmpty();
+    }
+
+    @Test
+    void stab_shouldMatchBruteForce_onRandomIntervals() {
+        Random random = new Random(42);
+        List<Interval> intervals = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            double start = random.nextInt(200_000);
+            intervals.add(new Interval(i, start, start + random.nextInt(80_000)));
+        }
+        IntervalTree<Interval> tree = IntervalTree.build(intervals, Interval::start, Interval::end);
+
+        for (int i = 0; i < 200; i++) {
+            double point = random.nextInt(300_000);
+            List<Integer> expected = intervals.stream()
+                    .filter(interval -> interval.start() <= point && point <= interval.end())
+                    .map(Interval::id)
+                    .toList();
+            List<Integer> actual = new ArrayList<>();
+            tree.stab(point, interval -> actual.add(interval.id()));
+            assertThat(actual).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    @Test
+    void stab_shouldHandleEmptyTree() {
+        IntervalTree<Interval> tree = IntervalTree.build(List.of(), Interval::start, Interval::end);
+
+        List<Interval> hits = new ArrayList<>();
+        tree.stab(1, hits::add);
+
+        assertThat(tree.size()).isZero();
+        assertThat(hits).isEmpty();
+    }
+}
@@ -0,0 +1,113 @@
+package org.infomedia.index;
+
+import org.infomedia.dto.SuggestionRequest;
+import org.infomedia.event.OperationChangedEvent;
+import org.infomedia.model.Operation;
+import org.infomedia.model.OperationKey;
+import org.infomedia.repository.OperationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class OperationIndexTest {
+
+    @Mock
+    private OperationRepository operationRepository;
+
+    @InjectMocks
+    private OperationIndex operationIndex;
+
+    private final OperationKey camry = OperationKey.of("Toyota", "Camry", "2.5L");
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(operationIndex, "engine", "memory");
+        when(operationRepository.findAll()).thenReturn(List.of(
+                operation(1L, "Toyota", "Camry", "2.5L", 2015, 2020, 30000d, 60000d, "Oil Change", 75d),
+                operation(2L, "Toyota", "Camry", "2.5L", 2015, 2020, 50000d, 100000d, "Brake Pad Replacement", 150d),
+                operation(3L, "Honda", "Civic", "1.5L Turbo", 2016, 2021, 20000d, 50000d, "Tire Rotation", 50d)
+        ));
+        operationIndex.load();
+    }
+
+    @Test
+    void find_shouldReturnOperationsCoveringYearAndDistance() {
+        assertThat(operationIndex.isReady()).isTrue();
+        assertThat(operationIndex.find(camry, 2018, 55000d))
+                .extracting(IndexedOperation::id)
+                .containsExactlyInAnyOrder(1L, 2L);
+        assertThat(operationIndex.find(camry, 2021, 55000d)).isEmpty();
+        assertThat(operationIndex.find(OperationKey.of(" toyota", "CAMRY", "2.5l"), 2018, 70000d))
+                .extracting(IndexedOperation::id)
+                .containsExactly(2L);
+    }
+
+    @Test
+    void find_shouldMatchEveryYearForAnyYear() {
+        assertThat(operationIndex.find(camry, SuggestionRequest.ANY_YEAR, 55000d))
+                .extracting(IndexedOperation::id)
+                .containsExactlyInAnyOrder(1L, 2L);
+        assertThat(operationIndex.find(camry, SuggestionRequest.ANY_YEAR, 90000d))
+                .extracting(IndexedOperation::id)
+                .containsExactly(2L);
+    }
+
+    @Test
+    void find_shouldSortAndPage() {
+        Page<IndexedOperation> page = operationIndex.find(camry, 2018, 55000d,
+                PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "approxCost")));
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(IndexedOperation::id).containsExactly(2L);
+        assertThat(operationIndex.supports(Sort.by("approxCost"))).isTrue();
+        assertThat(operationIndex.supports(Sort.by("vehicle"))).isFalse();
+    }
+
+    @Test
+    void onOperationChanged_shouldMoveOperationBetweenKeys() {
+        Operation moved = operation(1L, "Honda", "Civic", "1.5L Turbo", 2016, 2021, 30000d, 60000d, "Oil Change", 75d);
+
+        operationIndex.onOperationChanged(new OperationChangedEvent(moved, camry));
+
+        assertThat(operationIndex.find(camry, 2018, 55000d))
+                .extracting(IndexedOperation::id)
+                .containsExactly(2L);
+        assertThat(operationIndex.find(OperationKey.of("Honda", "Civic", "1.5L Turbo"), 2018, 40000d))
+                .extracting(IndexedOperation::id)
+                .containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    @Test
+    void onOperationChanged_shouldAddNewOperation() {
+        Operation created = operation(4L, "Ford", "Focus", "2.0L", 2017, 2021, 30000d, 60000d, "Tire Rotation", 50d);
+
+        operationIndex.onOperationChanged(new OperationChangedEvent(created, null));
+
+        assertThat(operationIndex.find(OperationKey.of("ford", "focus", "2.0l"), 2019, 30000d))
+                .extracting(IndexedOperation::name)
+                .containsExactly("Tire Rotation");
+    }
+
+    private static Operation operation(Long id, String brand, String model, String engine,
+                                       int yearStart, int yearEnd, double distanceStart, double distanceEnd,
+                                       String name, double approxCost) {
+        return Operation.builder()
+                .id(id).brand(brand).model(model).engine(engine)
+                .yearStart(yearStart).yearEnd(yearEnd)
+                .distanceStart(distanceStart).distanceEnd(distanceEnd)
+                .name(name).approxCost(approxCost).time(1)
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package org.infomedia.index;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.infomedia.event.OperationChangedEvent;
+import org.infomedia.event.OperationDeletedEvent;
+import org.infomedia.event.OperationsImportedEvent;
+import org.infomedia.model.Operation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OperationTextIndexTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private OperationTextIndex textIndex;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                CREATE TABLE operation (id BIGINT, name VARCHAR(255), description VARCHAR(2000),
+                                        make_id INT, model_id INT, engine_id INT, year_start INT, year_end INT,
+                                        distance_start DOUBLE PRECISION, distance_end DOUBLE PRECISION)""");
+        textIndex = new OperationTextIndex(jdbcTemplate);
+    }
+
+    @Test
+    void tokenize_shouldLowerCaseSplitAndDropPlurals() {
+        assertThat(OperationTextIndex.tokenize("Replace BRAKES & timing-belt, check 4 gas bus"))
+                .containsExactly("replace", "brake", "timing", "belt", "check", "4", "gas", "bus");
+        assertThat(OperationTextIndex.tokenize(null)).isEmpty();
+    }
+
+    @Test
+    void load_shouldMatchEveryWordAndRankNameMatchesFirst() {
+        jdbcTemplate.update("""
+                INSERT INTO operation VALUES
+                    (1, 'Oil change', 'Replace the brake fluid reservoir cap', 1, 1, 1, 2010, 2020, 0, 10000),
+                    (2, 'Brake pads', 'Replace front brake pads', 1, 1, 1, 2010, 2020, 0, 10000),
+                    (3, 'Timing belt', 'Replace timing belt and water pump', 1, 1, 1, 2010, 2020, 0, 10000),
+                    (4, 'Inspection', NULL, 1, 1, 1, 2010, 2020, 0, 10000)""");
+        textIndex.load();
+
+        assertThat(ids(textIndex.search("brakes", document -> true))).containsExactly(2L, 1L);
+        assertThat(ids(textIndex.search("replace BELT", document -> true))).containsExactly(3L);
+        assertThat(textIndex.search("brake clutch", document -> true)).isEmpty();
+        assertThat(textIndex.search(" - ", document -> true)).isEmpty();
+        assertThat(ids(textIndex.search("replace", document -> document.id() != 3)))
+                .containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void events_shouldReplaceTheTermsOfChangedOperations() {
+        textIndex.onOperationsImported(new OperationsImportedEvent(List.of(
+                operation(1L, "Brake pads", "Front axle"),
+                operation(2L, "Brake discs", "Rear axle"))));
+
+        textIndex.onOperationChanged(new OperationChangedEvent(operation(1L, "Wiper blades", "Front"), null));
+
+        assertThat(ids(textIndex.search("brake", document -> true))).containsExactly(2L);
+        assertThat(ids(textIndex.search("front", document -> true))).containsExactly(1L);
+        assertThat(textIndex.search("pads", document -> true)).isEmpty();
+    }
+
+    @Test
+    void onOperationDeleted_shouldDropTheOperation() {
+        Operation deleted = operation(1L, "Brake pads", null);
+        textIndex.onOperationsImported(new OperationsImportedEvent(List.of(deleted, operation(2L, "Brake discs", null))));
+
+        textIndex.onOperationDeleted(new OperationDeletedEvent(deleted));
+
+        assertThat(ids(textIndex.search("brake", document -> true))).containsExactly(2L);
+        assertThat(textIndex.search("pads", document -> true)).isEmpty();
+    }
+
+    @Test
+    void search_shouldFilterOnIndexedColumns() {
+        Operation old = operation(1L, "Brake pads", null);
+        old.setYearStart(1990);
+        old.setYearEnd(2000);
+        textIndex.onOperationsImported(new OperationsImportedEvent(List.of(old, operation(2L, "Brake pads", null))));
+
+        List<OperationTextIndex.Hit> hits = textIndex.search("brake",
+                document -> document.yearEnd() >= 2015 && document.makeId() == 7);
+
+        assertThat(ids(hits)).containsExactly(2L);
+    }
+
+    private static Operation operation(Long id, String name, String description) {
+        return Operation.builder().id(id).name(name).description(description)
+                .makeId(7).modelId(8).engineId(9)
+                .yearStart(2010).yearEnd(2020).distanceStart(0d).distanceEnd(10000d)
+                .build();
+    }
+
+    private static List<Long> ids(List<OperationTextIndex.Hit> hits) {
+        return hits.stream().map(OperationTextIndex.Hit::id).toList();
+    }
+}
@@ -0,0 +1,63 @@
+package org.infomedia.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryMetricsFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final QueryMetricsFilter filter = new QueryMetricsFilter(registry);
+
+    @Test
+    void doFilter_shouldRecordStatementsAndRowsOfTheRequest() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:" + UUID.randomUUID());
+        DataSource dataSource = QueryCountingDataSource.wrap(h2);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/operations/search");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/operations/search");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE t AS SELECT x FROM SYSTEM_RANGE(1, 5)");
+                try (ResultSet rows = statement.executeQuery("SELECT x FROM t")) {
+                    while (rows.next()) {
+                        rows.getInt(1);
+                    }
+                }
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+
+        DistributionSummary statements = registry.get("http.server.requests.sql.statements")
+                .tags("method", "GET", "uri", "/operations/search").summary();
+        DistributionSummary rows = registry.get("http.server.requests.sql.rows")
+                .tags("method", "GET", "uri", "/operations/search").summary();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isEqualTo(2);
+        assertThat(rows.totalAmount()).isEqualTo(5);
+    }
+
+    @Test
+    void queriesOutsideARequest_shouldNotBeCounted() {
+        QueryCounter.statements(3);
+        QueryCounter.row();
+
+        assertThat(QueryCounter.stop().statements()).isZero();
+    }
+}
@@ -0,0 +1,27 @@
+package org.infomedia.metrics;
+
+import org.infomedia.dto.OperationSearchRequest;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchFiltersTagResolverTest {
+
+    private final SearchFiltersTagResolver resolver = new SearchFiltersTagResolver();
+
+    @Test
+    void resolve_shouldNameOnlyTheFiltersInUse() {
+        OperationSearchRequest request = new OperationSearchRequest();
+        request.setBrand("Toyota");
+        request.setYearStart(2018);
+        request.setDistanceEnd(50000d);
+
+        assertThat(resolver.resolve(request)).isEqualTo("brand,yearStart,distanceEnd");
+    }
+
+    @Test
+    void resolve_shouldReportNoneWithoutFilters() {
+        assertThat(resolver.resolve(new OperationSearchRequest())).isEqualTo("none");
+        assertThat(resolver.resolve(null)).isEqualTo("none");
+    }
+}
@@ -0,0 +1,30 @@
+package org.infomedia.metrics;
+
+import org.infomedia.dto.OperationSearchRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.spel.SpelEvaluationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpelValueExpressionResolverTest {
+
+    private final SpelValueExpressionResolver resolver = new SpelValueExpressionResolver();
+
+    @Test
+    void resolve_shouldReadPropertiesOfTheParameter() {
+        OperationSearchRequest request = new OperationSearchRequest();
+        request.setBrand("Toyota");
+        request.setYearStart(2018);
+
+        assertThat(resolver.resolve("brand", request)).isEqualTo("Toyota");
+        assertThat(resolver.resolve("yearStart", request)).isEqualTo("2018");
+        assertThat(resolver.resolve("text ?: 'none'", request)).isEqualTo("none");
+    }
+
+    @Test
+    void resolve_shouldRejectTypeReferences() {
+        assertThatThrownBy(() -> resolver.resolve("T(java.lang.System).getenv()", new OperationSearchRequest()))
+                .isInstanceOf(SpelEvaluationException.class);
+    }
+}
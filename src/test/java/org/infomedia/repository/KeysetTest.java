@@ -0,0 +1,70 @@
+package org.infomedia.repository;
+
+import org.infomedia.dto.CursorPage;
+import org.infomedia.exception.BadRequestException;
+import org.infomedia.model.Operation;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetTest {
+
+    private final Keyset<Operation> keyset = Keyset.of("id", Operation::getId)
+            .sortable("name", s -> s, Operation::getName)
+            .sortable("approxCost", Double::valueOf, Operation::getApproxCost);
+
+    @Test
+    void cursor_shouldStartFromRequestedSort_onFirstPage() {
+        Keyset.Cursor cursor = keyset.cursor("", Sort.by(Sort.Direction.DESC, "approxCost"));
+
+        assertThat(cursor.property()).isEqualTo("approxCost");
+        assertThat(cursor.direction()).isEqualTo(Sort.Direction.DESC);
+        assertThat(cursor.lastId()).isNull();
+        assertThat(keyset.sort(cursor)).isEqualTo(Sort.by(Sort.Direction.DESC, "approxCost", "id"));
+    }
+
+    @Test
+    void cursor_shouldDefaultToIdAscending() {
+        Keyset.Cursor cursor = keyset.cursor(null, Sort.unsorted());
+
+        assertThat(cursor.property()).isEqualTo("id");
+        assertThat(keyset.sort(cursor)).isEqualTo(Sort.by(Sort.Direction.ASC, "id"));
+    }
+
+    @Test
+    void page_shouldEncodeLastRow_andRoundTripThroughCursor() {
+        Keyset.Cursor first = keyset.cursor("", Sort.by("name"));
+        List<Operation> rows = List.of(
+                Operation.builder().id(3L).name("Brake | Pads").build(),
+                Operation.builder().id(9L).name("Oil Change").build(),
+                Operation.builder().id(1L).name("Tire Rotation").build());
+
+        CursorPage<Long> page = keyset.page(rows, first, 2, Operation::getId);
+
+        assertThat(page.getContent()).containsExactly(3L, 9L);
+        assertThat(page.getNextCursor()).isNotBlank();
+        Keyset.Cursor next = keyset.cursor(page.getNextCursor(), Sort.unsorted());
+        assertThat(next).isEqualTo(new Keyset.Cursor("name", Sort.Direction.ASC, "Oil Change", 9L));
+    }
+
+    @Test
+    void page_shouldHaveNoNextCursor_onLastPage() {
+        Keyset.Cursor first = keyset.cursor("", Sort.unsorted());
+
+        CursorPage<Long> page = keyset.page(List.of(Operation.builder().id(1L).build()), first, 2, Operation::getId);
+
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void cursor_shouldRejectUnknownSortAndMalformedToken() {
+        assertThatThrownBy(() -> keyset.cursor("", Sort.by("description")))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> keyset.cursor("not-a-cursor", Sort.unsorted()))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
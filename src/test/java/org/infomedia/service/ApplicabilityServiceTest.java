@@ -0,0 +1,133 @@
+package org.infomedia.service;
+
+import jakarta.persistence.EntityManager;
+import org.infomedia.event.OperationChangedEvent;
+import org.infomedia.event.OperationsImportedEvent;
+import org.infomedia.event.VehicleChangedEvent;
+import org.infomedia.model.Operation;
+import org.infomedia.model.Vehicle;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ApplicabilityServiceTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private ApplicabilityService applicabilityService;
+
+    private JdbcTemplate h2;
+
+    @Test
+    void onOperationChanged_shouldFlushThenRecomputeTheOperationsRows() {
+        Operation operation = Operation.builder().id(7L).build();
+
+        applicabilityService.onOperationChanged(new OperationChangedEvent(operation, null));
+
+        InOrder order = inOrder(entityManager, jdbcTemplate);
+        order.verify(entityManager).flush();
+        order.verify(jdbcTemplate).update(eq("DELETE FROM vehicle_operation WHERE operation_id IN (:ids)"),
+                eq(Map.of("ids", List.of(7L))));
+        order.verify(jdbcTemplate).update(contains("WHERE o.id IN (:ids)"), eq(Map.of("ids", List.of(7L))));
+    }
+
+    @Test
+    void onOperationsImported_shouldRecomputeTheWholeBatchAtOnce() {
+        List<Operation> batch = List.of(Operation.builder().id(1L).build(), Operation.builder().id(2L).build());
+
+        applicabilityService.onOperationsImported(new OperationsImportedEvent(batch));
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).update(eq("DELETE FROM vehicle_operation WHERE operation_id IN (:ids)"),
+                eq(Map.of("ids", List.of(1L, 2L))));
+        order.verify(jdbcTemplate).update(contains("WHERE o.id IN (:ids)"), eq(Map.of("ids", List.of(1L, 2L))));
+    }
+
+    @Test
+    void onVehicleChanged_shouldMapTheVehicleToItsOperations() {
+        Vehicle vehicle = Vehicle.builder().id(3L).build();
+
+        applicabilityService.onVehicleChanged(new VehicleChangedEvent(vehicle));
+
+        InOrder order = inOrder(entityManager, jdbcTemplate);
+        order.verify(entityManager).flush();
+        order.verify(jdbcTemplate).update(eq("DELETE FROM vehicle_operation WHERE vehicle_id = :id"),
+                eq(Map.of("id", 3L)));
+        order.verify(jdbcTemplate).update(contains("WHERE v.id = :id"), eq(Map.of("id", 3L)));
+    }
+
+    @Test
+    void onOperationsImported_shouldDoNothingForAnEmptyBatch() {
+        applicabilityService.onOperationsImported(new OperationsImportedEvent(List.of()));
+
+        verifyNoInteractions(entityManager, jdbcTemplate);
+    }
+
+    @Test
+    void rebuild_shouldJoinVehiclesAndOperationsOnKeyAndYear() {
+        ApplicabilityService service = onH2();
+
+        assertThat(service.rebuild()).isEqualTo(3);
+        assertThat(mapping()).containsExactlyInAnyOrder(List.of(1L, 10L), List.of(1L, 11L), List.of(2L, 11L));
+    }
+
+    @Test
+    void onOperationChanged_shouldRecomputeOnlyTheOperationsRowsInTheDatabase() {
+        ApplicabilityService service = onH2();
+        service.rebuild();
+        h2.update("UPDATE operation SET year_start = 2019 WHERE id = 11");
+        h2.update("UPDATE operation SET year_start = 2015 WHERE id = 12");
+
+        service.onOperationChanged(new OperationChangedEvent(Operation.builder().id(11L).build(), null));
+        service.onOperationsImported(new OperationsImportedEvent(List.of()));
+
+        assertThat(mapping()).containsExactlyInAnyOrder(List.of(1L, 10L), List.of(2L, 11L));
+    }
+
+    /**
+     * A service on an in-memory H2 with two Corollas (2016, 2020), a Civic (2016) and operations
+     * for Corollas 2014-2018 (10), 2015-2020 (11) and Civics 2018-2020 (12).
+     */
+    private ApplicabilityService onH2() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        h2 = new JdbcTemplate(dataSource);
+        h2.execute("CREATE TABLE vehicle (id BIGINT PRIMARY KEY, make_id INT, model_id INT, engine_id INT, make_year INT)");
+        h2.execute("""
+                CREATE TABLE operation (id BIGINT PRIMARY KEY, make_id INT, model_id INT, engine_id INT,
+                                        year_start INT, year_end INT)
+                """);
+        h2.execute("CREATE TABLE vehicle_operation (vehicle_id BIGINT, operation_id BIGINT)");
+        h2.update("INSERT INTO vehicle VALUES (1, 1, 2, 3, 2016), (2, 1, 2, 3, 2020), (3, 4, 5, 6, 2016)");
+        h2.update("INSERT INTO operation VALUES (10, 1, 2, 3, 2014, 2018), (11, 1, 2, 3, 2015, 2020), "
+                + "(12, 4, 5, 6, 2018, 2020)");
+        return new ApplicabilityService(new NamedParameterJdbcTemplate(dataSource), entityManager);
+    }
+
+    private List<List<Long>> mapping() {
+        return h2.query("SELECT vehicle_id, operation_id FROM vehicle_operation",
+                (row, i) -> List.of(row.getLong(1), row.getLong(2)));
+    }
+}
@@ -0,0 +1,89 @@
+package org.infomedia.service;
+
+import org.infomedia.dto.EstimatedPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountEstimatorTest {
+
+    private final CountEstimator countEstimator = new CountEstimator(Runnable::run, Duration.ofMinutes(1), 100);
+
+    @Test
+    void estimate_shouldCountOncePerFilter() {
+        AtomicInteger counts = new AtomicInteger();
+
+        OptionalLong first = countEstimator.estimate(List.of("toyota"), () -> 10 + counts.incrementAndGet());
+        OptionalLong second = countEstimator.estimate(List.of("toyota"), () -> 10 + counts.incrementAndGet());
+        OptionalLong other = countEstimator.estimate(List.of("honda"), () -> 10 + counts.incrementAndGet());
+
+        assertThat(first).hasValue(11);
+        assertThat(second).hasValue(11);
+        assertThat(other).hasValue(12);
+    }
+
+    @Test
+    void page_shouldNeverReportFewerRowsThanTheSliceProves() {
+        SliceImpl<String> slice = new SliceImpl<>(List.of("a", "b"), PageRequest.of(3, 2), true);
+
+        Page<String> page = countEstimator.page(slice, "stale", () -> 1);
+
+        assertThat(page.getTotalElements()).isEqualTo(9);
+        assertThat(page.getContent()).containsExactly("a", "b");
+        assertThat(CountEstimator.isPending(page)).isFalse();
+    }
+
+    @Test
+    void page_shouldFlagTheTotalAsEstimatedUntilTheCountCompletes() {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        CountEstimator background = new CountEstimator(tasks::add, Duration.ofMinutes(1), 100);
+        SliceImpl<String> slice = new SliceImpl<>(List.of("a", "b"), PageRequest.of(0, 2), true);
+        AtomicInteger counts = new AtomicInteger();
+
+        Page<String> pending = background.page(slice, "filter", () -> 40 + counts.incrementAndGet());
+        Page<String> stillPending = background.page(slice, "filter", () -> 40 + counts.incrementAndGet());
+        for (Runnable task; (task = tasks.poll()) != null; ) {
+            task.run();
+        }
+        Page<String> counted = background.page(slice, "filter", () -> 40 + counts.incrementAndGet());
+
+        assertThat(pending).isInstanceOf(EstimatedPage.class);
+        assertThat(pending.getTotalElements()).isEqualTo(3);
+        assertThat(CountEstimator.isPending(stillPending)).isTrue();
+        assertThat(counts).hasValue(1);
+        assertThat(counted).isNotInstanceOf(EstimatedPage.class);
+        assertThat(counted.getTotalElements()).isEqualTo(41);
+    }
+
+    @Test
+    void page_shouldStayEstimatedWhenTheCountFails() {
+        SliceImpl<String> slice = new SliceImpl<>(List.of("a"), PageRequest.of(0, 2), false);
+
+        Page<String> page = countEstimator.page(slice, "failing", () -> {
+            throw new IllegalStateException("count failed");
+        });
+
+        assertThat(CountEstimator.isPending(page)).isTrue();
+        assertThat(page.getTotalElements()).isEqualTo(1);
+        assertThat(countEstimator.estimate("failing", () -> 7)).hasValue(7);
+    }
+
+    @Test
+    void onOperationChanged_shouldDropCachedCounts() {
+        countEstimator.estimate("filter", () -> 5);
+
+        countEstimator.onOperationChanged(null);
+
+        assertThat(countEstimator.estimate("filter", () -> 6)).hasValue(6);
+    }
+}
@@ -0,0 +1,93 @@
+package org.infomedia.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.infomedia.catalog.CatalogDictionary;
+import org.infomedia.dto.ExportFormat;
+import org.infomedia.dto.OperationSearchRequest;
+import org.infomedia.model.Operation;
+import org.infomedia.model.Vehicle;
+import org.infomedia.repository.OperationRepository;
+import org.infomedia.repository.VehicleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExportServiceTest {
+
+    private final OperationRepository operationRepository = mock(OperationRepository.class);
+    private final VehicleRepository vehicleRepository = mock(VehicleRepository.class);
+    private final CatalogDictionary catalogDictionary = mock(CatalogDictionary.class);
+    private final ExportService exportService =
+            new ExportService(operationRepository, vehicleRepository, new ObjectMapper(), catalogDictionary);
+
+    @Test
+    void exportOperations_shouldWriteOneJsonObjectPerLineAndCloseTheCursor() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(operationRepository.stream(any(), eq(Sort.by("id"))))
+                .thenReturn(Stream.of(operation(1L, "Oil Change"), operation(2L, "Brake Flush")).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportOperations(new OperationSearchRequest(), ExportFormat.NDJSON, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"id\":1,\"brand\":\"Toyota\"").contains("\"name\":\"Oil Change\"");
+        assertThat(lines[1]).contains("\"name\":\"Brake Flush\"");
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void exportOperations_shouldWriteGzippedCsvWithHeader() throws Exception {
+        when(operationRepository.stream(any(), any())).thenReturn(Stream.of(operation(1L, "Oil Change, synthetic")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportOperations(new OperationSearchRequest(), ExportFormat.CSV, true, out);
+
+        String csv = new String(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertThat(csv).isEqualTo("""
+                id,brand,model,engine,yearStart,yearEnd,distanceStart,distanceEnd,name,approxCost,description,time
+                1,Toyota,Corolla,1.8L,2015,2020,10000.0,50000.0,"Oil Change, synthetic",75.0,,1
+                """);
+    }
+
+    @Test
+    void exportVehicles_shouldNotTouchOperations() throws Exception {
+        Vehicle vehicle = Vehicle.builder().id(3L).brand("Honda").model("Civic").engine("2.0L").makeYear(2019)
+                .operations(null).build();
+        when(vehicleRepository.stream(any(), any())).thenReturn(Stream.of(vehicle));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportVehicles("honda", null, null, null, ExportFormat.NDJSON, false, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo("{\"id\":3,\"brand\":\"Honda\",\"model\":\"Civic\",\"engine\":\"2.0L\",\"makeYear\":2019}\n");
+    }
+
+    @Test
+    void acceptsGzip_shouldHonourQualityValues() {
+        assertThat(ExportService.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(ExportService.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+        assertThat(ExportService.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(ExportService.acceptsGzip("identity")).isFalse();
+        assertThat(ExportService.acceptsGzip(null)).isFalse();
+    }
+
+    private static Operation operation(Long id, String name) {
+        return Operation.builder().id(id).brand("Toyota").model("Corolla").engine("1.8L")
+                .yearStart(2015).yearEnd(2020).distanceStart(10000d).distanceEnd(50000d)
+                .name(name).approxCost(75d).time(1).build();
+    }
+}
@@ -0,0 +1,158 @@
+package org.infomedia.service;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.infomedia.catalog.CatalogDictionary;
+import org.infomedia.dto.OperationChange;
+import org.infomedia.dto.OperationChangeFeed;
+import org.infomedia.exception.BadRequestException;
+import org.infomedia.model.CatalogTerm.Kind;
+import org.infomedia.model.Operation;
+import org.infomedia.repository.OperationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OperationChangeLogTest {
+
+    private final OperationRepository operationRepository = mock(OperationRepository.class);
+
+    private final CatalogDictionary catalogDictionary = mock(CatalogDictionary.class);
+
+    private JdbcTemplate jdbcTemplate;
+
+    private DataSourceTransactionManager transactionManager;
+
+    private OperationChangeLog changeLog;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE catalog_version (id INT PRIMARY KEY, version BIGINT NOT NULL)");
+        jdbcTemplate.execute("""
+                CREATE TABLE operation_tombstone (id BIGINT AUTO_INCREMENT PRIMARY KEY, operation_id BIGINT NOT NULL,
+                                                  make_id INT, version BIGINT NOT NULL)""");
+        jdbcTemplate.execute("CREATE TABLE operation (id BIGINT PRIMARY KEY, version BIGINT)");
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        changeLog = new OperationChangeLog(jdbcTemplate, operationRepository, catalogDictionary, transactionManager);
+    }
+
+    @Test
+    void recordChange_shouldTakeIncreasingVersionsAndTombstoneTheBrandLeft() {
+        Operation created = operation(1L, 7);
+        changeLog.recordChange(created, null);
+        Operation updated = operation(1L, 7);
+        changeLog.recordChange(updated, 7);
+        Operation moved = operation(1L, 8);
+        changeLog.recordChange(moved, 7);
+
+        assertThat(created.getVersion()).isEqualTo(1);
+        assertThat(updated.getVersion()).isEqualTo(2);
+        assertThat(moved.getVersion()).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForList("SELECT operation_id, make_id, version FROM operation_tombstone"))
+                .containsExactly(Map.of("OPERATION_ID", 1L, "MAKE_ID", 7, "VERSION", 3L));
+    }
+
+    @Test
+    void committedVersion_shouldAdvanceOnlyOnceTheTransactionCommits() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            changeLog.recordChange(operation(1L, 7), null);
+            assertThat(changeLog.committedVersion()).isZero();
+        });
+        transaction.executeWithoutResult(status -> {
+            changeLog.recordDeletion(operation(1L, 7));
+            status.setRollbackOnly();
+        });
+
+        assertThat(changeLog.committedVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void recordChanges_shouldVersionABatchInOrder() {
+        List<Operation> batch = List.of(operation(1L, 7), operation(2L, 7), operation(3L, 7));
+        changeLog.recordDeletion(operation(9L, 7));
+
+        changeLog.recordChanges(batch);
+
+        assertThat(batch).extracting(Operation::getVersion).containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    void changes_shouldMergeUpsertsAndTombstonesInVersionOrder() {
+        changeLog.recordChanges(List.of(operation(1L, 7), operation(2L, 7), operation(3L, 7)));
+        changeLog.recordDeletion(operation(4L, 8));
+        Operation first = operation(1L, 7);
+        first.setVersion(1L);
+        Operation third = operation(3L, 7);
+        third.setVersion(3L);
+        when(operationRepository.findChanges(0, 4, null, Limit.of(3))).thenReturn(List.of(first, third));
+        when(operationRepository.findChanges(1, 4, null, Limit.of(3))).thenReturn(List.of(third));
+
+        OperationChangeFeed page = changeLog.changes(0, null, 2);
+        OperationChangeFeed rest = changeLog.changes(page.getChanges().get(0).getVersion(), null, 2);
+
+        assertThat(page.getChanges()).extracting(OperationChange::getVersion).containsExactly(1L, 3L);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(page.getVersion()).isEqualTo(3);
+        assertThat(rest.getChanges()).containsExactly(OperationChange.upsert(third), OperationChange.tombstone(4L, 4L));
+        assertThat(rest.isHasMore()).isFalse();
+        assertThat(rest.getVersion()).isEqualTo(4);
+    }
+
+    @Test
+    void changes_shouldFilterTombstonesByBrand() {
+        changeLog.recordDeletion(operation(1L, 7));
+        changeLog.recordDeletion(operation(2L, 8));
+        when(catalogDictionary.find(Kind.MAKE, "Toyota")).thenReturn(8);
+        when(catalogDictionary.find(Kind.MAKE, "Lada")).thenReturn(CatalogDictionary.UNKNOWN);
+
+        OperationChangeFeed feed = changeLog.changes(0, "Toyota", 10);
+
+        assertThat(feed.getChanges()).containsExactly(OperationChange.tombstone(2L, 2L));
+        assertThat(feed.getVersion()).isEqualTo(2);
+        assertThat(changeLog.changes(0, "Lada", 10).getChanges()).isEmpty();
+        verify(operationRepository, never()).findChanges(anyLong(), anyLong(), eq(CatalogDictionary.UNKNOWN), any());
+    }
+
+    @Test
+    void changes_shouldRejectVersionsAheadOfTheCatalog() {
+        assertThatThrownBy(() -> changeLog.changes(5, null, 10))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void backfill_shouldVersionUnversionedOperationsInIdOrder() {
+        changeLog.recordDeletion(operation(100L, 7));
+        jdbcTemplate.update("INSERT INTO operation VALUES (30, NULL), (10, NULL), (20, 1), (40, NULL)");
+
+        int versioned = changeLog.backfill(2);
+
+        assertThat(versioned).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForList("SELECT version FROM operation ORDER BY id", Long.class))
+                .containsExactly(2L, 1L, 3L, 4L);
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM catalog_version", Long.class)).isEqualTo(4);
+    }
+
+    private static Operation operation(Long id, Integer makeId) {
+        return Operation.builder().id(id).makeId(makeId).build();
+    }
+}
@@ -0,0 +1,141 @@
+package org.infomedia.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.infomedia.catalog.CatalogDictionary;
+import org.infomedia.dto.OperationImportResponse;
+import org.infomedia.event.OperationsImportedEvent;
+import org.infomedia.exception.BadRequestException;
+import org.infomedia.model.Operation;
+import org.infomedia.repository.OperationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OperationImportServiceTest {
+
+    private static final String HEADER = "brand,model,engine,yearStart,yearEnd,distanceStart,distanceEnd,name,approxCost,description,time";
+
+    private final OperationRepository operationRepository = mock(OperationRepository.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final List<List<String>> savedBatches = new ArrayList<>();
+
+    private OperationImportService operationImportService;
+
+    @BeforeEach
+    void setUp() {
+        when(operationRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Operation> batch = invocation.getArgument(0);
+            savedBatches.add(batch.stream().map(Operation::getName).toList());
+            return batch;
+        });
+        operationImportService = new OperationImportService(operationRepository, entityManager,
+                mock(PlatformTransactionManager.class), eventPublisher, mock(CatalogDictionary.class),
+                mock(OperationChangeLog.class), Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), 2, 10);
+    }
+
+    @Test
+    void importCsv_shouldInsertValidRowsInBatchesAndReportInvalidOnes() throws Exception {
+        OperationImportResponse result = operationImportService.importCsv(body(
+                HEADER,
+                "Toyota,Corolla,1.8L,2015,2020,10000,50000,Oil Change,75.0,\"Synthetic, 5W-30\",1",
+                "Toyota,Corolla,1.8L,2015,2020,0,200000,Wiper Blades,20.0,,1",
+                "Toyota,Corolla,1.8L,2015,2020,,,No Distance,,,",
+                "",
+                "Toyota,Corolla,1.8L,2020,2015,10000,50000,Backwards,75.0,,1",
+                "Toyota,Corolla,1.8L,soon,2020,10000,50000,Not A Year,75.0,,1",
+                "Honda,Civic,2.0L,2018,2022,20000,60000,Brake Flush,90.0,,2"));
+
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getRejected()).isEqualTo(3);
+        assertThat(result.getErrors().get(0).getError()).contains("distanceStart: must not be null");
+        assertThat(result.getErrors()).extracting(OperationImportResponse.RowError::getLine).containsExactly(4L, 6L, 7L);
+        assertThat(savedBatches).containsExactly(List.of("Oil Change", "Wiper Blades"), List.of("Brake Flush"));
+        verify(entityManager, times(2)).clear();
+        verify(eventPublisher, times(2)).publishEvent(any(OperationsImportedEvent.class));
+    }
+
+    @Test
+    void importCsv_shouldRejectUnknownColumns() {
+        assertThatThrownBy(() -> operationImportService.importCsv(body("brand,colour")))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("colour");
+        verifyNoInteractions(operationRepository);
+    }
+
+    @Test
+    void importCsv_shouldReadQuotedFieldsSpanningLinesAndReportParserLocations() throws Exception {
+        OperationImportResponse result = operationImportService.importCsv(body(
+                HEADER,
+                "Toyota,Corolla,1.8L,2015,2020,10000,50000,Oil Change,75.0,\"Drain the oil.",
+                "Replace the filter, then refill.\",1",
+                "Toyota,Corolla,1.8L,2015,2020,0,200000,Wiper Blades,20.0,,1",
+                "Toyota,Corolla,1.8L,2015,soon,0,200000,Not A Year,20.0,,1"));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(savedBatches).containsExactly(List.of("Oil Change", "Wiper Blades"));
+        assertThat(result.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getLine()).isEqualTo(5);
+            assertThat(error.getColumn()).isEqualTo(26);
+            assertThat(error.getError()).contains("soon");
+        });
+    }
+
+    @Test
+    void importNdjson_shouldRejectOnlyTheRowsThatFailInAFailedBatch() throws Exception {
+        doAnswer(invocation -> {
+            List<Operation> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(operation -> operation.getName().equals("Tire Rotation"))) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            return batch;
+        }).when(operationRepository).saveAll(any());
+        List<String> lines = new ArrayList<>();
+        lines.add(json("Oil Change"));
+        lines.add(json("Tire Rotation"));
+        lines.add(json("Brake Flush"));
+        for (int i = 0; i < 12; i++) {
+            lines.add("{\"brand\": ");
+        }
+
+        OperationImportResponse result = operationImportService.importNdjson(body(lines.toArray(String[]::new)));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getRejected()).isEqualTo(13);
+        assertThat(result.getErrors()).hasSize(10);
+        assertThat(result.getErrors().get(0).getLine()).isEqualTo(2);
+        assertThat(result.getErrors().get(0).getError()).contains("duplicate");
+        assertThat(result.getErrors().get(1).getColumn()).isNotNull();
+        ArgumentCaptor<OperationsImportedEvent> event = ArgumentCaptor.forClass(OperationsImportedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(event.capture());
+        assertThat(event.getAllValues()).flatExtracting(OperationsImportedEvent::operations)
+                .extracting(Operation::getName).containsExactly("Oil Change", "Brake Flush");
+    }
+
+    private static String json(String name) {
+        return """
+                {"brand":"Toyota","model":"Corolla","engine":"1.8L","yearStart":2015,"yearEnd":2020,"distanceStart":0,"distanceEnd":50000,\
+                "name":"%s","approxCost":75.0,"time":1}\
+                """.formatted(name);
+    }
+
+    private static InputStream body(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
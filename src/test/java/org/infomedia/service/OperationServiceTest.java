@@ -1,11 +1,21 @@
 package org.infomedia.service;
 
 import jakarta.persistence.criteria.*;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.infomedia.catalog.CatalogDictionary;
+import org.infomedia.dto.CountMode;
 import org.infomedia.dto.OperationRequest;
 import org.infomedia.dto.OperationResponse;
 import org.infomedia.dto.OperationSearchRequest;
+import org.infomedia.event.OperationChangedEvent;
+import org.infomedia.event.OperationDeletedEvent;
+import org.infomedia.exception.BadRequestException;
 import org.infomedia.exception.ResourceNotFoundException;
+import org.infomedia.index.OperationTextIndex;
+import org.infomedia.index.TextDocument;
+import org.infomedia.model.CatalogTerm.Kind;
 import org.infomedia.model.Operation;
+import org.infomedia.model.OperationKey;
 import org.infomedia.repository.OperationRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,11 +23,13 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.util.List;
@@ -27,6 +39,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 class OperationServiceTest {
@@ -35,10 +48,22 @@ class OperationServiceTest {
     private OperationRepository operationRepository;
 
     @Mock
-    private ModelMapper modelMapper;
+    private CriteriaBuilder cb;
 
     @Mock
-    private CriteriaBuilder cb;
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CountEstimator countEstimator;
+
+    @Mock
+    private CatalogDictionary catalogDictionary;
+
+    @Mock
+    private OperationTextIndex operationTextIndex;
+
+    @Mock
+    private OperationChangeLog operationChangeLog;
 
     @InjectMocks
     private OperationService operationService;
@@ -84,7 +109,9 @@ class OperationServiceTest {
 
         assertThat(response).isNotNull();
         assertThat(response.getBrand()).isEqualTo("Toyota");
+        verify(catalogDictionary).encode(any(Operation.class));
         verify(operationRepository, times(1)).save(any(Operation.class));
+        verify(eventPublisher).publishEvent(new OperationChangedEvent(entity, null));
     }
 
 
@@ -123,8 +150,11 @@ class OperationServiceTest {
         OperationResponse response = operationService.update(id, request);
 
         assertThat(response).isNotNull();
-        verify(modelMapper, times(1)).map(request, entity);
+        assertThat(entity.getBrand()).isEqualTo("Honda");
+        assertThat(response.getBrand()).isEqualTo("Honda");
+        verify(catalogDictionary).encode(entity);
         verify(operationRepository, times(1)).save(entity);
+        verify(eventPublisher).publishEvent(new OperationChangedEvent(entity, OperationKey.of("Toyota", null, null)));
     }
 
     @Test
@@ -152,12 +182,49 @@ class OperationServiceTest {
         assertThrows(ResourceNotFoundException.class, () -> operationService.update(99L, request));
     }
 
+    @Test
+    void update_shouldPassThePreviousBrandToTheChangeLog() {
+        Operation existing = new Operation();
+        existing.setId(1L);
+        existing.setBrand("Toyota");
+        existing.setMakeId(7);
+        OperationRequest request = new OperationRequest("Honda", "Civic", "1.5L",
+                2020, 2025, 0d, 10000d, "Service", 100d, null, 1);
+        when(operationRepository.findById(1L)).thenReturn(Optional.of(existing));
+
+        operationService.update(1L, request);
+
+        verify(operationChangeLog).recordChange(existing, 7);
+    }
+
+    @Test
+    void delete_shouldRemoveTheOperationAndRecordATombstone() {
+        Operation existing = new Operation();
+        existing.setId(1L);
+        when(operationRepository.findById(1L)).thenReturn(Optional.of(existing));
+
+        operationService.delete(1L);
+
+        verify(operationRepository).delete(existing);
+        verify(operationChangeLog).recordDeletion(existing);
+        verify(eventPublisher).publishEvent(new OperationDeletedEvent(existing));
+    }
+
+    @Test
+    void delete_shouldThrowResourceNotFound_whenOperationDoesNotExist() {
+        when(operationRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> operationService.delete(99L));
+        verifyNoInteractions(operationChangeLog);
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     void search_shouldExecuteSpecificationAndReturnResults() {
         OperationSearchRequest request = new OperationSearchRequest(
                 "Toyota", "Corolla", "2.0 Turbo",
-                2020, 2022, 50000d, 55000d);
+                2020, 2022, 50000d, 55000d, null);
+        when(catalogDictionary.find(Kind.MAKE, "Toyota")).thenReturn(7);
 
         Operation entity = new Operation();
         entity.setId(1L);
@@ -190,18 +257,18 @@ class OperationServiceTest {
         Predicate base = mock(Predicate.class);
         Predicate newPredicate = mock(Predicate.class);
 
-        Path<Object> brandPath = mock(Path.class);
-        Expression<String> lowerExpr = mock(Expression.class);
+        Path<Object> makeIdPath = mock(Path.class);
 
-        when(root.get("brand")).thenReturn(brandPath);
-        when(cb.lower(any(Expression.class))).thenReturn(lowerExpr);
-        when(cb.equal(eq(lowerExpr), any())).thenReturn(newPredicate);
+        when(root.get("makeId")).thenReturn(makeIdPath);
+        when(cb.equal(makeIdPath, 7)).thenReturn(newPredicate);
 
         when(cb.conjunction()).thenReturn(base);
         when(cb.and(any(), any())).thenReturn(newPredicate);
 
         Predicate resultPredicate = spec.toPredicate(root, query, cb);
         assertThat(resultPredicate).isNotNull();
+        verify(cb).equal(makeIdPath, 7);
+        verify(cb, never()).lower(any());
     }
 
     @Test
@@ -254,4 +321,99 @@ class OperationServiceTest {
 
         assertThat(result).isEmpty();
     }
+
+    @Test
+    void search_shouldSkipCount_whenCountModeNone() {
+        OperationSearchRequest request = new OperationSearchRequest();
+        request.setBrand("Toyota");
+        Operation entity = new Operation();
+        entity.setId(1L);
+        entity.setBrand("Toyota");
+        Pageable pageable = PageRequest.of(0, 10);
+
+        when(operationRepository.findSlice(any(), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(entity), pageable, true));
+
+        Slice<OperationResponse> result = operationService.search(request, pageable, CountMode.NONE);
+
+        assertThat(result).isNotInstanceOf(Page.class);
+        assertThat(result.hasNext()).isTrue();
+        assertThat(result.getContent().get(0).getBrand()).isEqualTo("Toyota");
+        verify(operationRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        verify(operationRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    void search_shouldUseCachedEstimate_whenCountModeEstimate() {
+        OperationSearchRequest request = new OperationSearchRequest();
+        request.setBrand(" TOYOTA");
+        Pageable pageable = PageRequest.of(0, 10);
+        Slice<Operation> slice = new SliceImpl<>(List.of(), pageable, false);
+
+        when(operationRepository.findSlice(any(), eq(pageable))).thenReturn(slice);
+        when(countEstimator.page(any(), any(), any())).thenReturn(Page.empty(pageable));
+
+        operationService.search(request, pageable, CountMode.ESTIMATE);
+
+        ArgumentCaptor<Object> filter = ArgumentCaptor.forClass(Object.class);
+        verify(countEstimator).page(any(), filter.capture(), any());
+        assertThat(filter.getValue()).asInstanceOf(InstanceOfAssertFactories.LIST).contains("toyota");
+        verify(operationRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void search_shouldPageTextMatchesInRelevanceOrder() {
+        OperationSearchRequest request = new OperationSearchRequest();
+        request.setText("timing belt");
+        Operation first = new Operation();
+        first.setId(9L);
+        Operation second = new Operation();
+        second.setId(7L);
+
+        when(operationTextIndex.search(eq("timing belt"), any())).thenReturn(List.of(
+                new OperationTextIndex.Hit(9L, 4.0), new OperationTextIndex.Hit(7L, 3.0),
+                new OperationTextIndex.Hit(3L, 1.0)));
+        when(operationRepository.findAllById(List.of(9L, 7L))).thenReturn(List.of(second, first));
+
+        Slice<OperationResponse> result = operationService.search(request, PageRequest.of(0, 2), CountMode.NONE);
+
+        assertThat(result).isInstanceOfSatisfying(Page.class, page -> assertThat(page.getTotalElements()).isEqualTo(3));
+        assertThat(result.getContent()).extracting(OperationResponse::getId).containsExactly(9L, 7L);
+        verify(operationRepository, never()).findSlice(any(), any());
+    }
+
+    @Test
+    void search_shouldHandOtherFiltersToTheTextIndex() {
+        OperationSearchRequest request = new OperationSearchRequest();
+        request.setText("brake");
+        request.setBrand("Toyota");
+        request.setYearStart(2018);
+        when(catalogDictionary.find(any(), isNull())).thenReturn(null);
+        when(catalogDictionary.find(Kind.MAKE, "Toyota")).thenReturn(7);
+        when(operationTextIndex.search(eq("brake"), any())).thenReturn(List.of());
+
+        operationService.search(request, PageRequest.of(0, 10));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<java.util.function.Predicate<TextDocument>> filter =
+                ArgumentCaptor.forClass(java.util.function.Predicate.class);
+        verify(operationTextIndex).search(eq("brake"), filter.capture());
+        assertThat(filter.getValue().test(document(7, 2015, 2020))).isTrue();
+        assertThat(filter.getValue().test(document(8, 2015, 2020))).isFalse();
+        assertThat(filter.getValue().test(document(7, 2019, 2020))).isFalse();
+        verify(operationRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void seek_shouldRejectTextSearch() {
+        OperationSearchRequest request = new OperationSearchRequest();
+        request.setText("brake");
+
+        assertThatThrownBy(() -> operationService.seek(request, "", PageRequest.of(0, 10)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static TextDocument document(int makeId, int yearStart, int yearEnd) {
+        return new TextDocument(1L, makeId, 2, 3, yearStart, yearEnd, 0d, 1000d, 1);
+    }
 }
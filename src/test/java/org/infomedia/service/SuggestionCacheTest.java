@@ -0,0 +1,141 @@
+package org.infomedia.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.infomedia.catalog.CatalogDictionary;
+import org.infomedia.dto.CountMode;
+import org.infomedia.dto.SuggestionRequest;
+import org.infomedia.dto.SuggestionResponse;
+import org.infomedia.event.OperationChangedEvent;
+import org.infomedia.model.CatalogTerm.Kind;
+import org.infomedia.model.Operation;
+import org.infomedia.model.OperationKey;
+import org.infomedia.repository.OperationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class SuggestionCacheTest {
+
+    private final OperationRepository operationRepository = mock(OperationRepository.class);
+    private final CatalogDictionary catalogDictionary = mock(CatalogDictionary.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Pageable pageable = PageRequest.of(0, 10);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private SuggestionCache suggestionCache;
+
+    @BeforeEach
+    void setUp() {
+        when(catalogDictionary.find(Kind.MAKE, "toyota")).thenReturn(1);
+        when(catalogDictionary.find(Kind.MODEL, "corolla")).thenReturn(2);
+        when(catalogDictionary.find(Kind.ENGINE, "1.8l")).thenReturn(3);
+        when(operationRepository.findDistanceRanges(1, 2, 3))
+                .thenReturn(List.of(new Object[]{10000d, 50000d}, new Object[]{30000d, 100000d}));
+        suggestionCache = new SuggestionCache(operationRepository, catalogDictionary, meterRegistry, Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    void get_shouldShareEntriesWithinOneDistanceInterval() {
+        get(new SuggestionRequest("Toyota", "Corolla", "1.8L", 2016, 12000d));
+        get(new SuggestionRequest("toyota ", "COROLLA", "1.8L", 2016, 18000d));
+        get(new SuggestionRequest("Toyota", "Corolla", "1.8L", 2016, 20000d));
+        get(new SuggestionRequest("Toyota", "Corolla", "1.8L", 2017, 12000d));
+
+        assertThat(loads).hasValue(3);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        verify(operationRepository, times(1)).findDistanceRanges(any(), any(), any());
+    }
+
+    @Test
+    void slot_shouldSeparateBoundariesFromOpenIntervals() {
+        double[] boundaries = {10, 20};
+
+        assertThat(SuggestionCache.slot(boundaries, 5)).isEqualTo(0);
+        assertThat(SuggestionCache.slot(boundaries, 10)).isEqualTo(1);
+        assertThat(SuggestionCache.slot(boundaries, 15)).isEqualTo(2);
+        assertThat(SuggestionCache.slot(boundaries, 20)).isEqualTo(3);
+        assertThat(SuggestionCache.slot(boundaries, 25)).isEqualTo(4);
+    }
+
+    @Test
+    void onOperationChanged_shouldInvalidateOnlyTheAffectedKeys() {
+        SuggestionRequest corolla = new SuggestionRequest("Toyota", "Corolla", "1.8L", 2016, 12000d);
+        SuggestionRequest civic = new SuggestionRequest("Honda", "Civic", "2.0L", 2019, 12000d);
+        get(corolla);
+        get(civic);
+
+        Operation moved = Operation.builder().brand("Toyota").model("Yaris").engine("1.5L").build();
+        suggestionCache.onOperationChanged(new OperationChangedEvent(moved, OperationKey.of("toyota", "corolla", "1.8l")));
+        get(corolla);
+        get(civic);
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void get_shouldNotServeResultsLoadedBeforeAnInvalidation() {
+        SuggestionRequest corolla = new SuggestionRequest("Toyota", "Corolla", "1.8L", 2016, 12000d);
+        Operation changed = Operation.builder().brand("Toyota").model("Corolla").engine("1.8L").build();
+
+        suggestionCache.get(corolla, pageable, CountMode.EXACT, () -> {
+            suggestionCache.onOperationChanged(new OperationChangedEvent(changed, null));
+            return load();
+        });
+        get(corolla);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_shouldKeepAnImmutableCopyOfTheResult() {
+        SuggestionRequest corolla = new SuggestionRequest("Toyota", "Corolla", "1.8L", 2016, 12000d);
+        SuggestionResponse oilChange = new SuggestionResponse(7L, "Oil Change", null, 75d, 1, "Toyota", "Corolla", "1.8L");
+
+        Slice<SuggestionResponse> loaded = suggestionCache.get(corolla, pageable, CountMode.EXACT,
+                () -> new PageImpl<>(List.of(oilChange), pageable, 1));
+        loaded.getContent().get(0).setApproxCost(0d);
+        Slice<SuggestionResponse> first = get(corolla);
+        first.getContent().get(0).setName("Changed");
+        Slice<SuggestionResponse> second = get(corolla);
+
+        assertThat(loads).hasValue(0);
+        assertThat(second).isInstanceOf(Page.class);
+        assertThat(((Page<SuggestionResponse>) second).getTotalElements()).isEqualTo(1);
+        assertThat(second.getContent().get(0).getName()).isEqualTo("Oil Change");
+        assertThat(second.getContent().get(0).getApproxCost()).isEqualTo(75d);
+        assertThat(second.getContent().get(0)).isNotSameAs(first.getContent().get(0));
+    }
+
+    @Test
+    void get_shouldBypassIncompleteRequests() {
+        SuggestionRequest request = new SuggestionRequest();
+        request.setBrand("Toyota");
+
+        get(request);
+        get(request);
+
+        assertThat(loads).hasValue(2);
+        verifyNoInteractions(operationRepository);
+    }
+
+    private Slice<SuggestionResponse> get(SuggestionRequest request) {
+        return suggestionCache.get(request, pageable, CountMode.EXACT, this::load);
+    }
+
+    private Slice<SuggestionResponse> load() {
+        loads.incrementAndGet();
+        return new SliceImpl<>(List.of(), pageable, false);
+    }
+}
@@ -0,0 +1,165 @@
+package org.infomedia.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.infomedia.dto.CountMode;
+import org.infomedia.dto.SuggestionRequest;
+import org.infomedia.dto.SuggestionResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SuggestionCoalescerTest {
+
+    private final SuggestionService suggestionService = mock(SuggestionService.class);
+    private final OperationChangeLog operationChangeLog = mock(OperationChangeLog.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Pageable pageable = PageRequest.of(0, 10);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger calls = new AtomicInteger();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private SuggestionCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        when(operationChangeLog.committedVersion()).thenReturn(7L);
+        when(suggestionService.suggest(any(), any(), any())).thenAnswer(invocation -> {
+            int call = calls.incrementAndGet();
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return result(call);
+        });
+        coalescer = new SuggestionCoalescer(suggestionService, operationChangeLog, meterRegistry, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void suggest_shouldShareOneCallBetweenIdenticalConcurrentRequests() throws Exception {
+        Future<Slice<SuggestionResponse>> first = submit(new SuggestionRequest("Toyota", "Corolla", "1.8L", 2016, 12000d));
+        started.await(5, TimeUnit.SECONDS);
+        Future<Slice<SuggestionResponse>> second = submit(new SuggestionRequest("toyota ", "COROLLA", "1.8l", 2016, 12000d));
+        awaitCoalesced(1);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(second.get(5, TimeUnit.SECONDS));
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.get("suggestion.requests").tag("outcome", "executed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("suggestion.requests.in.flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void suggest_shouldNotShareBetweenDifferentRequests() throws Exception {
+        release.countDown();
+        SuggestionRequest request = new SuggestionRequest("Toyota", "Corolla", "1.8L", 2016, 12000d);
+
+        coalescer.suggest(request, pageable, CountMode.EXACT);
+        coalescer.suggest(request, PageRequest.of(1, 10), CountMode.EXACT);
+        coalescer.suggest(request, pageable, CountMode.NONE);
+        coalescer.suggest(new SuggestionRequest("Toyota", "Corolla", "1.8L", 2017, 12000d), pageable, CountMode.EXACT);
+
+        assertThat(calls).hasValue(4);
+    }
+
+    @Test
+    void suggest_shouldStartANewCallOnceTheCallInFlightCompleted() {
+        release.countDown();
+        SuggestionRequest request = new SuggestionRequest("Toyota", "Corolla", "1.8L", 2016, 12000d);
+
+        Slice<SuggestionResponse> first = coalescer.suggest(request, pageable, CountMode.EXACT);
+        Slice<SuggestionResponse> second = coalescer.suggest(request, pageable, CountMode.EXACT);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(calls).hasValue(2);
+        assertThat(meterRegistry.get("suggestion.requests").tag("outcome", "coalesced").counter().count()).isZero();
+    }
+
+    @Test
+    void suggest_shouldNotJoinACallStartedBeforeACatalogWrite() throws Exception {
+        SuggestionRequest request = new SuggestionRequest("Toyota", "Corolla", "1.8L", 2016, 12000d);
+        Future<Slice<SuggestionResponse>> first = submit(request);
+        started.await(5, TimeUnit.SECONDS);
+        when(operationChangeLog.committedVersion()).thenReturn(8L);
+        Future<Slice<SuggestionResponse>> second = submit(request);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isNotSameAs(second.get(5, TimeUnit.SECONDS));
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void suggest_shouldFailWaitingRequestsWithTheException() throws Exception {
+        CountDownLatch failing = new CountDownLatch(1);
+        reset(suggestionService);
+        when(suggestionService.suggest(any(), any(), any())).thenAnswer(invocation -> {
+            failing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("database unavailable");
+        });
+        SuggestionRequest request = new SuggestionRequest("Toyota", "Corolla", "1.8L", 2016, 12000d);
+        Future<Slice<SuggestionResponse>> first = submit(request);
+        failing.await(5, TimeUnit.SECONDS);
+        Future<Slice<SuggestionResponse>> second = submit(request);
+        awaitCoalesced(1);
+        release.countDown();
+
+        for (Future<Slice<SuggestionResponse>> future : List.of(first, second)) {
+            assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("database unavailable");
+        }
+        verify(suggestionService, times(1)).suggest(any(), any(), any());
+    }
+
+    @Test
+    void suggest_shouldCallThroughWhenDisabled() throws Exception {
+        release.countDown();
+        coalescer = new SuggestionCoalescer(suggestionService, operationChangeLog, new SimpleMeterRegistry(), false);
+        SuggestionRequest request = new SuggestionRequest("Toyota", "Corolla", "1.8L", 2016, 12000d);
+
+        coalescer.suggest(request, pageable, CountMode.EXACT);
+
+        verify(suggestionService).suggest(request, pageable, CountMode.EXACT);
+        verifyNoInteractions(operationChangeLog);
+    }
+
+    private Future<Slice<SuggestionResponse>> submit(SuggestionRequest request) {
+        return executor.submit(() -> coalescer.suggest(request, pageable, CountMode.EXACT));
+    }
+
+    private void awaitCoalesced(int count) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            if (meterRegistry.get("suggestion.requests").tag("outcome", "coalesced").counter().count() >= count) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("no request joined the call in flight");
+    }
+
+    private static Slice<SuggestionResponse> result(int call) {
+        return new SliceImpl<>(List.of(new SuggestionResponse((long) call, "Oil change", null, 50d, 1,
+                "Toyota", "Corolla", "1.8L")));
+    }
+}
@@ -1,9 +1,18 @@
 package org.infomedia.service;
 
 import jakarta.persistence.criteria.*;
+import org.infomedia.catalog.CatalogDictionary;
+import org.infomedia.dto.DistanceUnit;
+import org.infomedia.dto.SuggestionBatchRequest;
+import org.infomedia.dto.SuggestionBatchResponse;
+import org.infomedia.dto.SuggestionCostResponse;
 import org.infomedia.dto.SuggestionRequest;
 import org.infomedia.dto.SuggestionResponse;
+import org.infomedia.index.IndexedOperation;
+import org.infomedia.index.OperationIndex;
+import org.infomedia.model.CatalogTerm.Kind;
 import org.infomedia.model.Operation;
+import org.infomedia.model.OperationKey;
 import org.infomedia.repository.OperationRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,7 +37,13 @@ class SuggestionServiceTest {
     private OperationRepository operationRepository;
 
     @Mock
-    private org.modelmapper.ModelMapper modelMapper;
+    private OperationIndex operationIndex;
+
+    @Mock
+    private SuggestionCache suggestionCache;
+
+    @Mock
+    private CatalogDictionary catalogDictionary;
 
     @InjectMocks
     private SuggestionService suggestionService;
@@ -61,22 +76,14 @@ class SuggestionServiceTest {
         Page<Operation> repoPage = new PageImpl<>(List.of(op), pageable, 1);
 
         when(operationRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(repoPage);
-        when(modelMapper.map(any(Operation.class), eq(SuggestionResponse.class)))
-                .thenAnswer(invocation -> {
-                    Operation o = invocation.getArgument(0);
-                    SuggestionResponse resp = new SuggestionResponse();
-                    resp.setOperationId(o.getId());
-                    resp.setBrand(o.getBrand());
-                    resp.setModel(o.getModel());
-                    return resp;
-                });
 
         Page<SuggestionResponse> result = suggestionService.suggest(request, pageable);
 
         assertThat(result).hasSize(1);
         assertThat(result.getContent().get(0).getBrand()).isEqualTo("Toyota");
         verify(operationRepository, times(1)).findAll(any(Specification.class), eq(pageable));
-        verify(modelMapper, times(1)).map(op, SuggestionResponse.class);
+        assertThat(result.getContent().get(0).getOperationId()).isEqualTo(1L);
+        assertThat(result.getContent().get(0).getEngine()).isEqualTo("VVTi");
     }
 
     @Test
@@ -91,14 +98,6 @@ class SuggestionServiceTest {
         Page<Operation> repoPage = new PageImpl<>(List.of(op), pageable, 1);
 
         when(operationRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(repoPage);
-        when(modelMapper.map(any(Operation.class), eq(SuggestionResponse.class)))
-                .thenAnswer(invocation -> {
-                    Operation o = invocation.getArgument(0);
-                    SuggestionResponse resp = new SuggestionResponse();
-                    resp.setOperationId(o.getId());
-                    resp.setBrand(o.getBrand());
-                    return resp;
-                });
 
         Page<SuggestionResponse> result = suggestionService.suggest(request, pageable);
 
@@ -106,6 +105,144 @@ class SuggestionServiceTest {
         assertThat(result.getContent().get(0).getBrand()).isEqualTo("Honda");
     }
 
+    @Test
+    void testSuggestFromIndexWhenMemoryEngineEnabled() {
+        SuggestionRequest request = new SuggestionRequest("Toyota ", "Corolla", "VVTi", 2015, 50000d);
+        IndexedOperation op = new IndexedOperation(4L, "Toyota", "Corolla", "VVTi", 2014, 2019,
+                60000d, 100000d, "Brake Fluid Flush", 100d, "Flush and replace brake fluid", 2);
+
+        when(operationIndex.isEnabled()).thenReturn(true);
+        when(operationIndex.isReady()).thenReturn(true);
+        when(operationIndex.supports(any())).thenReturn(true);
+        when(operationIndex.find(eq(OperationKey.of("toyota", "corolla", "vvti")), eq(2015), anyDouble(), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(op), pageable, 1));
+
+        Page<SuggestionResponse> result = suggestionService.suggest(request, pageable);
+
+        assertThat(result).hasSize(1);
+        assertThat(result.getContent().get(0).getOperationId()).isEqualTo(4L);
+        assertThat(result.getContent().get(0).getName()).isEqualTo("Brake Fluid Flush");
+        verifyNoInteractions(operationRepository);
+    }
+
+    @Test
+    void testCostsSummedOverIndexPerName() {
+        SuggestionRequest request = new SuggestionRequest("Toyota", "Corolla", "VVTi", 2015, 50000d);
+        List<IndexedOperation> operations = List.of(
+                new IndexedOperation(4L, "Toyota", "Corolla", "VVTi", 2014, 2019, 0d, 100000d,
+                        "Oil Change", 50.5, null, 1),
+                new IndexedOperation(5L, "Toyota", "Corolla", "VVTi", 2014, 2019, 0d, 100000d,
+                        "Brake Fluid Flush", 100d, null, 2),
+                new IndexedOperation(6L, "Toyota", "Corolla", "VVTi", 2014, 2019, 0d, 100000d,
+                        "Oil Change", null, null, null));
+
+        when(operationIndex.isEnabled()).thenReturn(true);
+        when(operationIndex.isReady()).thenReturn(true);
+        when(operationIndex.find(eq(OperationKey.of("toyota", "corolla", "vvti")), eq(2015), anyDouble()))
+                .thenReturn(operations);
+
+        SuggestionCostResponse result = suggestionService.costs(request, true);
+
+        assertThat(result.getCount()).isEqualTo(3);
+        assertThat(result.getTotalCost()).isEqualTo(150.5);
+        assertThat(result.getTotalTime()).isEqualTo(3);
+        assertThat(result.getBreakdown()).containsExactly(
+                new SuggestionCostResponse.Item("Brake Fluid Flush", 1, 100d, 2),
+                new SuggestionCostResponse.Item("Oil Change", 2, 50.5, 1));
+        assertThat(suggestionService.costs(request, false).getBreakdown()).isNull();
+        verifyNoInteractions(operationRepository);
+    }
+
+    @Test
+    void testCostsAggregatedInTheDatabaseWithoutIndex() {
+        SuggestionRequest request = new SuggestionRequest("Toyota", "Corolla", "VVTi", 2015, 50000d);
+        when(operationRepository.sumCosts(any(), eq(false)))
+                .thenReturn(List.of(new SuggestionCostResponse.Item(null, 12, 1480.25, 30)));
+
+        SuggestionCostResponse result = suggestionService.costs(request, false);
+
+        assertThat(result).isEqualTo(new SuggestionCostResponse(12, 1480.25, 30, null));
+        verify(operationRepository).sumCosts(any(), eq(false));
+        verify(operationIndex, never()).find(any(), anyInt(), anyDouble());
+    }
+
+    @Test
+    void testSuggestPassesKilometersThroughUnconverted() {
+        SuggestionRequest request = new SuggestionRequest("Toyota", "Corolla", "VVTi", 2015, 80000d,
+                DistanceUnit.KILOMETERS);
+
+        when(operationIndex.isEnabled()).thenReturn(true);
+        when(operationIndex.isReady()).thenReturn(true);
+        when(operationIndex.supports(any())).thenReturn(true);
+        when(operationIndex.find(any(), anyInt(), anyDouble(), any())).thenReturn(Page.empty(pageable));
+
+        suggestionService.suggest(request, pageable);
+
+        verify(operationIndex).find(OperationKey.of("toyota", "corolla", "vvti"), 2015, 80000d, pageable);
+    }
+
+    @Test
+    void testSuggestBatchDeduplicatesAndQueriesOncePerKey() {
+        SuggestionRequest corolla2015 = new SuggestionRequest("Toyota", "Corolla", "1.8L", 2015, 20000d);
+        SuggestionRequest corolla2018 = new SuggestionRequest("toyota", "COROLLA", "1.8L", 2018, 40000d);
+        SuggestionRequest civic = new SuggestionRequest("Honda", "Civic", "2.0L", 2019, 20000d);
+        SuggestionBatchRequest request = new SuggestionBatchRequest(
+                List.of(corolla2015, corolla2018, corolla2015, civic), 1);
+
+        Operation oilChange = Operation.builder().id(7L).brand("Toyota").model("Corolla").engine("1.8L")
+                .yearStart(2014).yearEnd(2019).distanceStart(20000d).distanceEnd(50000d).name("Oil Change").build();
+        Operation brakeFlush = Operation.builder().id(8L).brand("Toyota").model("Corolla").engine("1.8L")
+                .yearStart(2014).yearEnd(2019).distanceStart(30000d).distanceEnd(100000d).name("Brake Fluid Flush").build();
+
+        when(catalogDictionary.find(Kind.MAKE, "toyota")).thenReturn(1);
+        when(catalogDictionary.find(Kind.MODEL, "corolla")).thenReturn(2);
+        when(catalogDictionary.find(Kind.ENGINE, "1.8l")).thenReturn(3);
+        when(catalogDictionary.find(Kind.MAKE, "honda")).thenReturn(4);
+        when(catalogDictionary.find(Kind.MODEL, "civic")).thenReturn(5);
+        when(catalogDictionary.find(Kind.ENGINE, "2.0l")).thenReturn(6);
+        when(operationRepository.findCandidates(eq(1), eq(2), eq(3),
+                eq(2015), eq(2018), anyDouble(), anyDouble())).thenReturn(List.of(brakeFlush, oilChange));
+        when(operationRepository.findCandidates(eq(4), eq(5), eq(6),
+                anyInt(), anyInt(), anyDouble(), anyDouble())).thenReturn(List.of());
+
+        SuggestionBatchResponse result = suggestionService.suggestBatch(request);
+
+        assertThat(result.getResults()).hasSize(4);
+        assertThat(result.getResults().get(0).getTotal()).isEqualTo(2);
+        assertThat(result.getResults().get(0).getSuggestions())
+                .extracting(SuggestionResponse::getOperationId).containsExactly(7L);
+        assertThat(result.getResults().get(1).getTotal()).isEqualTo(1);
+        assertThat(result.getResults().get(1).getSuggestions())
+                .extracting(SuggestionResponse::getOperationId).containsExactly(8L);
+        assertThat(result.getResults().get(2).getIndex()).isEqualTo(2);
+        assertThat(result.getResults().get(2).getSuggestions()).isEqualTo(result.getResults().get(0).getSuggestions());
+        assertThat(result.getResults().get(3).getSuggestions()).isEmpty();
+        verify(operationRepository, times(2)).findCandidates(any(), any(), any(),
+                anyInt(), anyInt(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testSuggestBatchMatchesEveryYearForAnyYear() {
+        SuggestionRequest anyYear = new SuggestionRequest("Toyota", "Corolla", "1.8L", SuggestionRequest.ANY_YEAR, 30000d);
+        SuggestionBatchRequest request = new SuggestionBatchRequest(List.of(anyYear), null);
+
+        Operation older = Operation.builder().id(7L).brand("Toyota").model("Corolla").engine("1.8L")
+                .yearStart(2005).yearEnd(2010).distanceStart(20000d).distanceEnd(50000d).name("Oil Change").build();
+        Operation newer = Operation.builder().id(8L).brand("Toyota").model("Corolla").engine("1.8L")
+                .yearStart(2019).yearEnd(2024).distanceStart(30000d).distanceEnd(100000d).name("Brake Fluid Flush").build();
+
+        when(catalogDictionary.find(Kind.MAKE, "toyota")).thenReturn(1);
+        when(catalogDictionary.find(Kind.MODEL, "corolla")).thenReturn(2);
+        when(catalogDictionary.find(Kind.ENGINE, "1.8l")).thenReturn(3);
+        when(operationRepository.findCandidates(eq(1), eq(2), eq(3),
+                eq(Integer.MIN_VALUE), eq(Integer.MAX_VALUE), anyDouble(), anyDouble())).thenReturn(List.of(older, newer));
+
+        SuggestionBatchResponse result = suggestionService.suggestBatch(request);
+
+        assertThat(result.getResults().get(0).getSuggestions())
+                .extracting(SuggestionResponse::getOperationId).containsExactly(7L, 8L);
+    }
+
     // ---------------- NEGATIVE SCENARIOS ----------------
 
     @Test
@@ -132,14 +269,6 @@ class SuggestionServiceTest {
 
         Page<Operation> repoPage = new PageImpl<>(List.of(op), pageable, 1);
         when(operationRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(repoPage);
-        when(modelMapper.map(any(Operation.class), eq(SuggestionResponse.class)))
-                .thenAnswer(invocation -> {
-                    Operation o = invocation.getArgument(0);
-                    SuggestionResponse resp = new SuggestionResponse();
-                    resp.setOperationId(o.getId());
-                    resp.setBrand(o.getBrand());
-                    return resp;
-                });
 
         Page<SuggestionResponse> result = suggestionService.suggest(request, pageable);
 
@@ -154,6 +283,7 @@ class SuggestionServiceTest {
     void testSpecificationLambdaExecutes() {
         SuggestionRequest request = new SuggestionRequest("Toyota", "Corolla", "2.0 Turbo",
                 2020, 50000d);
+        when(catalogDictionary.find(Kind.MAKE, "Toyota")).thenReturn(7);
 
         Operation op = new Operation();
         op.setId(3L);
@@ -175,15 +305,15 @@ class SuggestionServiceTest {
         Root<Operation> root = mock(Root.class);
         Predicate pred = mock(Predicate.class);
 
-        Path<Object> brandPath = mock(Path.class);
-        Expression<String> lowerExpr = mock(Expression.class);
+        Path<Object> makeIdPath = mock(Path.class);
 
-        when(root.get("brand")).thenReturn(brandPath);
-        when(cb.lower(any(Expression.class))).thenReturn(lowerExpr);
-        when(cb.equal(lowerExpr, "toyota")).thenReturn(pred);
+        when(root.get("makeId")).thenReturn(makeIdPath);
+        when(cb.equal(makeIdPath, 7)).thenReturn(pred);
         when(cb.and(any(Predicate[].class))).thenReturn(pred);
 
         Predicate resultPredicate = spec.toPredicate(root, query, cb);
         assertThat(resultPredicate).isNotNull();
+        verify(cb).equal(makeIdPath, 7);
+        verify(cb, never()).lower(any());
     }
 }
@@ -0,0 +1,45 @@
+package org.infomedia.service;
+
+import org.infomedia.catalog.CatalogDictionary;
+import org.infomedia.event.VehicleChangedEvent;
+import org.infomedia.model.Vehicle;
+import org.infomedia.repository.VehicleRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VehicleServiceTest {
+
+    @Mock
+    private VehicleRepository vehicleRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CatalogDictionary catalogDictionary;
+
+    @InjectMocks
+    private VehicleService vehicleService;
+
+    @Test
+    void create_shouldEncodeSaveAndPublishTheSavedVehicle() {
+        Vehicle vehicle = Vehicle.builder().brand("Honda").model("Civic").engine("1.5L").makeYear(2017).build();
+        Vehicle saved = Vehicle.builder().id(1L).brand("Honda").model("Civic").engine("1.5L").makeYear(2017).build();
+        when(vehicleRepository.save(vehicle)).thenReturn(saved);
+
+        Vehicle result = vehicleService.create(vehicle);
+
+        assertThat(result).isSameAs(saved);
+        verify(catalogDictionary).encode(vehicle);
+        verify(eventPublisher).publishEvent(new VehicleChangedEvent(saved));
+    }
+}
@@ -0,0 +1,120 @@
+package org.infomedia.web;
+
+import org.infomedia.web.AdaptiveConcurrencyLimiter.Admission;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    void acquire_shouldQueueOverTheLimitAndRejectWhenTheQueueIsFull() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 1);
+        assertThat(limiter.acquire(Duration.ZERO)).isEqualTo(Admission.ADMITTED);
+        assertThat(limiter.acquire(Duration.ZERO)).isEqualTo(Admission.ADMITTED);
+
+        CompletableFuture<Admission> waiting = CompletableFuture.supplyAsync(() -> acquire(limiter, Duration.ofSeconds(5)));
+        awaitQueued(limiter);
+        Admission overflow = limiter.acquire(Duration.ofSeconds(5));
+        limiter.release();
+
+        assertThat(overflow).isEqualTo(Admission.QUEUE_FULL);
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).isEqualTo(Admission.ADMITTED);
+        assertThat(limiter.inFlight()).isEqualTo(2);
+        assertThat(limiter.queued()).isZero();
+    }
+
+    @Test
+    void acquire_shouldGiveUpAfterTheMaximumWait() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 10, 5);
+        limiter.acquire(Duration.ZERO);
+
+        assertThat(limiter.acquire(Duration.ofMillis(20))).isEqualTo(Admission.TIMED_OUT);
+        assertThat(limiter.queued()).isZero();
+        assertThat(limiter.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void release_shouldRaiseTheLimitWhileLatencyHoldsAndTheLimitIsUsed() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100, 0);
+
+        for (int window = 0; window < 10; window++) {
+            saturatedWindow(limiter, 20 * MILLIS);
+        }
+
+        assertThat(limiter.limit()).isGreaterThan(15);
+    }
+
+    @Test
+    void release_shouldLowerTheLimitWhenLatencyRises() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(40, 2, 100, 0);
+        for (int window = 0; window < 5; window++) {
+            saturatedWindow(limiter, 20 * MILLIS);
+        }
+        int settled = limiter.limit();
+
+        for (int window = 0; window < 20; window++) {
+            saturatedWindow(limiter, 200 * MILLIS);
+        }
+
+        assertThat(limiter.limit()).isLessThan(settled / 2).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void release_shouldKeepTheLimitWhenItIsNotReached() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100, 0);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire(Duration.ZERO);
+            limiter.release(20 * MILLIS);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void constructor_shouldRejectInconsistentLimits() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(1, 2, 10, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(5, 0, 10, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Take every permit, then complete them all with the given latency.
+     */
+    private static void saturatedWindow(AdaptiveConcurrencyLimiter limiter, long latencyNanos) throws Exception {
+        int permits = 0;
+        while (limiter.acquire(Duration.ZERO) == Admission.ADMITTED) {
+            permits++;
+        }
+        for (int i = 0; i < Math.max(permits, AdaptiveConcurrencyLimiter.MIN_WINDOW); i++) {
+            if (i >= permits) {
+                limiter.acquire(Duration.ZERO);
+            }
+            limiter.release(latencyNanos);
+        }
+    }
+
+    private static Admission acquire(AdaptiveConcurrencyLimiter limiter, Duration maxWait) {
+        try {
+            return limiter.acquire(maxWait);
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void awaitQueued(AdaptiveConcurrencyLimiter limiter) throws InterruptedException {
+        for (int i = 0; i < 500 && limiter.queued() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(limiter.queued()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,90 @@
+package org.infomedia.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControlFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 10, 0);
+
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(
+            List.of("/suggestions", "/operations/search", "/vehicles/{id}/suggestions"),
+            limiter, Duration.ZERO, Duration.ofMillis(1500), registry);
+
+    @Test
+    void doFilter_shouldRunAdmittedRequestsAndReturnThePermit() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/suggestions"), response, chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(registry.get("http.server.requests.concurrency.limit").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void doFilter_shouldAnswer503WithRetryAfterWhenSaturated() throws Exception {
+        limiter.acquire(Duration.ZERO);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/operations/search"), response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(response.getContentAsString()).contains("\"error\"");
+        assertThat(registry.get("http.server.requests.rejected")
+                .tag("uri", "/operations/search").tag("reason", "queue_full").counter().count()).isEqualTo(1);
+        assertThat(limiter.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void doFilter_shouldLimitOnlyMatchingPaths() throws Exception {
+        limiter.acquire(Duration.ZERO);
+        MockHttpServletResponse suggestions = new MockHttpServletResponse();
+        MockHttpServletResponse vehicle = new MockHttpServletResponse();
+        MockFilterChain vehicleChain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/vehicles/42/suggestions"), suggestions, new MockFilterChain());
+        filter.doFilter(new MockHttpServletRequest("GET", "/vehicles/42"), vehicle, vehicleChain);
+
+        assertThat(suggestions.getStatus()).isEqualTo(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        assertThat(registry.get("http.server.requests.rejected")
+                .tag("uri", "/vehicles/{id}/suggestions").counter().count()).isEqualTo(1);
+        assertThat(vehicleChain.getRequest()).isNotNull();
+        assertThat(vehicle.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+    }
+
+    @Test
+    void doFilter_shouldReturnThePermitWhenTheRequestFails() {
+        MockFilterChain chain = new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest request, jakarta.servlet.ServletResponse response) {
+                throw new IllegalStateException("query failed");
+            }
+        };
+
+        assertThatThrownBy(() -> filter.doFilter(
+                new MockHttpServletRequest("POST", "/suggestions"), new MockHttpServletResponse(), chain))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("query failed");
+
+        assertThat(limiter.inFlight()).isZero();
+    }
+}
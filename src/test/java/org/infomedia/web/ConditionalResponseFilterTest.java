@@ -0,0 +1,169 @@
+package org.infomedia.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.infomedia.web.ConditionalResponseFilter.CachedResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConditionalResponseFilterTest {
+
+    private static final String BODY = "{\"content\":\"" + "brake pads ".repeat(200) + "\"}";
+
+    private final AtomicLong version = new AtomicLong(7);
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final Cache<String, CachedResponse> responses = Caffeine.newBuilder().maximumSize(10).build();
+
+    private final ConditionalResponseFilter filter =
+            new ConditionalResponseFilter(version::get, responses, 1024, registry);
+
+    @Test
+    void ifNoneMatch_shouldShortCircuitTo304UntilTheVersionChanges() throws Exception {
+        MockHttpServletResponse first = perform(get("brand", "Toyota"), json(BODY));
+        String etag = first.getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest revalidation = get("brand", "Toyota");
+        revalidation.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag);
+        MockHttpServletResponse notModified = perform(revalidation, json(BODY));
+        version.incrementAndGet();
+        MockHttpServletRequest afterWrite = get("brand", "Toyota");
+        afterWrite.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse changed = perform(afterWrite, json(BODY));
+
+        assertThat(etag).startsWith("\"7-");
+        assertThat(first.getContentAsString()).isEqualTo(BODY);
+        assertThat(notModified.getStatus()).isEqualTo(HttpServletResponse.SC_NOT_MODIFIED);
+        assertThat(notModified.getContentLength()).isZero();
+        assertThat(changed.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(changed.getHeader(HttpHeaders.ETAG)).startsWith("\"8-");
+        assertThat(calls).hasValue(2);
+        assertThat(registry.get("http.server.requests.not.modified").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void etag_shouldDependOnParametersAndBodyButNotTheirOrder() {
+        MockHttpServletRequest ordered = get("brand", "Toyota");
+        ordered.addParameter("size", "50");
+        MockHttpServletRequest reordered = new MockHttpServletRequest("GET", "/operations/search");
+        reordered.addParameter("size", "50");
+        reordered.addParameter("brand", "Toyota");
+
+        assertThat(ConditionalResponseFilter.etag(1, ordered, new byte[0]))
+                .isEqualTo(ConditionalResponseFilter.etag(1, reordered, new byte[0]))
+                .isNotEqualTo(ConditionalResponseFilter.etag(1, get("brand", "Honda"), new byte[0]))
+                .isNotEqualTo(ConditionalResponseFilter.etag(1, ordered, new byte[]{1}));
+    }
+
+    @Test
+    void largeResponses_shouldBeGzippedOnceAndServedFromTheCache() throws Exception {
+        MockHttpServletRequest gzipRequest = get("brand", "Toyota");
+        gzipRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        MockHttpServletResponse gzipped = perform(gzipRequest, json(BODY));
+        MockHttpServletResponse identity = perform(get("brand", "Toyota"), json(BODY));
+
+        assertThat(gzipped.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzipped.getContentLength()).isLessThan(BODY.length());
+        assertThat(gunzip(gzipped.getContentAsByteArray())).isEqualTo(BODY);
+        assertThat(identity.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(identity.getContentAsString()).isEqualTo(BODY);
+        assertThat(gzipped.getHeader(HttpHeaders.ETAG))
+                .isEqualTo(identity.getHeader(HttpHeaders.ETAG).replaceFirst("\"$", "-gzip\""));
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void postBody_shouldBeReplayedToTheController() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/suggestions");
+        request.setContent("{\"brand\":\"Toyota\"}".getBytes(StandardCharsets.UTF_8));
+
+        MockHttpServletResponse response = perform(request, (req, res) -> {
+            calls.incrementAndGet();
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.getOutputStream().write(req.getInputStream().readAllBytes());
+        });
+
+        assertThat(response.getContentAsString()).isEqualTo("{\"brand\":\"Toyota\"}");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotNull();
+    }
+
+    @Test
+    void errorResponses_shouldNotBeCached() throws Exception {
+        FilterChain badRequest = (req, res) -> {
+            calls.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.getWriter().write("{\"error\":\"bad\"}");
+        };
+
+        MockHttpServletResponse first = perform(get("size", "-1"), badRequest);
+        perform(get("size", "-1"), badRequest);
+
+        assertThat(first.getStatus()).isEqualTo(HttpServletResponse.SC_BAD_REQUEST);
+        assertThat(first.getContentAsString()).isEqualTo("{\"error\":\"bad\"}");
+        assertThat(first.getHeader(HttpHeaders.ETAG)).isNull();
+        assertThat(calls).hasValue(2);
+        assertThat(responses.asMap()).isEmpty();
+    }
+
+    @Test
+    void noStoreResponses_shouldNotBeCached() throws Exception {
+        FilterChain pendingCount = (req, res) -> {
+            calls.incrementAndGet();
+            ((HttpServletResponse) res).setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.getWriter().write("{\"estimated\":true}");
+        };
+
+        MockHttpServletResponse first = perform(get("count", "ESTIMATE"), pendingCount);
+        perform(get("count", "ESTIMATE"), pendingCount);
+
+        assertThat(first.getContentAsString()).isEqualTo("{\"estimated\":true}");
+        assertThat(first.getHeader(HttpHeaders.ETAG)).isNull();
+        assertThat(calls).hasValue(2);
+        assertThat(responses.asMap()).isEmpty();
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private FilterChain json(String body) {
+        return (req, res) -> {
+            calls.incrementAndGet();
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private static MockHttpServletRequest get(String name, String value) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/operations/search");
+        request.addParameter(name, value);
+        return request;
+    }
+
+    private static String gunzip(byte[] content) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}